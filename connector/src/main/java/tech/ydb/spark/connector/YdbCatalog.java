@@ -175,7 +175,7 @@ public class YdbCatalog implements CatalogPlugin, TableCatalog, SupportsNamespac
         String tablePath = ctx.getExecutor().extractPath(toPath(ident));
         List<FieldInfo> fields = types.fromSparkSchema(schema);
         TableDescription td = YdbTable.buildTableDesctiption(fields, new CaseInsensitiveStringMap(options));
-        ctx.getExecutor().createTable(tablePath, td);
+        ctx.getExecutor().createTable(tablePath, td, YdbPreSplit.uniformPolicy(td, options));
 
         // describe table to get information about shards
         TableDescription created = ctx.getExecutor().describeTable(tablePath, true);
@@ -30,6 +30,7 @@ import tech.ydb.query.QueryClient;
 import tech.ydb.spark.connector.common.ConnectionOption;
 import tech.ydb.spark.connector.common.ConnectorVersion;
 import tech.ydb.spark.connector.impl.YdbExecutor;
+import tech.ydb.spark.connector.impl.YdbGovernor;
 import tech.ydb.table.TableClient;
 
 /**
@@ -65,8 +66,13 @@ public class YdbContext implements Serializable, AutoCloseable {
     private final String password;
 
     private final int sessionPoolSize;
+    private final int sessionPrewarm;
     private final String prefixPath;
 
+    private final long ioWriteRate;
+    private final int ioWriteRequests;
+    private final int ioReadStreams;
+
     public YdbContext(Map<String, String> options) {
         this.connectionString = ConnectionOption.URL.read(options);
         if (connectionString == null || this.connectionString.trim().isEmpty()) {
@@ -88,7 +94,12 @@ public class YdbContext implements Serializable, AutoCloseable {
         this.password = ConnectionOption.AUTH_PASSWORD.read(parameters);
 
         this.sessionPoolSize = ConnectionOption.POOL_SIZE.readInt(parameters, 0);
+        this.sessionPrewarm = ConnectionOption.POOL_PREWARM.readInt(parameters, 0);
         this.prefixPath = ConnectionOption.PREFIX_PATH.read(parameters, null);
+
+        this.ioWriteRate = ConnectionOption.IO_WRITE_RATE.readLong(parameters, 0);
+        this.ioWriteRequests = ConnectionOption.IO_WRITE_REQUESTS.readInt(parameters, 0);
+        this.ioReadStreams = ConnectionOption.IO_READ_STREAMS.readInt(parameters, 0);
     }
 
     @Override
@@ -99,7 +110,8 @@ public class YdbContext implements Serializable, AutoCloseable {
     @Override
     public int hashCode() {
         return Objects.hash(
-                connectionString, useMetadata, useEnv, token, saKey, username, password, sessionPoolSize, prefixPath
+                connectionString, useMetadata, useEnv, token, saKey, username, password, sessionPoolSize,
+                sessionPrewarm, prefixPath, ioWriteRate, ioWriteRequests, ioReadStreams
         );
     }
 
@@ -125,7 +137,11 @@ public class YdbContext implements Serializable, AutoCloseable {
                 && useMetadata == o.useMetadata
                 && useEnv == o.useEnv
                 && sessionPoolSize == o.sessionPoolSize
-                && Objects.equals(prefixPath, o.prefixPath);
+                && sessionPrewarm == o.sessionPrewarm
+                && Objects.equals(prefixPath, o.prefixPath)
+                && ioWriteRate == o.ioWriteRate
+                && ioWriteRequests == o.ioWriteRequests
+                && ioReadStreams == o.ioReadStreams;
     }
 
     @Override
@@ -140,15 +156,22 @@ public class YdbContext implements Serializable, AutoCloseable {
     private YdbExecutor createExecutor() {
         logger.info("{} is creating executor", this);
         int maxPoolSize = getSessionPoolSize();
+        // prewarmed sessions are kept in the pools as the idle ones
+        int minPoolSize = Math.max(0, Math.min(sessionPrewarm, maxPoolSize));
 
         GrpcTransport transport = createGrpcTransport();
         TableClient tableClient = TableClient.newClient(transport)
-                .sessionPoolSize(0, maxPoolSize)
+                .sessionPoolSize(minPoolSize, maxPoolSize)
                 .build();
         QueryClient queryClient = QueryClient.newClient(transport)
+                .sessionPoolMinSize(minPoolSize)
                 .sessionPoolMaxSize(maxPoolSize)
                 .build();
-        return new YdbExecutor(transport, tableClient, queryClient, prefixPath);
+        // all readers and writers of this context in the JVM share one governor
+        YdbGovernor governor = new YdbGovernor(ioWriteRate, ioReadStreams, ioWriteRequests);
+        YdbExecutor executor = new YdbExecutor(transport, tableClient, queryClient, governor, prefixPath);
+        executor.prewarmSessions(minPoolSize);
+        return executor;
     }
 
     private GrpcTransport createGrpcTransport() {
@@ -0,0 +1,163 @@
+package tech.ydb.spark.connector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tech.ydb.spark.connector.common.FieldInfo;
+import tech.ydb.spark.connector.common.OperationOption;
+import tech.ydb.table.description.TableColumn;
+import tech.ydb.table.description.TableDescription;
+import tech.ydb.table.settings.PartitioningPolicy;
+import tech.ydb.table.values.PrimitiveType;
+import tech.ydb.table.values.TupleValue;
+import tech.ydb.table.values.Type;
+import tech.ydb.table.values.Value;
+
+/**
+ * Creation of the row table which is split into partitions before the first load. A table created by the writer
+ * starts as one partition and all writers hit the same shard until the auto-partitioning catches up, so the new table
+ * can be created from the DataFrame in advance with the partition boundaries at the quantiles of the sampled primary
+ * key values:
+ * <pre>
+ * YdbPreSplit.createTable(df, options);
+ * df.write().format("ydb").options(options).mode(SaveMode.Append).save();
+ * </pre>
+ * The options are the same as for the write, the count of partitions is set by {@code table.presplit}.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+public final class YdbPreSplit {
+    private static final Logger logger = LoggerFactory.getLogger(YdbPreSplit.class);
+
+    private static final int SAMPLES_PER_PARTITION = 100;
+
+    private YdbPreSplit() { }
+
+    /**
+     * Creates the table for the given DataFrame split by the sampled values of its primary key. The DataFrame is
+     * computed twice: to count the rows and to sample them.
+     *
+     * @param df data to be loaded into the table
+     * @param properties connection and table options
+     * @return true if the table was created, false if it already exists
+     */
+    public static boolean createTable(Dataset<Row> df, Map<String, String> properties) {
+        CaseInsensitiveStringMap options = new CaseInsensitiveStringMap(properties);
+        YdbContext ctx = new YdbContext(options);
+        YdbTypes types = new YdbTypes(options);
+
+        String tablePath = ctx.getExecutor().extractPath(YdbTableProvider.extractTableName(options));
+        if (ctx.getExecutor().describeTable(tablePath, false) != null) {
+            logger.info("table {} already exists and is not pre-split", tablePath);
+            return false;
+        }
+
+        List<FieldInfo> fields = types.fromSparkSchema(df.schema());
+        TableDescription td = YdbTable.buildTableDesctiption(fields, options);
+
+        PartitioningPolicy policy = uniformPolicy(td, options);
+        int partitions = OperationOption.TABLE_PRESPLIT.readInt(options, 0);
+        if (policy == null && partitions > 1 && td.getStoreType() == TableDescription.StoreType.ROW) {
+            List<TupleValue> points = samplePoints(df, td, types, partitions,
+                    OperationOption.TABLE_PRESPLIT_SAMPLE.readInt(options, SAMPLES_PER_PARTITION));
+            if (!points.isEmpty()) {
+                policy = new PartitioningPolicy().setExplicitPartitioningPoints(points);
+            }
+        }
+
+        ctx.getExecutor().createTable(tablePath, td, policy);
+        return true;
+    }
+
+    /**
+     * Uniform partitioning of the new row table, which is possible only if the first key column is Uint32 or Uint64,
+     * for example the auto-generated key.
+     *
+     * @param td description of the new table
+     * @param options table options
+     * @return partitioning policy or null if the table is not pre-split
+     */
+    static PartitioningPolicy uniformPolicy(TableDescription td, Map<String, String> options) {
+        int partitions = OperationOption.TABLE_PRESPLIT.readInt(options, 0);
+        if (partitions <= 1 || td.getStoreType() != TableDescription.StoreType.ROW) {
+            return null;
+        }
+
+        Type firstKey = columnType(td, td.getPrimaryKeys().get(0)).unwrapOptional();
+        if (firstKey != PrimitiveType.Uint32 && firstKey != PrimitiveType.Uint64) {
+            return null;
+        }
+        return new PartitioningPolicy().setUniformPartitions(partitions);
+    }
+
+    private static List<TupleValue> samplePoints(Dataset<Row> df, TableDescription td, YdbTypes types,
+            int partitions, int samplesPerPartition) {
+        List<String> keys = td.getPrimaryKeys();
+        List<String> fields = Arrays.asList(df.schema().fieldNames());
+        if (!fields.containsAll(keys)) {
+            // the generated keys are not known before the load
+            logger.warn("cannot sample primary key {} which is not in the DataFrame, table is not pre-split", keys);
+            return new ArrayList<>();
+        }
+
+        String[] others = keys.subList(1, keys.size()).toArray(new String[0]);
+        Dataset<Row> keyRows = df.select(keys.get(0), others).na().drop();
+        long count = keyRows.count();
+        if (count == 0) {
+            return new ArrayList<>();
+        }
+
+        double fraction = Math.min(1.0, (double) partitions * Math.max(1, samplesPerPartition) / count);
+        List<Row> sample = keyRows.sample(false, fraction).orderBy(keys.get(0), others).collectAsList();
+
+        List<TupleValue> points = new ArrayList<>();
+        Row last = null;
+        for (int idx = 1; idx < partitions; idx++) {
+            Row row = sample.isEmpty() ? null : sample.get((int) ((long) idx * sample.size() / partitions));
+            // the boundaries must be strictly ascending
+            if (row == null || row.equals(last)) {
+                continue;
+            }
+            try {
+                points.add(toTuple(row, td, types));
+            } catch (RuntimeException ex) {
+                logger.warn("cannot convert sampled key {}, table is not pre-split", row, ex);
+                return new ArrayList<>();
+            }
+            last = row;
+        }
+
+        logger.info("sampled {} of {} rows to split the table by {} points", sample.size(), count, points.size());
+        return points;
+    }
+
+    private static TupleValue toTuple(Row row, TableDescription td, YdbTypes types) {
+        List<Value<?>> values = new ArrayList<>();
+        for (int idx = 0; idx < row.size(); idx++) {
+            Type type = columnType(td, td.getPrimaryKeys().get(idx));
+            Value<?> value = types.convertToYdb(row.get(idx), type);
+            if (type.getKind() == Type.Kind.OPTIONAL && value.getType().getKind() != Type.Kind.OPTIONAL) {
+                value = value.makeOptional();
+            }
+            values.add(value);
+        }
+        return TupleValue.of(values);
+    }
+
+    private static Type columnType(TableDescription td, String name) {
+        for (TableColumn column : td.getColumns()) {
+            if (column.getName().equals(name)) {
+                return column.getType();
+            }
+        }
+        throw new IllegalArgumentException("Cannot find key column " + name);
+    }
+}
@@ -8,7 +8,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import org.apache.spark.sql.connector.catalog.SupportsDelete;
+import org.apache.spark.sql.connector.catalog.SupportsDeleteV2;
 import org.apache.spark.sql.connector.catalog.SupportsRead;
 import org.apache.spark.sql.connector.catalog.SupportsRowLevelOperations;
 import org.apache.spark.sql.connector.catalog.SupportsWrite;
@@ -16,37 +16,38 @@ import org.apache.spark.sql.connector.catalog.Table;
 import org.apache.spark.sql.connector.catalog.TableCapability;
 import org.apache.spark.sql.connector.expressions.Expressions;
 import org.apache.spark.sql.connector.expressions.Transform;
+import org.apache.spark.sql.connector.expressions.filter.Predicate;
 import org.apache.spark.sql.connector.read.ScanBuilder;
 import org.apache.spark.sql.connector.write.LogicalWriteInfo;
 import org.apache.spark.sql.connector.write.RowLevelOperationBuilder;
 import org.apache.spark.sql.connector.write.RowLevelOperationInfo;
 import org.apache.spark.sql.connector.write.WriteBuilder;
-import org.apache.spark.sql.sources.Filter;
 import org.apache.spark.sql.types.StructType;
 import org.apache.spark.sql.util.CaseInsensitiveStringMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import tech.ydb.spark.connector.common.AutoPkType;
 import tech.ydb.spark.connector.common.FieldInfo;
 import tech.ydb.spark.connector.common.KeysRange;
 import tech.ydb.spark.connector.common.OperationOption;
 import tech.ydb.spark.connector.common.PartitionOption;
 import tech.ydb.spark.connector.read.YdbReadTable;
 import tech.ydb.spark.connector.read.YdbScanTable;
+import tech.ydb.spark.connector.write.YdbDeleteWhere;
 import tech.ydb.spark.connector.write.YdbRowLevelBuilder;
 import tech.ydb.spark.connector.write.YdbWrite;
 import tech.ydb.table.description.KeyRange;
 import tech.ydb.table.description.TableColumn;
 import tech.ydb.table.description.TableDescription;
 import tech.ydb.table.settings.PartitioningSettings;
-import tech.ydb.table.values.PrimitiveType;
 
 /**
  * YDB table metadata representation for Spark.
  *
  * @author zinal
  */
-public class YdbTable implements Serializable, Table, SupportsRead, SupportsWrite, SupportsDelete,
+public class YdbTable implements Serializable, Table, SupportsRead, SupportsWrite, SupportsDeleteV2,
         SupportsRowLevelOperations {
 
     private static final long serialVersionUID = 20250409001L;
@@ -71,6 +72,7 @@ public class YdbTable implements Serializable, Table, SupportsRead, SupportsWrit
     private final FieldInfo[] columns;
     private final FieldInfo[] keyColumns;
     private final KeysRange[] partitions;
+    private final long[] partitionRows;
 
     private final HashMap<String, String> properties;
     private final boolean bulkUpsertAllowed;
@@ -100,6 +102,7 @@ public class YdbTable implements Serializable, Table, SupportsRead, SupportsWrit
         }
 
         this.partitions = parsePartitions(types, this.path, td.getKeyRanges());
+        this.partitionRows = parsePartitionRows(partitions, td.getPartitionStats());
 
         this.properties = new HashMap<>(options);
         OperationOption.TABLE_PATH.write(properties, path);
@@ -136,6 +139,20 @@ public class YdbTable implements Serializable, Table, SupportsRead, SupportsWrit
         return result;
     }
 
+    private static long[] parsePartitionRows(KeysRange[] partitions, List<TableDescription.PartitionStats> stats) {
+        // statistics are usable only if they match the key ranges one to one
+        if (stats == null || stats.size() != partitions.length) {
+            return new long[0];
+        }
+
+        long[] rows = new long[stats.size()];
+        int idx = 0;
+        for (TableDescription.PartitionStats ps : stats) {
+            rows[idx++] = ps.rowsEstimate();
+        }
+        return rows;
+    }
+
     @Override
     public String name() {
         return name;
@@ -169,6 +186,15 @@ public class YdbTable implements Serializable, Table, SupportsRead, SupportsWrit
         return partitions;
     }
 
+    /**
+     * Estimated row counts of the table partitions, in the order of {@link #getPartitions()}.
+     *
+     * @return array of estimations or empty array if the partition statistics are not available
+     */
+    public long[] getPartitionRows() {
+        return partitionRows;
+    }
+
     @Override
     public String toString() {
         return "YdbTable{name=" + name + ", path='" + path + "', ctx=" + ctx + "}";
@@ -244,15 +270,18 @@ public class YdbTable implements Serializable, Table, SupportsRead, SupportsWrit
     }
 
     @Override
-    public boolean canDeleteWhere(Filter[] filters) {
-        // We prefer per-row operations
-        return false;
+    public boolean canDeleteWhere(Predicate[] predicates) {
+        // index tables cannot be modified directly
+        return type != Type.INDEX && YdbDeleteWhere.translate(predicates) != null;
     }
 
     @Override
-    public void deleteWhere(Filter[] filters) {
-        // Should not be called, as canDeleteWhere() returns false.
-        throw new UnsupportedOperationException("Not supported yet.");
+    public void deleteWhere(Predicate[] predicates) {
+        String[] filters = YdbDeleteWhere.translate(predicates);
+        if (filters == null) {
+            throw new IllegalArgumentException("Cannot translate filters of DELETE for table " + path);
+        }
+        new YdbDeleteWhere(this, filters, new CaseInsensitiveStringMap(properties)).run();
     }
 
     @Override
@@ -262,7 +291,7 @@ public class YdbTable implements Serializable, Table, SupportsRead, SupportsWrit
 
     @Override
     public RowLevelOperationBuilder newRowLevelOperationBuilder(RowLevelOperationInfo info) {
-        return new YdbRowLevelBuilder();
+        return new YdbRowLevelBuilder(this, info);
     }
 
     private static Type mapType(String tablePath, TableDescription td) {
@@ -298,8 +327,9 @@ public class YdbTable implements Serializable, Table, SupportsRead, SupportsWrit
         }
 
         if (primaryKeys.isEmpty()) {
-            String autoPkName = OperationOption.TABLE_PRIMARY_KEYS.read(options, OperationOption.DEFAULT_AUTO_PK);
-            fields.add(new FieldInfo(autoPkName, PrimitiveType.Text));
+            String autoPkName = OperationOption.TABLE_AUTOPK_NAME.read(options, OperationOption.DEFAULT_AUTO_PK);
+            AutoPkType autoPkType = OperationOption.TABLE_AUTOPK_TYPE.readEnum(options, AutoPkType.TEXT);
+            fields.add(new FieldInfo(autoPkName, autoPkType.getType()));
             primaryKeys.add(autoPkName);
         }
 
@@ -332,6 +362,11 @@ public class YdbTable implements Serializable, Table, SupportsRead, SupportsWrit
 
         PartitioningSettings partitioning = new PartitioningSettings();
         PartitionOption.writeAll(options, partitioning);
+        int presplit = OperationOption.TABLE_PRESPLIT.readInt(options, 0);
+        if (presplit > 1 && tableType == Type.ROW) {
+            // auto-partitioning must not merge the pre-split partitions back before the load
+            partitioning.setMinPartitionsCount(presplit);
+        }
         tdb.setPartitioningSettings(partitioning);
 
         return tdb.build();
@@ -36,7 +36,7 @@ public class YdbTableProvider implements TableProvider, DataSourceRegister {
         return true;
     }
 
-    private String extractTableName(CaseInsensitiveStringMap options) {
+    static String extractTableName(CaseInsensitiveStringMap options) {
         // Check that table path is provided
         String table = OperationOption.DBTABLE.read(options);
         if (table != null && !table.trim().isEmpty()) {
@@ -126,7 +126,7 @@ public class YdbTableProvider implements TableProvider, DataSourceRegister {
 
             // No such table - creating it.
             td = YdbTable.buildTableDesctiption(types.fromSparkSchema(schema), options);
-            ctx.getExecutor().createTable(tablePath, td);
+            ctx.getExecutor().createTable(tablePath, td, YdbPreSplit.uniformPolicy(td, options));
         }
 
         return new YdbTable(ctx, types, tableName, tablePath, td, options);
@@ -13,6 +13,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.List;
+import java.util.Objects;
 
 import com.google.common.primitives.UnsignedBytes;
 import org.apache.spark.sql.catalyst.InternalRow;
@@ -60,6 +61,23 @@ public final class YdbTypes implements Serializable {
         this.useSignedDatetypes = OperationOption.TABLE_USE_SIGNED_DATETYPES.readBoolean(options, false);
     }
 
+    @Override
+    public int hashCode() {
+        return Objects.hash(dateAsString, useSignedDatetypes);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other == this) {
+            return true;
+        }
+        if (!(other instanceof YdbTypes)) {
+            return false;
+        }
+        YdbTypes o = (YdbTypes) other;
+        return dateAsString == o.dateAsString && useSignedDatetypes == o.useSignedDatetypes;
+    }
+
     private boolean mapNullable(tech.ydb.table.values.Type yt) {
         switch (yt.getKind()) {
             case OPTIONAL:
@@ -112,7 +130,7 @@ public final class YdbTypes implements Serializable {
         return new StructType(fields.toArray(new StructField[0]));
     }
 
-    private DataType mapTypeYdb2Spark(Type yt) {
+    public DataType mapTypeYdb2Spark(Type yt) {
         if (yt == null) {
             return null;
         }
@@ -0,0 +1,31 @@
+package tech.ydb.spark.connector.common;
+
+/**
+ * Generation mode of the automatic primary key.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+public enum AutoPkMode {
+    /**
+     * Random UUID v4, rows are spread uniformly over all shards. Uint64 keys are the mixed random prefix of the
+     * writer and the row counter, so they do not repeat inside one writer.
+     */
+    RANDOM,
+
+    /**
+     * Time-ordered UUID v7, new rows are appended to the end of the key range.
+     */
+    UUID7,
+
+    /**
+     * Random prefix of the write job, Spark partition id and the row counter. Rows of one task form one range and
+     * the retried task generates the same keys again.
+     */
+    SEQUENTIAL,
+
+    /**
+     * Random prefix of the writer, changed after every block of rows, and the row counter. Rows of one writer stay
+     * inside a few ranges, while different writers use different shards.
+     */
+    SHARD_LOCAL;
+}
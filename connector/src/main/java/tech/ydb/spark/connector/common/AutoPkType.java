@@ -0,0 +1,24 @@
+package tech.ydb.spark.connector.common;
+
+import tech.ydb.table.values.PrimitiveType;
+
+/**
+ * YDB type of the automatic primary key column.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+public enum AutoPkType {
+    TEXT(PrimitiveType.Text),
+    UUID(PrimitiveType.Uuid),
+    UINT64(PrimitiveType.Uint64);
+
+    private final PrimitiveType type;
+
+    AutoPkType(PrimitiveType type) {
+        this.type = type;
+    }
+
+    public PrimitiveType getType() {
+        return type;
+    }
+}
@@ -66,6 +66,29 @@ public enum ConnectionOption implements SparkOption {
      */
     POOL_SIZE("pool.size"),
 
+    /**
+     * Number of sessions opened in advance when the connection is created. Default 0.
+     */
+    POOL_PREWARM("pool.prewarm"),
+
+    /**
+     * Limit of the write rate in bytes per second, shared by all writers of the connection in one JVM.
+     * Default 0 (unlimited).
+     */
+    IO_WRITE_RATE("io.write.rate"),
+
+    /**
+     * Limit of the parallel write requests, shared by all writers of the connection in one JVM.
+     * Default 0 (unlimited).
+     */
+    IO_WRITE_REQUESTS("io.write.requests"),
+
+    /**
+     * Limit of the parallel read streams, shared by all readers of the connection in one JVM.
+     * Default 0 (unlimited).
+     */
+    IO_READ_STREAMS("io.read.streams"),
+
     /**
      * Optional path prefix for all table operations. When set, all relative
      * paths are resolved under this prefix instead of the database root.
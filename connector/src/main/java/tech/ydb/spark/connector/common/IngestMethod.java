@@ -9,5 +9,18 @@ public enum IngestMethod {
     UPSERT,
     REPLACE,
     INSERT,
-    BULK_UPSERT;
+    BULK_UPSERT,
+    /**
+     * Updates the existing rows, only the key and the written columns are sent.
+     */
+    UPDATE_ON,
+    /**
+     * Deletes the rows by the key, only the key columns are sent.
+     */
+    DELETE_ON,
+    /**
+     * Makes the table equal to the written rows: only the changed rows are upserted and the keys which are missing
+     * in the written rows are deleted.
+     */
+    SYNC;
 }
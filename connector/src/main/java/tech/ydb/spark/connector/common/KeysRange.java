@@ -7,8 +7,6 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
-import org.sparkproject.guava.annotations.VisibleForTesting;
-
 import tech.ydb.spark.connector.YdbTypes;
 import tech.ydb.table.description.KeyBound;
 import tech.ydb.table.description.KeyRange;
@@ -80,6 +78,32 @@ public class KeysRange implements Serializable {
         return to.writeTuple(types, columns);
     }
 
+    /**
+     * Checks the position of the key relative to this range.
+     *
+     * @param key values of the key columns
+     * @return negative value if the key is before the range, positive value if the key is after the range and zero
+     * if the range contains the key
+     */
+    public int compareKey(Serializable[] key) {
+        if (isEmpty()) {
+            return 1;
+        }
+        if (from.values != null) {
+            int cmp = compareValues(key, from.values);
+            if (cmp < 0 || (cmp == 0 && !from.inclusive)) {
+                return -1;
+            }
+        }
+        if (to.values != null) {
+            int cmp = compareValues(key, to.values);
+            if (cmp > 0 || (cmp == 0 && !to.inclusive)) {
+                return 1;
+            }
+        }
+        return 0;
+    }
+
     public KeysRange intersect(KeysRange other) {
         if (isEmpty() || other == null || other.isUnrestricted()) {
             return this;
@@ -139,8 +163,7 @@ public class KeysRange implements Serializable {
         return "(" + String.join(",", ss) + ")";
     }
 
-    @VisibleForTesting
-    static int compareValues(Serializable[] v1, Serializable[] v2) {
+    public static int compareValues(Serializable[] v1, Serializable[] v2) {
         if (v1 == v2) {
             return 0; // the same values
         }
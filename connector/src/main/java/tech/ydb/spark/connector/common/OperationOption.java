@@ -12,11 +12,64 @@ public enum OperationOption implements SparkOption {
      */
     WRITE_RETRY_COUNT("write.retry.count"),
 
+    /**
+     * true to split the batch into halves when it is rejected as too large or keeps failing with OVERLOADED or
+     * TIMEOUT, false to fail the task. Default true. Ignored for INSERT, which is not safe to resend.
+     */
+    WRITE_SPLIT("write.split"),
+
+    /**
+     * true to repeat the slow batch request of the idempotent ingest method via another session when it takes longer
+     * than the p95 latency of the previous batches, false otherwise. Default false.
+     */
+    WRITE_HEDGE("write.hedge"),
+
+    /**
+     * true to execute the ingest statements of the methods other than BULK_UPSERT via the Query service, false to use
+     * the data queries of the Table service. Default false.
+     */
+    WRITE_QUERY_SERVICE("write.queryService"),
+
+    /**
+     * true to send only the last version of each primary key within the batch, false to send all rows. Supported only
+     * by the methods UPSERT, BULK_UPSERT and REPLACE. Default false.
+     */
+    WRITE_DEDUP("write.dedup"),
+
+    /**
+     * true to run DELETE with filters as BATCH DELETE statements, which are executed outside of the transaction and
+     * are not limited by the transaction size. The statements are executed per table partition, so the delete is not
+     * atomic. Only row tables are supported. Default false, the rows are deleted by one DELETE statement.
+     */
+    DELETE_BATCH("delete.batch"),
+
+    /**
+     * Number of parallel BATCH DELETE statements, one statement per table partition. Default 8.
+     */
+    DELETE_CONCURRENCY("delete.concurrency"),
+
+    /**
+     * Number of sorted rows of the method SYNC which are compared with the table by one range hash, the mismatched
+     * ranges are compared by halves. Default 10000.
+     */
+    SYNC_CHUNK_ROWS("sync.chunk"),
+
     /**
      * Scan queue depth for each executor. Default 10, minimum 2.
      */
     READQUEUE_SIZE("scan.queue.depth"),
 
+    /**
+     * Number of attempts to resume the broken scan stream from the last read key. Default 0, resuming is disabled.
+     * The resumable scans of row tables are ordered by the primary key and always read the key columns.
+     */
+    SCAN_RETRY_COUNT("scan.retry.count"),
+
+    /**
+     * Base backoff delay in milliseconds between attempts to resume the scan stream. Default 500.
+     */
+    SCAN_RETRY_BACKOFF("scan.retry.backoff"),
+
     /**
      * true to list indexes as tables, false otherwise. Default false.
      */
@@ -43,7 +96,8 @@ public enum OperationOption implements SparkOption {
     DBQUERY("query"),
 
     /**
-     * YDB data ingestion method: upsert/replace/bulk.
+     * YDB data ingestion method: upsert/replace/insert/bulk_upsert, or update_on/delete_on to change only the
+     * written columns of the existing rows or to delete the rows by the primary key.
      */
     INGEST_METHOD("method"),
 
@@ -68,7 +122,74 @@ public enum OperationOption implements SparkOption {
     BATCH_CONCURRENCY("batch.concurrency"),
 
     /**
-     * Use Apache Arrow IPC encoding for writing and reading. Default false.
+     * true to adapt the count of parallel batch requests and the batch size to the server load, false to use
+     * the fixed values. Default false.
+     */
+    BATCH_ADAPTIVE("batch.adaptive"),
+
+    /**
+     * Upper limit of parallel batch requests per one writer in the adaptive mode. Default 16.
+     */
+    BATCH_MAX_CONCURRENCY("batch.maxConcurrency"),
+
+    /**
+     * Target batch latency in milliseconds for the adaptive mode. Default 1000.
+     */
+    BATCH_TARGET_LATENCY("batch.targetLatency"),
+
+    /**
+     * true to group rows into per-shard batches using the table partitioning, false to batch rows in the arrival
+     * order. Default false.
+     */
+    BATCH_BY_SHARD("batch.byShard"),
+
+    /**
+     * true to serialize batches in the background thread while the task fills the next batch, false to serialize
+     * them in the task thread. Default false.
+     */
+    BATCH_ASYNC("batch.async"),
+
+    /**
+     * Limit of the total size in bytes of the batches which are serialized or written by one writer. Default is
+     * the batch size limit multiplied by the max count of parallel batch requests plus two.
+     */
+    BATCH_MAX_INFLIGHT_BYTES("batch.maxInflightBytes"),
+
+    /**
+     * true to merge rows of the concurrent tasks writing the same table in one executor into the shared batches,
+     * false to batch rows of each task separately. Default false.
+     *
+     * <p><b>Warning:</b> the tasks are not isolated from each other. The rows of an aborted task which have been
+     * already handed over to the shared batch are still written, so the Spark retry of the task writes them once
+     * more. A row rejected by the server fails all tasks which have rows in the same batch. Use it only with the
+     * idempotent methods (BULK_UPSERT, UPSERT, REPLACE) and the data which is known to be valid.
+     */
+    BATCH_SHARED("batch.shared"),
+
+    /**
+     * Time in milliseconds which the committing task waits for other tasks to fill the shared batch. Default 100.
+     */
+    BATCH_LINGER("batch.linger"),
+
+    /**
+     * true to ask Spark to cluster the written rows by the primary key ranges (row tables) or by the primary key
+     * hash (column tables), false otherwise. Default false.
+     */
+    WRITE_DISTRIBUTE("write.distribute"),
+
+    /**
+     * true to ask Spark to sort the written rows by the primary key within each write task. Default false.
+     */
+    WRITE_SORT("write.sort"),
+
+    /**
+     * Number of write partitions when the rows are clustered. Default 0, the number is chosen by Spark.
+     */
+    WRITE_PARTITIONS("write.partitions"),
+
+    /**
+     * Use Apache Arrow IPC encoding for writing and reading. Default false. The writes are encoded row by row
+     * through the SDK Arrow writer and usually are not faster than the default protobuf encoding.
      */
     USE_APACHE_ARROW("useApacheArrow"),
 
@@ -92,6 +213,18 @@ public enum OperationOption implements SparkOption {
      */
     TABLE_AUTOPK_NAME("table.auto_pk_name"),
 
+    /**
+     * Generation mode of the automatic primary key: RANDOM, UUID7, SEQUENTIAL or SHARD_LOCAL. Default RANDOM.
+     */
+    TABLE_AUTOPK_MODE("table.auto_pk_mode"),
+
+    /**
+     * YDB type of the automatic primary key column: TEXT, UUID or UINT64. UINT64 is supported only by the modes
+     * RANDOM and SHARD_LOCAL, its values are built from the random prefix of the writer and the row counter.
+     * Default TEXT.
+     */
+    TABLE_AUTOPK_TYPE("table.auto_pk_type"),
+
     /**
      * YDB table's primary key, as a comma-delimited list of column names.
      */
@@ -102,6 +235,48 @@ public enum OperationOption implements SparkOption {
      */
     TABLE_TRUNCATE("table.truncate"),
 
+    /**
+     * true to load the overwritten table into the shadow copy, which replaces the original table on commit and is
+     * dropped on abort, false to truncate the original table before the load. Default false.
+     */
+    TABLE_SHADOW("table.shadow"),
+
+    /**
+     * true to create the shadow copy without secondary indexes and to build them after the load, so the data can be
+     * written via BulkUpsert. Default false.
+     */
+    TABLE_DEFER_INDEXES("table.defer_indexes"),
+
+    /**
+     * true to load the table with secondary indexes via BulkUpsert into the staging table without indexes and to
+     * move the rows to the target table by the server-side UPSERT on commit. Default false.
+     */
+    TABLE_STAGED("table.staged"),
+
+    /**
+     * Number of parallel chains of UPSERT statements which move the rows from the staging table, one chain per
+     * staging table partition. Default 8.
+     */
+    TABLE_STAGED_CONCURRENCY("table.staged.concurrency"),
+
+    /**
+     * Max number of rows which are moved from the staging table by one UPSERT statement, every statement is a
+     * separate transaction. Default 10000.
+     */
+    TABLE_STAGED_CHUNK_ROWS("table.staged.chunk"),
+
+    /**
+     * Number of partitions of the created row table, which is also kept as its minimum partitions count. The table
+     * created by {@code YdbPreSplit} is split by the sampled primary key values, the auto-created table is split
+     * uniformly if its first key column is Uint32 or Uint64. Default 0, the table is created as one partition.
+     */
+    TABLE_PRESPLIT("table.presplit"),
+
+    /**
+     * Number of sampled primary key values per partition of the pre-split table. Default 100.
+     */
+    TABLE_PRESPLIT_SAMPLE("table.presplit.sample"),
+
     TABLE_USE_SIGNED_DATETYPES("table.useSignedDatetypes"),
 
 
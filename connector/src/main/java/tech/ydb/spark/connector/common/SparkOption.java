@@ -31,6 +31,13 @@ public interface SparkOption {
         return parseInt(getCode(), options.get(getCode()));
     }
 
+    default long readLong(Map<String, String> options, long defvalue) {
+        if (!options.containsKey(getCode())) {
+            return defvalue;
+        }
+        return parseLong(getCode(), options.get(getCode()));
+    }
+
     default <T extends Enum<T>> T readEnum(Map<String, String> options, T defvalue) {
         if (!options.containsKey(getCode())) {
             return defvalue;
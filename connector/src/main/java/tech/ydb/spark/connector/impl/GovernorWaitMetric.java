@@ -0,0 +1,37 @@
+package tech.ydb.spark.connector.impl;
+
+import org.apache.spark.sql.connector.metric.CustomSumMetric;
+import org.apache.spark.sql.connector.metric.CustomTaskMetric;
+
+/**
+ * Total time in milliseconds which the readers and the writers spent waiting for the {@link YdbGovernor}.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+public class GovernorWaitMetric extends CustomSumMetric {
+    public static final String NAME = "ydbGovernorWaitMs";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public String description() {
+        return "time waiting for the YDB I/O governor (ms)";
+    }
+
+    public static CustomTaskMetric taskValue(long waitMs) {
+        return new CustomTaskMetric() {
+            @Override
+            public String name() {
+                return NAME;
+            }
+
+            @Override
+            public long value() {
+                return waitMs;
+            }
+        };
+    }
+}
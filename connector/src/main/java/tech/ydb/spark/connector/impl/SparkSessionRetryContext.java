@@ -4,9 +4,11 @@ import java.time.Duration;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import javax.annotation.Nonnull;
@@ -20,16 +22,23 @@ import tech.ydb.core.Status;
 import tech.ydb.core.StatusCode;
 import tech.ydb.core.UnexpectedResultException;
 import tech.ydb.core.utils.FutureTools;
+import tech.ydb.query.QueryClient;
+import tech.ydb.query.QuerySession;
 import tech.ydb.table.Session;
 import tech.ydb.table.SessionSupplier;
 
 /**
+ * Retry context of the connector requests. It works with the sessions of both the table service and the query
+ * service, so all writers share the same retry and cancellation rules.
  *
+ * @param <S> type of the session
  * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
  */
 @ParametersAreNonnullByDefault
-public class SparkSessionRetryContext {
-    private final SessionSupplier sessionSupplier;
+public class SparkSessionRetryContext<S> {
+    private final Function<Duration, CompletableFuture<Result<S>>> sessionSupplier;
+    private final ScheduledExecutorService scheduler;
+    private final Consumer<S> sessionCloser;
     private final Executor executor;
     private final Duration sessionCreationTimeout;
     private final int maxRetries;
@@ -40,8 +49,10 @@ public class SparkSessionRetryContext {
     private final boolean retryNotFound;
     private final boolean idempotent;
 
-    private SparkSessionRetryContext(Builder b) {
+    private SparkSessionRetryContext(Builder<S> b) {
         this.sessionSupplier = b.sessionSupplier;
+        this.scheduler = b.scheduler;
+        this.sessionCloser = b.sessionCloser;
         this.executor = b.executor;
         this.sessionCreationTimeout = b.sessionCreationTimeout;
         this.maxRetries = b.maxRetries;
@@ -53,22 +64,51 @@ public class SparkSessionRetryContext {
         this.idempotent = b.idempotent;
     }
 
-    public static Builder create(SessionSupplier sessionSupplier) {
-        return new Builder(Objects.requireNonNull(sessionSupplier));
+    public static Builder<Session> create(SessionSupplier sessionSupplier) {
+        Objects.requireNonNull(sessionSupplier);
+        return new Builder<>(sessionSupplier::createSession, sessionSupplier.getScheduler(), Session::close);
     }
 
-    public <T> CompletableFuture<Result<T>> supplyResult(Function<Session, CompletableFuture<Result<T>>> fn) {
+    public static Builder<QuerySession> create(QueryClient queryClient) {
+        Objects.requireNonNull(queryClient);
+        return new Builder<>(queryClient::createSession, queryClient.getScheduler(), QuerySession::close);
+    }
+
+    public <T> CompletableFuture<Result<T>> supplyResult(Function<S, CompletableFuture<Result<T>>> fn) {
         RetryableResultTask<T> task = new RetryableResultTask<>(fn);
         task.requestSession();
         return task.getFuture();
     }
 
-    public CompletableFuture<Status> supplyStatus(Function<Session, CompletableFuture<Status>> fn) {
+    public CompletableFuture<Status> supplyStatus(Function<S, CompletableFuture<Status>> fn) {
         RetryableStatusTask task = new RetryableStatusTask(fn);
         task.requestSession();
         return task.getFuture();
     }
 
+    /**
+     * Executes the request with retries and checks the result of every attempt. Unlike the chain of
+     * {@code thenApply} inside the function, the cancellation of the returned future reaches the request in flight.
+     *
+     * @param <T> type of the request result
+     * @param fn request
+     * @param onAttempt check of the result of every attempt
+     * @return future of the final status, its cancellation stops the retries and cancels the current request
+     */
+    public <T> CompletableFuture<Status> supplyStatus(Function<S, CompletableFuture<T>> fn,
+            Function<T, Status> onAttempt) {
+        return supplyStatus(session -> {
+            CompletableFuture<T> request = fn.apply(session);
+            CompletableFuture<Status> checked = request.thenApply(onAttempt);
+            checked.whenComplete((status, th) -> {
+                if (checked.isCancelled()) {
+                    request.cancel(true);
+                }
+            });
+            return checked;
+        });
+    }
+
     private boolean canRetry(StatusCode code) {
         if (code == StatusCode.TIMEOUT) {
             return idempotent;
@@ -138,10 +178,18 @@ public class SparkSessionRetryContext {
     private abstract class BaseRetryableTask<R> implements Runnable {
         private final CompletableFuture<R> promise = new CompletableFuture<>();
         private final AtomicInteger retryNumber = new AtomicInteger();
-        private final Function<Session, CompletableFuture<R>> fn;
+        private final Function<S, CompletableFuture<R>> fn;
+        // the request in flight, it is cancelled together with the promise
+        private volatile CompletableFuture<R> attempt = null;
 
-        BaseRetryableTask(Function<Session, CompletableFuture<R>> fn) {
+        BaseRetryableTask(Function<S, CompletableFuture<R>> fn) {
             this.fn = fn;
+            promise.whenComplete((result, th) -> {
+                CompletableFuture<R> current = attempt;
+                if (promise.isCancelled() && current != null) {
+                    current.cancel(true);
+                }
+            });
         }
 
         CompletableFuture<R> getFuture() {
@@ -150,7 +198,7 @@ public class SparkSessionRetryContext {
 
         abstract Status toStatus(R result);
 
-        abstract R toFailedResult(Result<Session> sessionResult);
+        abstract R toFailedResult(Result<S> sessionResult);
 
         // called on timer expiration
         @Override
@@ -162,7 +210,7 @@ public class SparkSessionRetryContext {
         }
 
         public void requestSession() {
-            CompletableFuture<Result<Session>> sessionFuture = sessionSupplier.createSession(sessionCreationTimeout);
+            CompletableFuture<Result<S>> sessionFuture = sessionSupplier.apply(sessionCreationTimeout);
             if (sessionFuture.isDone() && !sessionFuture.isCompletedExceptionally()) {
                 // faster than subscribing on future
                 acceptSession(sessionFuture.join());
@@ -178,17 +226,26 @@ public class SparkSessionRetryContext {
             }
         }
 
-        private void acceptSession(@Nonnull Result<Session> sessionResult) {
+        private void acceptSession(@Nonnull Result<S> sessionResult) {
             if (!sessionResult.isSuccess()) {
                 handleError(sessionResult.getStatus(), toFailedResult(sessionResult));
                 return;
             }
 
-            final Session session = sessionResult.getValue();
+            final S session = sessionResult.getValue();
+            if (promise.isCancelled()) {
+                sessionCloser.accept(session);
+                return;
+            }
             try {
-                fn.apply(session).whenComplete((fnResult, fnException) -> {
+                CompletableFuture<R> current = fn.apply(session);
+                attempt = current;
+                if (promise.isCancelled()) {
+                    current.cancel(true);
+                }
+                current.whenComplete((fnResult, fnException) -> {
                     try {
-                        session.close();
+                        sessionCloser.accept(session);
 
                         if (fnException != null) {
                             handleException(fnException);
@@ -206,7 +263,7 @@ public class SparkSessionRetryContext {
                     }
                 });
             } catch (RuntimeException ex) {
-                session.close();
+                sessionCloser.accept(session);
                 handleException(ex);
             }
         }
@@ -215,7 +272,7 @@ public class SparkSessionRetryContext {
             if (promise.isCancelled()) {
                 return;
             }
-            sessionSupplier.getScheduler().schedule(this, delayMillis, TimeUnit.MILLISECONDS);
+            scheduler.schedule(this, delayMillis, TimeUnit.MILLISECONDS);
         }
 
         private void handleError(@Nonnull Status status, R result) {
@@ -255,7 +312,7 @@ public class SparkSessionRetryContext {
      * RETRYABLE RESULT TASK
      */
     private final class RetryableResultTask<T> extends BaseRetryableTask<Result<T>> {
-        RetryableResultTask(Function<Session, CompletableFuture<Result<T>>> fn) {
+        RetryableResultTask(Function<S, CompletableFuture<Result<T>>> fn) {
             super(fn);
         }
 
@@ -265,7 +322,7 @@ public class SparkSessionRetryContext {
         }
 
         @Override
-        Result<T> toFailedResult(Result<Session> sessionResult) {
+        Result<T> toFailedResult(Result<S> sessionResult) {
             return sessionResult.map(s -> null);
         }
     }
@@ -274,7 +331,7 @@ public class SparkSessionRetryContext {
      * RETRYABLE STATUS TASK
      */
     private final class RetryableStatusTask extends BaseRetryableTask<Status> {
-        RetryableStatusTask(Function<Session, CompletableFuture<Status>> fn) {
+        RetryableStatusTask(Function<S, CompletableFuture<Status>> fn) {
             super(fn);
         }
 
@@ -284,7 +341,7 @@ public class SparkSessionRetryContext {
         }
 
         @Override
-        Status toFailedResult(Result<Session> sessionResult) {
+        Status toFailedResult(Result<S> sessionResult) {
             return sessionResult.getStatus();
         }
     }
@@ -293,8 +350,10 @@ public class SparkSessionRetryContext {
      * BUILDER
      */
     @ParametersAreNonnullByDefault
-    public static final class Builder {
-        private final SessionSupplier sessionSupplier;
+    public static final class Builder<S> {
+        private final Function<Duration, CompletableFuture<Result<S>>> sessionSupplier;
+        private final ScheduledExecutorService scheduler;
+        private final Consumer<S> sessionCloser;
         private Executor executor = MoreExecutors.directExecutor();
         private Duration sessionCreationTimeout = Duration.ofSeconds(5);
         private int maxRetries = 10;
@@ -305,59 +364,62 @@ public class SparkSessionRetryContext {
         private boolean retryNotFound = true;
         private boolean idempotent = false;
 
-        public Builder(SessionSupplier sessionSupplier) {
+        private Builder(Function<Duration, CompletableFuture<Result<S>>> sessionSupplier,
+                ScheduledExecutorService scheduler, Consumer<S> sessionCloser) {
             this.sessionSupplier = sessionSupplier;
+            this.scheduler = scheduler;
+            this.sessionCloser = sessionCloser;
         }
 
-        public Builder executor(Executor executor) {
+        public Builder<S> executor(Executor executor) {
             this.executor = Objects.requireNonNull(executor);
             return this;
         }
 
-        public Builder sessionCreationTimeout(Duration duration) {
+        public Builder<S> sessionCreationTimeout(Duration duration) {
             this.sessionCreationTimeout = duration;
             return this;
         }
 
-        public Builder maxRetries(int maxRetries) {
+        public Builder<S> maxRetries(int maxRetries) {
             this.maxRetries = maxRetries;
             return this;
         }
 
-        public Builder backoffSlot(Duration duration) {
+        public Builder<S> backoffSlot(Duration duration) {
             Preconditions.checkArgument(!duration.isNegative(), "backoffSlot(%s) is negative", duration);
             this.backoffSlotMillis = duration.toMillis();
             return this;
         }
 
-        public Builder backoffCeiling(int backoffCeiling) {
+        public Builder<S> backoffCeiling(int backoffCeiling) {
             this.backoffCeiling = backoffCeiling;
             return this;
         }
 
-        public Builder fastBackoffSlot(Duration duration) {
+        public Builder<S> fastBackoffSlot(Duration duration) {
             Preconditions.checkArgument(!duration.isNegative(), "backoffSlot(%s) is negative", duration);
             this.fastBackoffSlotMillis = duration.toMillis();
             return this;
         }
 
-        public Builder fastBackoffCeiling(int backoffCeiling) {
+        public Builder<S> fastBackoffCeiling(int backoffCeiling) {
             this.fastBackoffCeiling = backoffCeiling;
             return this;
         }
 
-        public Builder retryNotFound(boolean retryNotFound) {
+        public Builder<S> retryNotFound(boolean retryNotFound) {
             this.retryNotFound = retryNotFound;
             return this;
         }
 
-        public Builder idempotent(boolean idempotent) {
+        public Builder<S> idempotent(boolean idempotent) {
             this.idempotent = idempotent;
             return this;
         }
 
-        public SparkSessionRetryContext build() {
-            return new SparkSessionRetryContext(this);
+        public SparkSessionRetryContext<S> build() {
+            return new SparkSessionRetryContext<>(this);
         }
     }
 }
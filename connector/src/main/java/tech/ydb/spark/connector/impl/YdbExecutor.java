@@ -4,6 +4,7 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,10 +26,12 @@ import tech.ydb.table.Session;
 import tech.ydb.table.TableClient;
 import tech.ydb.table.description.TableDescription;
 import tech.ydb.table.query.DataQueryResult;
+import tech.ydb.table.query.Params;
 import tech.ydb.table.result.ResultSetReader;
 import tech.ydb.table.settings.AlterTableSettings;
 import tech.ydb.table.settings.CreateTableSettings;
 import tech.ydb.table.settings.DescribeTableSettings;
+import tech.ydb.table.settings.PartitioningPolicy;
 import tech.ydb.table.transaction.TxControl;
 
 /**
@@ -45,18 +48,21 @@ public class YdbExecutor implements AutoCloseable {
     private final TableClient tableClient;
     private final QueryClient queryClient;
     private final SchemeClient schemeClient;
+    private final YdbGovernor governor;
 
-    private final SparkSessionRetryContext retryCtx;
+    private final SparkSessionRetryContext<Session> retryCtx;
     private final SessionRetryContext queryRetryCtx;
 
     private final String prefixPath;
     private final String prefixPragma;
 
-    public YdbExecutor(GrpcTransport transport, TableClient tableClient, QueryClient queryClient, String prefix) {
+    public YdbExecutor(GrpcTransport transport, TableClient tableClient, QueryClient queryClient,
+            YdbGovernor governor, String prefix) {
         this.transport = transport;
         this.tableClient = tableClient;
         this.queryClient = queryClient;
         this.schemeClient = SchemeClient.newClient(transport).build();
+        this.governor = governor;
 
         this.retryCtx = SparkSessionRetryContext.create(tableClient)
                 .sessionCreationTimeout(Duration.ofMinutes(5))
@@ -86,6 +92,10 @@ public class YdbExecutor implements AutoCloseable {
         transport.close();
     }
 
+    public YdbGovernor getGovernor() {
+        return governor;
+    }
+
     public String getPrefixPragma() {
         return prefixPragma;
     }
@@ -101,7 +111,7 @@ public class YdbExecutor implements AutoCloseable {
         return prefixPath + "/" + name;
     }
 
-    public SparkSessionRetryContext createRetryCtx(int retryCount, boolean idempotent) {
+    public SparkSessionRetryContext<Session> createRetryCtx(int retryCount, boolean idempotent) {
         return SparkSessionRetryContext.create(tableClient)
                 .sessionCreationTimeout(Duration.ofMinutes(5))
                 .idempotent(idempotent)
@@ -109,6 +119,14 @@ public class YdbExecutor implements AutoCloseable {
                 .build();
     }
 
+    public SparkSessionRetryContext<QuerySession> createQueryRetryCtx(int retryCount, boolean idempotent) {
+        return SparkSessionRetryContext.create(queryClient)
+                .sessionCreationTimeout(Duration.ofMinutes(5))
+                .idempotent(idempotent)
+                .maxRetries(retryCount)
+                .build();
+    }
+
     public boolean truncateTable(String tablePath) {
         final YdbTruncateTable action = new YdbTruncateTable(extractPath(tablePath));
         retryCtx.supplyStatus(session -> action.run(session)).join().expectSuccess();
@@ -118,6 +136,7 @@ public class YdbExecutor implements AutoCloseable {
     public TableDescription describeTable(String tablePath, boolean includeKeyShards) {
         DescribeTableSettings settings = new DescribeTableSettings();
         settings.setIncludeShardKeyBounds(includeKeyShards);
+        settings.setIncludePartitionStats(includeKeyShards);
         String path = extractPath(tablePath);
         Result<TableDescription> result = retryCtx.supplyResult(s -> s.describeTable(path, settings)).join();
 
@@ -130,7 +149,14 @@ public class YdbExecutor implements AutoCloseable {
     }
 
     public void createTable(String tablePath, TableDescription description) {
+        createTable(tablePath, description, null);
+    }
+
+    public void createTable(String tablePath, TableDescription description, PartitioningPolicy policy) {
         CreateTableSettings settings = new CreateTableSettings();
+        if (policy != null) {
+            settings.setPartitioningPolicy(policy);
+        }
         retryCtx.supplyStatus(session -> session.createTable(extractPath(tablePath), description, settings))
                 .join()
                 .expectSuccess("Cannot create table " + tablePath);
@@ -152,7 +178,11 @@ public class YdbExecutor implements AutoCloseable {
     }
 
     public void renameTable(String path1, String path2) {
-        retryCtx.supplyStatus(session -> session.renameTable(extractPath(path1), extractPath(path2), false))
+        renameTable(path1, path2, false);
+    }
+
+    public void renameTable(String path1, String path2, boolean replace) {
+        retryCtx.supplyStatus(session -> session.renameTable(extractPath(path1), extractPath(path2), replace))
                 .join()
                 .expectSuccess("Cannot rename table " + path1);
     }
@@ -226,12 +256,81 @@ public class YdbExecutor implements AutoCloseable {
                 .isSuccess();
     }
 
-    public Result<Session> createTableSession() {
-        return tableClient.createSession(Duration.ofMinutes(5)).join();
+    public CompletableFuture<Result<Session>> createTableSession() {
+        return tableClient.createSession(Duration.ofMinutes(5));
+    }
+
+    public CompletableFuture<Result<QuerySession>> createQuerySession() {
+        return queryClient.createSession(Duration.ofMinutes(5));
     }
 
-    public Result<QuerySession> createQuerySession() {
-        return queryClient.createSession(Duration.ofMinutes(5)).join();
+    /**
+     * Opens the given count of table and query sessions in background and returns them back to the pools, so
+     * the first read and write tasks don't have to wait for the session creation.
+     *
+     * @param count count of sessions to open in each pool
+     */
+    public void prewarmSessions(int count) {
+        if (count <= 0) {
+            return;
+        }
+
+        logger.info("prewarming {} table and query sessions", count);
+        List<CompletableFuture<Result<Session>>> tableSessions = new ArrayList<>();
+        List<CompletableFuture<Result<QuerySession>>> querySessions = new ArrayList<>();
+        for (int idx = 0; idx < count; idx++) {
+            tableSessions.add(tableClient.createSession(Duration.ofMinutes(1)));
+            querySessions.add(queryClient.createSession(Duration.ofMinutes(1)));
+        }
+
+        // all sessions must be held until the end, otherwise the pool just reuses the first created one
+        CompletableFuture.allOf(tableSessions.toArray(new CompletableFuture<?>[0])).whenComplete((res, th) -> {
+            for (CompletableFuture<Result<Session>> future : tableSessions) {
+                future.thenAccept(session -> {
+                    if (session.isSuccess()) {
+                        session.getValue().close();
+                    }
+                });
+            }
+        });
+        CompletableFuture.allOf(querySessions.toArray(new CompletableFuture<?>[0])).whenComplete((res, th) -> {
+            for (CompletableFuture<Result<QuerySession>> future : querySessions) {
+                future.thenAccept(session -> {
+                    if (session.isSuccess()) {
+                        session.getValue().close();
+                    }
+                });
+            }
+        });
+    }
+
+    public CompletableFuture<Status> executeQuery(String query, TxMode txMode, Params params) {
+        return queryRetryCtx.supplyStatus(
+                session -> session.createQuery(query, txMode, params).execute().thenApply(Result::getStatus)
+        );
+    }
+
+    /**
+     * Executes the query in the given transaction mode and returns its first result set.
+     *
+     * @param query text of the query
+     * @param txMode transaction mode
+     * @param params parameters of the query
+     * @return future of the first result set
+     */
+    public CompletableFuture<Result<ResultSetReader>> executeQueryForResult(String query, TxMode txMode,
+            Params params) {
+        return queryRetryCtx.supplyResult(
+                session -> QueryReader.readFrom(session.createQuery(query, txMode, params))
+        ).thenApply(res -> res.map(reader -> reader.getResultSet(0)));
+    }
+
+    public ResultSetReader readQuery(String query, Params params) {
+        Result<QueryReader> res = queryRetryCtx.supplyResult(
+                session -> QueryReader.readFrom(session.createQuery(query, TxMode.SNAPSHOT_RO, params))
+        ).join();
+        res.getStatus().expectSuccess("Cannot execute query " + query);
+        return res.getValue().getResultSet(0);
     }
 
     public List<String> getTabletIds(String path) {
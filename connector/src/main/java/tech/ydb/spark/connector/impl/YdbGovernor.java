@@ -0,0 +1,136 @@
+package tech.ydb.spark.connector.impl;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * I/O governor shared by all readers and writers of one YDB context in the JVM. It limits the write rate in bytes
+ * per second, the count of parallel read streams and the count of parallel write requests. Every acquire method
+ * returns the time spent in the queue, which is reported as the task metric.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+public class YdbGovernor {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long writeRate;
+    private final Semaphore readStreams;
+    private final Semaphore writeRequests;
+
+    // token bucket state, the balance may become negative after a batch larger than one second of the rate
+    private double availableBytes;
+    private long refilledAt;
+
+    public YdbGovernor(long writeRate, int readStreams, int writeRequests) {
+        this.writeRate = writeRate;
+        this.readStreams = readStreams > 0 ? new Semaphore(readStreams, true) : null;
+        this.writeRequests = writeRequests > 0 ? new Semaphore(writeRequests, true) : null;
+        this.availableBytes = writeRate;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Waits for the permission to start one more read stream.
+     *
+     * @return time in milliseconds spent in the queue
+     */
+    public long acquireReadStream() {
+        if (readStreams == null) {
+            return 0;
+        }
+        long started = System.nanoTime();
+        readStreams.acquireUninterruptibly();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    public void releaseReadStream() {
+        if (readStreams != null) {
+            readStreams.release();
+        }
+    }
+
+    /**
+     * Waits for the permission to send the write request with the given size.
+     *
+     * @param bytes size of the request
+     * @return time in milliseconds spent in the queue
+     */
+    public long acquireWrite(long bytes) {
+        long started = System.nanoTime();
+        if (writeRequests != null) {
+            writeRequests.acquireUninterruptibly();
+        }
+
+        long delay = reserveBytes(bytes);
+        if (delay > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    /**
+     * Takes the permission to send the write request only if it is available without waiting.
+     *
+     * @param bytes size of the request
+     * @return true if the permission was taken and must be released by {@link #releaseWrite()}
+     */
+    public boolean tryAcquireWrite(long bytes) {
+        if (writeRequests != null && !writeRequests.tryAcquire()) {
+            return false;
+        }
+        if (!tryReserveBytes(bytes)) {
+            releaseWrite();
+            return false;
+        }
+        return true;
+    }
+
+    public void releaseWrite() {
+        if (writeRequests != null) {
+            writeRequests.release();
+        }
+    }
+
+    private synchronized long reserveBytes(long bytes) {
+        if (writeRate <= 0) {
+            return 0;
+        }
+
+        refill();
+        long delay = availableBytes >= 0 ? 0 : (long) (-availableBytes * NANOS_PER_SECOND / writeRate);
+        availableBytes -= bytes;
+        return delay;
+    }
+
+    private synchronized boolean tryReserveBytes(long bytes) {
+        if (writeRate <= 0) {
+            return true;
+        }
+
+        refill();
+        if (availableBytes < 0) {
+            return false;
+        }
+        availableBytes -= bytes;
+        return true;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        // the bucket keeps no more than one second of the rate
+        double refill = (double) (now - refilledAt) * writeRate / NANOS_PER_SECOND;
+        availableBytes = Math.min(writeRate, availableBytes + refill);
+        refilledAt = now;
+    }
+
+    @Override
+    public String toString() {
+        return "YdbGovernor{writeRate=" + writeRate
+                + ", readStreams=" + (readStreams != null ? readStreams.availablePermits() : "unlimited")
+                + ", writeRequests=" + (writeRequests != null ? writeRequests.availablePermits() : "unlimited") + "}";
+    }
+}
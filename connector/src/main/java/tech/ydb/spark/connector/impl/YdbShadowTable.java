@@ -0,0 +1,93 @@
+package tech.ydb.spark.connector.impl;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tech.ydb.table.description.TableDescription;
+import tech.ydb.table.description.TableIndex;
+import tech.ydb.table.settings.AlterTableSettings;
+
+/**
+ * Shadow copy of the table. The data of the overwritten table is loaded into the empty copy, which replaces the
+ * original table by the atomic rename only when the whole load is finished. The secondary indexes may be built
+ * after the load. The copy without indexes is also used as the staging table for the indexed tables.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+public class YdbShadowTable {
+    private static final Logger logger = LoggerFactory.getLogger(YdbShadowTable.class);
+
+    private final YdbExecutor executor;
+    private final String tablePath;
+    private final String shadowPath;
+    private final boolean deferIndexes;
+
+    private List<TableIndex> deferred = Collections.emptyList();
+
+    public YdbShadowTable(YdbExecutor executor, String tablePath, boolean deferIndexes) {
+        this.executor = executor;
+        this.tablePath = tablePath;
+        this.shadowPath = tablePath + "_" + YdbTruncateTable.randomSuffix();
+        this.deferIndexes = deferIndexes;
+    }
+
+    public String getShadowPath() {
+        return shadowPath;
+    }
+
+    /**
+     * Creates the empty copy of the original table.
+     *
+     * @return description of the created table
+     */
+    public TableDescription create() {
+        TableDescription origin = executor.describeTable(tablePath, false);
+        if (origin == null) {
+            throw new IllegalArgumentException("Cannot find table " + tablePath);
+        }
+
+        if (deferIndexes) {
+            deferred = origin.getIndexes();
+        }
+        executor.createTable(shadowPath, YdbTruncateTable.undressDescription(origin, tablePath, !deferIndexes));
+        logger.info("created shadow table {} for {} with {} deferred indexes", shadowPath, tablePath, deferred.size());
+        return executor.describeTable(shadowPath, true);
+    }
+
+    /**
+     * Builds the deferred indexes and replaces the original table with the loaded copy.
+     */
+    public void replace() {
+        for (TableIndex index : deferred) {
+            AlterTableSettings settings = new AlterTableSettings();
+            List<String> dataColumns = index.getDataColumns() != null
+                    ? index.getDataColumns() : Collections.emptyList();
+            switch (index.getType()) {
+                case GLOBAL:
+                    settings.addGlobalIndex(index.getName(), index.getColumns(), dataColumns);
+                    break;
+                case GLOBAL_ASYNC:
+                    settings.addGlobalAsyncIndex(index.getName(), index.getColumns(), dataColumns);
+                    break;
+                default:
+                    logger.warn("Unknown index type: {}, index {}, table {}", index.getType(), index.getName(),
+                            tablePath);
+                    continue;
+            }
+            logger.info("building index {} of shadow table {}", index.getName(), shadowPath);
+            executor.alterTable(shadowPath, settings);
+        }
+
+        executor.renameTable(shadowPath, tablePath, true);
+        logger.info("replaced table {} with shadow table {}", tablePath, shadowPath);
+    }
+
+    public void drop() {
+        if (executor.dropTable(shadowPath)) {
+            logger.info("dropped shadow table {} of {}", shadowPath, tablePath);
+        }
+    }
+}
@@ -39,7 +39,7 @@ public class YdbTruncateTable {
             logger.debug("Cannot describe {} - {}", tablePath, dtr.getStatus());
             return CompletableFuture.completedFuture(dtr.getStatus());
         }
-        TableDescription td = undressDescription(dtr.getValue());
+        TableDescription td = undressDescription(dtr.getValue(), tablePath, true);
         String tempPath = tablePath + "_" + randomSuffix();
         Status status = session.createTable(tempPath, td).join();
         if (!status.isSuccess()) {
@@ -60,7 +60,7 @@ public class YdbTruncateTable {
         return CompletableFuture.completedFuture(status);
     }
 
-    private String randomSuffix() {
+    static String randomSuffix() {
         UUID uuid = UUID.randomUUID();
         ByteBuffer bb = ByteBuffer.allocate(16);
         bb.putLong(uuid.getMostSignificantBits());
@@ -71,18 +71,23 @@ public class YdbTruncateTable {
     /**
      * Undress table description, omitting options that prevent table creation.
      * @param src Source table description.
+     * @param tablePath Source table path.
+     * @param withIndexes true to keep the secondary indexes.
      * @return Undressed table description.
      */
-    private TableDescription undressDescription(TableDescription src) {
+    static TableDescription undressDescription(TableDescription src, String tablePath, boolean withIndexes) {
         TableDescription.Builder b = TableDescription.newBuilder();
+        b.setStoreType(src.getStoreType());
         src.getColumns().forEach(tc -> undressColumn(b, tc));
         b.setPrimaryKeys(src.getPrimaryKeys());
-        src.getIndexes().forEach(ti -> undressIndex(b, ti));
+        if (withIndexes) {
+            src.getIndexes().forEach(ti -> undressIndex(b, ti, tablePath));
+        }
         b.setPartitioningSettings(src.getPartitioningSettings());
         return b.build();
     }
 
-    private void undressColumn(TableDescription.Builder b, TableColumn tc) {
+    private static void undressColumn(TableDescription.Builder b, TableColumn tc) {
         switch (tc.getType().getKind()) {
             case OPTIONAL:
                 b.addNullableColumn(tc.getName(), tc.getType().unwrapOptional());
@@ -92,7 +97,7 @@ public class YdbTruncateTable {
         }
     }
 
-    private void undressIndex(TableDescription.Builder b, TableIndex ti) {
+    private static void undressIndex(TableDescription.Builder b, TableIndex ti, String tablePath) {
         switch (ti.getType()) {
             case GLOBAL:
                 if (ti.getDataColumns() != null) {
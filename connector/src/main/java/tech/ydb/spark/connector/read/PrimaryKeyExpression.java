@@ -60,4 +60,8 @@ public class PrimaryKeyExpression implements YdbPartition {
         TupleValue toValue = keyRange.readToValue(types, columns);
         return new PrimaryKeyExpression(columns, toValue, "$t", keyRange.includesToValue() ? "<=" : "<");
     }
+
+    public static PrimaryKeyExpression keyAfter(FieldInfo[] columns, TupleValue lastKey) {
+        return new PrimaryKeyExpression(columns, lastKey, "$r", ">");
+    }
 }
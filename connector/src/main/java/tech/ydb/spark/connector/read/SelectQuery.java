@@ -22,10 +22,12 @@ public class SelectQuery implements Serializable {
     private final ArrayList<String> predicates;
     private final ArrayList<String> expressions;
     private final ArrayList<String> groupBy;
+    private final ArrayList<String> orderBy;
     private final HashMap<String, Value<?>> params;
 
     private String withExpression;
     private long rowLimit;
+    private long rowOffset;
 
     public SelectQuery(YdbTable table) {
         this.tableName = table.getTablePath();
@@ -38,25 +40,31 @@ public class SelectQuery implements Serializable {
 
         this.expressions = new ArrayList<>();
         this.groupBy = new ArrayList<>();
+        this.orderBy = new ArrayList<>();
         this.params = new HashMap<>();
         this.withExpression = null;
         this.rowLimit = -1;
+        this.rowOffset = 0;
     }
 
     private SelectQuery(String tableName, ArrayList<String> predicates, ArrayList<String> expressions,
-            ArrayList<String> groupBy, HashMap<String, Value<?>> params, String withExpression, long rowLimit) {
+            ArrayList<String> groupBy, ArrayList<String> orderBy, HashMap<String, Value<?>> params,
+            String withExpression, long rowLimit, long rowOffset) {
         this.tableName = tableName;
         this.expressions = expressions;
         this.predicates = predicates;
         this.groupBy = groupBy;
+        this.orderBy = orderBy;
         this.params = params;
         this.withExpression = withExpression;
         this.rowLimit = rowLimit;
+        this.rowOffset = rowOffset;
     }
 
     public SelectQuery copy() {
         return new SelectQuery(tableName, new ArrayList<>(predicates), new ArrayList<>(expressions),
-                new ArrayList<>(groupBy), new HashMap<>(params), withExpression, rowLimit);
+                new ArrayList<>(groupBy), new ArrayList<>(orderBy), new HashMap<>(params), withExpression,
+                rowLimit, rowOffset);
     }
 
     public SelectQuery setWithExpression(String expression) {
@@ -87,6 +95,43 @@ public class SelectQuery implements Serializable {
         return this;
     }
 
+    public SelectQuery withRowOffset(int offset) {
+        this.rowOffset = offset;
+        return this;
+    }
+
+    /**
+     * Makes a copy of the query which continues the reading after the given count of already read rows. If some rows
+     * have been read, the copy must be restricted by the key of the last read row, so the OFFSET is dropped.
+     *
+     * @param rows count of already read rows
+     * @return copy of the query with updated LIMIT and OFFSET
+     */
+    public SelectQuery afterRows(long rows) {
+        SelectQuery next = copy();
+        if (rows == 0) {
+            // nothing has been read, the query is repeated with the pushed OFFSET
+            return next;
+        }
+        if (next.rowLimit >= 0) {
+            next.rowLimit = Math.max(0, next.rowLimit - rows);
+        }
+        next.rowOffset = 0;
+        return next;
+    }
+
+    public boolean isLimitReached() {
+        return rowLimit == 0;
+    }
+
+    public SelectQuery withOrderBy(FieldInfo[] columns) {
+        this.orderBy.clear();
+        for (FieldInfo column: columns) {
+            this.orderBy.add("`" + column.getName() + "`");
+        }
+        return this;
+    }
+
     public SelectQuery replacePredicates(String[] predicates) {
         this.predicates.clear();
         for (String predicate: predicates) {
@@ -97,14 +142,7 @@ public class SelectQuery implements Serializable {
 
     public String toQuery() {
         StringBuilder sb = new StringBuilder();
-
-        for (Map.Entry<String, Value<?>> entry: params.entrySet())  {
-            sb.append("DECLARE ")
-                    .append(entry.getKey())
-                    .append(" AS ")
-                    .append(entry.getValue().getType().toString())
-                    .append("; ");
-        }
+        appendDeclares(sb);
 
         sb.append("SELECT");
         char pDep = ' ';
@@ -119,21 +157,120 @@ public class SelectQuery implements Serializable {
             sb.append(" WITH ").append(withExpression);
         }
 
-        String eDep = " WHERE ";
-        for (String exp: expressions) {
-            sb.append(eDep);
-            sb.append(exp);
-            eDep = " AND ";
+        appendWhere(sb);
+
+        String oDep = " ORDER BY ";
+        for (String col: orderBy) {
+            sb.append(oDep);
+            sb.append(col);
+            oDep = ", ";
         }
 
-        if (rowLimit > 0) {
+        if (rowLimit >= 0) {
             sb.append(" LIMIT ").append(rowLimit);
+            if (rowOffset > 0) {
+                sb.append(" OFFSET ").append(rowOffset);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Makes the DELETE statement which removes all rows matched by the expressions of this query.
+     *
+     * @param batch true to make BATCH DELETE statement
+     * @return text of the statement
+     */
+    public String toDeleteQuery(boolean batch) {
+        StringBuilder sb = new StringBuilder();
+        appendDeclares(sb);
+        sb.append(batch ? "BATCH DELETE" : "DELETE").append(" FROM `").append(tableName).append("`");
+        appendWhere(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Makes the UPSERT statement which copies the selected columns of all rows matched by the expressions of this
+     * query to the target table.
+     *
+     * @param targetTable path of the target table
+     * @return text of the statement
+     */
+    public String toUpsertQuery(String targetTable) {
+        StringBuilder sb = new StringBuilder();
+        appendDeclares(sb);
+        sb.append("UPSERT INTO `").append(targetTable).append("` SELECT ");
+        sb.append(String.join(", ", predicates));
+        sb.append(" FROM `").append(tableName).append("`");
+        appendWhere(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Makes the statement which copies the first rows of this query in the primary key order to the target table
+     * and returns the key of the last copied row. The result is empty if there is nothing to copy.
+     *
+     * @param targetTable path of the target table
+     * @param keys primary key columns of the table
+     * @param rows max count of the copied rows
+     * @return text of the statement
+     */
+    public String toUpsertChunkQuery(String targetTable, FieldInfo[] keys, long rows) {
+        String[] asc = new String[keys.length];
+        String[] desc = new String[keys.length];
+        for (int idx = 0; idx < keys.length; idx++) {
+            asc[idx] = "`" + keys[idx].getName() + "`";
+            desc[idx] = asc[idx] + " DESC";
         }
 
+        StringBuilder sb = new StringBuilder();
+        appendDeclares(sb);
+        sb.append("$chunk = SELECT ").append(String.join(", ", predicates));
+        sb.append(" FROM `").append(tableName).append("`");
+        appendWhere(sb);
+        sb.append(" ORDER BY ").append(String.join(", ", asc)).append(" LIMIT ").append(rows).append("; ");
+        sb.append("UPSERT INTO `").append(targetTable).append("` SELECT * FROM $chunk; ");
+        sb.append("SELECT ").append(String.join(", ", asc)).append(" FROM $chunk");
+        sb.append(" ORDER BY ").append(String.join(", ", desc)).append(" LIMIT 1;");
+        return sb.toString();
+    }
+
+    /**
+     * Makes the SELECT query of the given expressions over all rows matched by the expressions of this query.
+     *
+     * @param columns expressions of the result columns
+     * @return text of the query
+     */
+    public String toSelectQuery(String... columns) {
+        StringBuilder sb = new StringBuilder();
+        appendDeclares(sb);
+        sb.append("SELECT ").append(String.join(", ", columns));
+        sb.append(" FROM `").append(tableName).append("`");
+        appendWhere(sb);
         return sb.toString();
     }
 
     public Params toQueryParams() {
         return Params.copyOf(params);
     }
+
+    private void appendDeclares(StringBuilder sb) {
+        for (Map.Entry<String, Value<?>> entry: params.entrySet())  {
+            sb.append("DECLARE ")
+                    .append(entry.getKey())
+                    .append(" AS ")
+                    .append(entry.getValue().getType().toString())
+                    .append("; ");
+        }
+    }
+
+    private void appendWhere(StringBuilder sb) {
+        String eDep = " WHERE ";
+        for (String exp: expressions) {
+            sb.append(eDep);
+            sb.append(exp);
+            eDep = " AND ";
+        }
+    }
 }
@@ -1,7 +1,9 @@
 package tech.ydb.spark.connector.read;
 
+import java.util.Arrays;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -9,6 +11,7 @@ import java.util.function.IntConsumer;
 
 import org.apache.spark.sql.catalyst.InternalRow;
 import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.connector.metric.CustomTaskMetric;
 import org.apache.spark.sql.connector.read.PartitionReader;
 import org.apache.spark.sql.types.StructType;
 import org.apache.spark.sql.util.CaseInsensitiveStringMap;
@@ -20,6 +23,11 @@ import tech.ydb.core.StatusCode;
 import tech.ydb.core.grpc.GrpcFlowControl;
 import tech.ydb.spark.connector.YdbTypes;
 import tech.ydb.spark.connector.common.OperationOption;
+import tech.ydb.spark.connector.impl.GovernorWaitMetric;
+import tech.ydb.spark.connector.impl.YdbGovernor;
+import tech.ydb.table.values.TupleValue;
+import tech.ydb.table.values.Type;
+import tech.ydb.table.values.Value;
 
 /**
  *
@@ -29,35 +37,77 @@ abstract class StreamReader implements PartitionReader<InternalRow> {
 
     private static final Logger logger = LoggerFactory.getLogger(StreamReader.class);
     private static final AtomicInteger COUNTER = new AtomicInteger(0);
+    private static final int MAX_BACKOFF_CEILING = 6;
 
     private final String[] fieldNames;
     private final YdbTypes types;
+    private final YdbGovernor governor;
 
     private final BlockingQueue<StreamPart> queue;
     private final AtomicLong readedRows = new AtomicLong();
 
     protected final GrpcFlowControl flowControl;
 
+    // Primary key columns which are used to resume the broken stream, empty if resuming is not supported
+    private final String[] keyNames;
+    private final int maxRetries;
+    private final long retryBackoffMs;
+
     private volatile String id = null;
     private volatile GrpcCall call = null;
     private volatile long startedAt = System.currentTimeMillis();
     private volatile StreamPart currentItem = null;
     private volatile Status finishStatus = null;
+    private volatile boolean closed = false;
+    private volatile long governorWaitMs = 0;
+
+    // Accessed only from the task thread
+    private int currentItemRow = 0;
+    private long deliveredRows = 0;
+    private long deliveredOnRetry = 0;
+    private int retryNumber = 0;
+    private Value<?>[] lastKey = null;
+
+    protected StreamReader(YdbGovernor governor, YdbTypes types, int maxQueueSize, StructType schema) {
+        this(governor, types, maxQueueSize, schema, new String[0], 0, 0);
+    }
 
-    protected StreamReader(YdbTypes types, int maxQueueSize, StructType schema) {
+    protected StreamReader(YdbGovernor governor, YdbTypes types, int maxQueueSize, StructType schema,
+            String[] keyNames, int maxRetries, long retryBackoffMs) {
         this.fieldNames = schema.fieldNames();
         this.types = types;
+        this.governor = governor;
         this.queue = new ArrayBlockingQueue<>(maxQueueSize);
         this.flowControl = (req) -> {
             call = new GrpcCall(req);
             return call;
         };
+        this.keyNames = keyNames;
+        this.maxRetries = keyNames.length > 0 ? maxRetries : 0;
+        this.retryBackoffMs = retryBackoffMs;
     }
 
+    /**
+     * Starts the stream asynchronously. The implementation must not block on the session acquisition and must
+     * cancel the stream if the reader has been already closed when the stream is created.
+     *
+     * @return id of the stream
+     */
     protected abstract String start();
 
     protected abstract void cancel();
 
+    /**
+     * Restarts the broken stream. The new stream must return only rows with the primary key greater than the
+     * {@code lastKey} and must take into account {@code readRows} rows which have been already read. It is called
+     * only for the readers created with the primary key columns.
+     *
+     * @param lastKey key of the last read row or null if no rows have been read yet
+     * @param readRows count of rows which have been already read
+     * @return id of the new stream or null if the stream has nothing more to read
+     */
+    protected abstract String resume(TupleValue lastKey, long readRows);
+
     void onComplete(Status status, Throwable th) {
         long ms = System.currentTimeMillis() - startedAt;
         if (status != null) {
@@ -71,32 +121,91 @@ abstract class StreamReader implements PartitionReader<InternalRow> {
             finishStatus = Status.of(StatusCode.CLIENT_INTERNAL_ERROR, th);
         }
         COUNTER.decrementAndGet();
+        governor.releaseReadStream();
         logger.debug("[{}] got {} rows in {} ms", id, readedRows.get(), ms);
     }
 
     void onNextPart(StreamPart part) {
+        if (closed) {
+            // the queue has been already drained by close()
+            part.close();
+            return;
+        }
         readedRows.addAndGet(part.getRowCount());
         queue.add(part);
+        if (closed) {
+            // close() could drain the queue between the check and the adding
+            drainQueue();
+        }
     }
 
-    @Override
-    public boolean next() {
+    /**
+     * Starts the stream without waiting for the first call of {@link #next()}. The session acquisition and the
+     * first round trip are overlapped with the rest of the task initialization.
+     *
+     * @return this reader
+     */
+    StreamReader startEagerly() {
         if (id == null) {
+            acquireStream();
             startedAt = System.currentTimeMillis();
-            id = start();
+            try {
+                id = start();
+            } catch (RuntimeException ex) {
+                // the stream was not started, so onComplete will never return the permit
+                governor.releaseReadStream();
+                throw ex;
+            }
             logger.trace("[{}] started, {} total", id, COUNTER.incrementAndGet());
         }
+        return this;
+    }
+
+    protected boolean isClosed() {
+        return closed;
+    }
+
+    private void acquireStream() {
+        // the permit is returned by onComplete
+        long waitMs = governor.acquireReadStream();
+        if (waitMs > 0) {
+            logger.debug("waited {} ms for the read stream permit", waitMs);
+            governorWaitMs += waitMs;
+        }
+    }
+
+    @Override
+    public CustomTaskMetric[] currentMetricsValues() {
+        return new CustomTaskMetric[] {GovernorWaitMetric.taskValue(governorWaitMs)};
+    }
+
+    @Override
+    public boolean next() {
+        startEagerly();
 
         while (true) {
-            if (finishStatus != null) {
-                finishStatus.expectSuccess("Scan failed.");
+            Status status = finishStatus;
+            if (status != null) {
                 if (currentItem == null && queue.isEmpty()) {
+                    if (!status.isSuccess() && tryResume(status)) {
+                        continue;
+                    }
+                    status.expectSuccess("Scan failed.");
                     return false;
                 }
+                if (!isResumable(status)) {
+                    status.expectSuccess("Scan failed.");
+                }
             }
 
             if (currentItem != null) {
                 if (currentItem.next()) {
+                    deliveredRows++;
+                    currentItemRow++;
+                    if (maxRetries > 0 && currentItemRow == currentItem.getRowCount()) {
+                        // all received parts are read before resuming, so the last row of the part is enough
+                        lastKey = readKey(currentItem);
+                    }
                     return true;
                 }
                 currentItem.close();
@@ -106,6 +215,7 @@ abstract class StreamReader implements PartitionReader<InternalRow> {
             try {
                 currentItem = queue.poll(100, TimeUnit.MILLISECONDS);
                 if (currentItem != null) {
+                    currentItemRow = 0;
                     // call is never null if item has been read
                     call.requestNextMessage();
                 }
@@ -116,6 +226,69 @@ abstract class StreamReader implements PartitionReader<InternalRow> {
         }
     }
 
+    private boolean isResumable(Status status) {
+        return !status.isSuccess() && maxRetries > 0 && status.getCode().isRetryable(true);
+    }
+
+    private boolean tryResume(Status status) {
+        if (!isResumable(status)) {
+            return false;
+        }
+
+        if (deliveredRows > deliveredOnRetry) {
+            // the previous stream made some progress, so the retry budget is restored
+            retryNumber = 0;
+        }
+        retryNumber++;
+        if (retryNumber > maxRetries) {
+            return false;
+        }
+
+        long delay = retryBackoffMs * (1L << Math.min(retryNumber - 1, MAX_BACKOFF_CEILING));
+        if (delay > 0) {
+            delay += ThreadLocalRandom.current().nextLong(delay);
+        }
+        logger.warn("[{}] resuming after {} rows in {} ms, attempt {} of {}", id, deliveredRows, delay,
+                retryNumber, maxRetries);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Reading was interrupted", e);
+        }
+
+        deliveredOnRetry = deliveredRows;
+        finishStatus = null;
+        acquireStream();
+        startedAt = System.currentTimeMillis();
+        String resumed;
+        try {
+            resumed = resume(lastKey != null ? TupleValue.of(Arrays.asList(lastKey)) : null, deliveredRows);
+        } catch (RuntimeException ex) {
+            governor.releaseReadStream();
+            throw ex;
+        }
+        if (resumed == null) {
+            // the limit has been already reached by the broken stream
+            governor.releaseReadStream();
+            finishStatus = Status.SUCCESS;
+            return true;
+        }
+        id = resumed;
+        logger.trace("[{}] resumed, {} total", id, COUNTER.incrementAndGet());
+        return true;
+    }
+
+    private Value<?>[] readKey(StreamPart part) {
+        Value<?>[] key = new Value<?>[keyNames.length];
+        for (int idx = 0; idx < keyNames.length; idx++) {
+            Value<?> value = part.getColumn(keyNames[idx]).getValue();
+            // key tuples are always compared as optional values
+            key[idx] = value.getType().getKind() == Type.Kind.OPTIONAL ? value : value.makeOptional();
+        }
+        return key;
+    }
+
     @Override
     public InternalRow get() {
         if (currentItem == null) {
@@ -134,6 +307,7 @@ abstract class StreamReader implements PartitionReader<InternalRow> {
 
     @Override
     public void close() {
+        closed = true;
         if (finishStatus == null) {
             cancel();
         }
@@ -141,6 +315,10 @@ abstract class StreamReader implements PartitionReader<InternalRow> {
             currentItem.close();
             currentItem = null;
         }
+        drainQueue();
+    }
+
+    private void drainQueue() {
         for (StreamPart item = queue.poll(); item != null; item = queue.poll()) {
             item.close();
         }
@@ -169,6 +347,14 @@ abstract class StreamReader implements PartitionReader<InternalRow> {
         }
     }
 
+    public static int readRetryCount(CaseInsensitiveStringMap options) {
+        return Math.max(0, OperationOption.SCAN_RETRY_COUNT.readInt(options, 0));
+    }
+
+    public static long readRetryBackoff(CaseInsensitiveStringMap options) {
+        return Math.max(0, OperationOption.SCAN_RETRY_BACKOFF.readInt(options, 500));
+    }
+
     public static int readQueueMaxSize(CaseInsensitiveStringMap options) {
         try {
             int scanQueueDepth = OperationOption.READQUEUE_SIZE.readInt(options, 3);
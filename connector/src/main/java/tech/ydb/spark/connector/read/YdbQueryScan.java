@@ -1,6 +1,7 @@
 package tech.ydb.spark.connector.read;
 
 import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.connector.metric.CustomMetric;
 import org.apache.spark.sql.connector.read.Batch;
 import org.apache.spark.sql.connector.read.InputPartition;
 import org.apache.spark.sql.connector.read.PartitionReader;
@@ -11,14 +12,14 @@ import org.apache.spark.sql.types.StructType;
 import org.apache.spark.sql.util.CaseInsensitiveStringMap;
 
 import tech.ydb.common.transaction.TxMode;
-import tech.ydb.core.Result;
-import tech.ydb.query.QuerySession;
 import tech.ydb.query.QueryStream;
 import tech.ydb.query.settings.ExecuteQuerySettings;
 import tech.ydb.spark.connector.YdbQueryTable;
 import tech.ydb.spark.connector.YdbTypes;
 import tech.ydb.spark.connector.common.OperationOption;
+import tech.ydb.spark.connector.impl.GovernorWaitMetric;
 import tech.ydb.table.query.Params;
+import tech.ydb.table.values.TupleValue;
 
 /**
  * Scan is the factory for the Batch.
@@ -62,6 +63,11 @@ public class YdbQueryScan implements Scan, Batch, ScanBuilder, PartitionReaderFa
         return query.schema();
     }
 
+    @Override
+    public CustomMetric[] supportedCustomMetrics() {
+        return new CustomMetric[] {new GovernorWaitMetric()};
+    }
+
     @Override
     public InputPartition[] planInputPartitions() {
         return CustomYqlPartition.PLAN;
@@ -69,7 +75,7 @@ public class YdbQueryScan implements Scan, Batch, ScanBuilder, PartitionReaderFa
 
     @Override
     public PartitionReader<InternalRow> createReader(InputPartition partition) {
-        return new QueryReader();
+        return new QueryReader().startEagerly();
     }
 
     private final class QueryReader extends StreamReader {
@@ -77,32 +83,42 @@ public class YdbQueryScan implements Scan, Batch, ScanBuilder, PartitionReaderFa
         private volatile QueryStream stream = null;
 
         QueryReader() {
-            super(types, queueMaxSize, query.schema());
+            super(query.getCtx().getExecutor().getGovernor(), types, queueMaxSize, query.schema());
         }
 
         @Override
         protected String start() {
             String yql = query.getQuery();
-            Result<QuerySession> session = query.getCtx().getExecutor().createQuerySession();
-            if (!session.isSuccess()) {
-                onComplete(session.getStatus(), null);
-                return yql;
-            }
-
-            ExecuteQuerySettings.Builder settings = ExecuteQuerySettings.newBuilder()
-                    .withGrpcFlowControl(flowControl);
-            if (useApacheArrow) {
-                settings = settings.useApacheArrowFormat();
-            }
-
-            stream = session.getValue().createQuery(yql, TxMode.NONE, Params.empty(), settings.build());
-            stream.execute(new StreamPartsHandler(this)).whenComplete((res, th) -> {
-                session.getValue().close();
-                onComplete((res == null) ? null : res.getStatus(), th);
+            query.getCtx().getExecutor().createQuerySession().whenComplete((session, error) -> {
+                if (error != null || !session.isSuccess()) {
+                    onComplete(session != null ? session.getStatus() : null, error);
+                    return;
+                }
+
+                ExecuteQuerySettings.Builder settings = ExecuteQuerySettings.newBuilder()
+                        .withGrpcFlowControl(flowControl);
+                if (useApacheArrow) {
+                    settings = settings.useApacheArrowFormat();
+                }
+
+                stream = session.getValue().createQuery(yql, TxMode.NONE, Params.empty(), settings.build());
+                stream.execute(new StreamPartsHandler(this)).whenComplete((res, th) -> {
+                    session.getValue().close();
+                    onComplete((res == null) ? null : res.getStatus(), th);
+                });
+                if (isClosed()) {
+                    stream.cancel();
+                }
             });
             return yql;
         }
 
+        @Override
+        protected String resume(TupleValue lastKey, long readRows) {
+            // the custom query has no primary key, the reader is created without resuming
+            throw new IllegalStateException("Custom query " + query.getQuery() + " cannot be resumed");
+        }
+
         @Override
         protected void cancel() {
             if (stream != null) {
@@ -9,7 +9,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.stream.IntStream;
 
 import org.apache.spark.sql.catalyst.InternalRow;
 import org.apache.spark.sql.connector.expressions.Expression;
@@ -18,6 +18,7 @@ import org.apache.spark.sql.connector.expressions.LiteralValue;
 import org.apache.spark.sql.connector.expressions.NamedReference;
 import org.apache.spark.sql.connector.expressions.filter.And;
 import org.apache.spark.sql.connector.expressions.filter.Predicate;
+import org.apache.spark.sql.connector.metric.CustomMetric;
 import org.apache.spark.sql.connector.read.Batch;
 import org.apache.spark.sql.connector.read.InputPartition;
 import org.apache.spark.sql.connector.read.PartitionReader;
@@ -35,13 +36,12 @@ import org.apache.spark.sql.util.CaseInsensitiveStringMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import tech.ydb.core.Result;
 import tech.ydb.core.grpc.GrpcReadStream;
 import tech.ydb.spark.connector.YdbTable;
 import tech.ydb.spark.connector.YdbTypes;
 import tech.ydb.spark.connector.common.FieldInfo;
 import tech.ydb.spark.connector.common.KeysRange;
-import tech.ydb.table.Session;
+import tech.ydb.spark.connector.impl.GovernorWaitMetric;
 import tech.ydb.table.query.ReadTablePart;
 import tech.ydb.table.settings.ReadTableSettings;
 import tech.ydb.table.values.TupleValue;
@@ -61,6 +61,8 @@ public class YdbReadTable implements Batch, Scan, ScanBuilder, SupportsReportPar
     private final YdbTypes types;
     private final int queueMaxSize;
     private final FieldInfo[] keys;
+    private final int retryCount;
+    private final long retryBackoff;
 
     private int rowLimit;
     private KeysRange predicateRange;
@@ -77,6 +79,8 @@ public class YdbReadTable implements Batch, Scan, ScanBuilder, SupportsReportPar
         this.types = new YdbTypes(options);
         this.queueMaxSize = StreamReader.readQueueMaxSize(options);
         this.keys = table.getKeyColumns();
+        this.retryCount = StreamReader.readRetryCount(options);
+        this.retryBackoff = StreamReader.readRetryBackoff(options);
 
         this.predicateRange = KeysRange.UNRESTRICTED;
 
@@ -89,6 +93,11 @@ public class YdbReadTable implements Batch, Scan, ScanBuilder, SupportsReportPar
         return readSchema;
     }
 
+    @Override
+    public CustomMetric[] supportedCustomMetrics() {
+        return new CustomMetric[] {new GovernorWaitMetric()};
+    }
+
     @Override
     public Batch toBatch() {
         return this;
@@ -133,7 +142,7 @@ public class YdbReadTable implements Batch, Scan, ScanBuilder, SupportsReportPar
     @Override
     public PartitionReader<InternalRow> createReader(InputPartition partition) {
         ShardPartition p = (ShardPartition) partition;
-        return new ReadTableReader(p.getRange());
+        return new ReadTableReader(p.getRange()).startEagerly();
     }
 
     @Override
@@ -161,10 +170,15 @@ public class YdbReadTable implements Batch, Scan, ScanBuilder, SupportsReportPar
         }
         // TODO: maybe switch to deterministic shuffle
         final Random random = new Random();
-        ShardPartition[] out = Stream.of(partitions)
-                .map(kr -> kr.intersect(predicateRange))
-                .filter(kr -> !kr.isEmpty())
-                .map(kr -> new ShardPartition(random.nextInt(999999999), kr))
+        final long[] rows = table.getPartitionRows();
+        final boolean useRows = rowLimit >= 0 && rows.length == partitions.length;
+        ShardPartition[] out = IntStream.range(0, partitions.length)
+                .mapToObj(idx -> new ShardPartition(
+                        // Limited scans are executed wave by wave, the largest partitions should go first
+                        useRows ? -(int) Math.min(rows[idx], Integer.MAX_VALUE) : random.nextInt(999999999),
+                        partitions[idx].intersect(predicateRange)
+                ))
+                .filter(sp -> !sp.getRange().isEmpty())
                 .toArray(ShardPartition[]::new);
 
         if (logger.isDebugEnabled()) {
@@ -176,6 +190,14 @@ public class YdbReadTable implements Batch, Scan, ScanBuilder, SupportsReportPar
         return out;
     }
 
+    private String[] keyNames() {
+        String[] names = new String[keys.length];
+        for (int idx = 0; idx < keys.length; idx++) {
+            names[idx] = keys[idx].getName();
+        }
+        return names;
+    }
+
     /**
      * Put all predicates connected with AND directly into the list of
      * predicates, recursively.
@@ -343,19 +365,70 @@ public class YdbReadTable implements Batch, Scan, ScanBuilder, SupportsReportPar
 
         private final String id;
         private final String tablePath;
-        private final ReadTableSettings settings;
+        private final KeysRange keysRange;
+        private final List<String> columnsToRead;
         private volatile GrpcReadStream<ReadTablePart> stream;
 
         ReadTableReader(KeysRange keysRange) {
-            super(types, queueMaxSize, readSchema);
+            super(table.getCtx().getExecutor().getGovernor(), types, queueMaxSize, readSchema,
+                    retryCount > 0 ? keyNames() : new String[0], retryCount, retryBackoff);
 
             this.tablePath = table.getTablePath();
-
-            List<String> columnsToRead = new ArrayList<>(Arrays.asList(readSchema.fieldNames()));
+            this.keysRange = keysRange;
+
+            this.columnsToRead = new ArrayList<>(Arrays.asList(readSchema.fieldNames()));
+            if (retryCount > 0) {
+                // key columns are required to resume the broken stream
+                for (FieldInfo key : keys) {
+                    if (!columnsToRead.contains(key.getName())) {
+                        columnsToRead.add(key.getName());
+                    }
+                }
+            }
             if (columnsToRead.isEmpty()) {
                 columnsToRead.add(table.getKeyColumns()[0].getName());
             }
 
+            String columns = columnsToRead.stream().collect(Collectors.joining(","));
+            this.id = "READ TABLE " + columns + " RANGE " + keysRange + " LIMIT " + rowLimit;
+        }
+
+        @Override
+        protected String start() {
+            return execute(null, 0);
+        }
+
+        @Override
+        protected String resume(TupleValue lastKey, long readRows) {
+            if (rowLimit > 0 && readRows >= rowLimit) {
+                return null;
+            }
+            return execute(lastKey, readRows);
+        }
+
+        private String execute(TupleValue lastKey, long readRows) {
+            ReadTableSettings settings = buildSettings(lastKey, readRows);
+
+            // Execute read table
+            table.getCtx().getExecutor().createTableSession().whenComplete((session, error) -> {
+                if (error != null || !session.isSuccess()) {
+                    onComplete(session != null ? session.getStatus() : null, error);
+                    return;
+                }
+
+                this.stream = session.getValue().executeReadTable(tablePath, settings);
+                stream.start(new StreamPartsHandler(this)).whenComplete((status, th) -> {
+                    session.getValue().close();
+                    onComplete(status, th);
+                });
+                if (isClosed()) {
+                    stream.cancel();
+                }
+            });
+            return id;
+        }
+
+        private ReadTableSettings buildSettings(TupleValue lastKey, long readRows) {
             ReadTableSettings.Builder rtsb = ReadTableSettings.newBuilder()
                     // TODO: add setting for the maximum scan duration.
                     .withRequestTimeout(Duration.ofHours(8))
@@ -363,7 +436,9 @@ public class YdbReadTable implements Batch, Scan, ScanBuilder, SupportsReportPar
                     .orderedRead(true)
                     .columns(columnsToRead);
 
-            if (keysRange.hasFromValue()) {
+            if (lastKey != null) {
+                rtsb.fromKeyExclusive(lastKey);
+            } else if (keysRange.hasFromValue()) {
                 TupleValue tv = keysRange.readFromValue(types, table.getKeyColumns());
                 if (keysRange.includesFromValue()) {
                     rtsb.fromKeyInclusive(tv);
@@ -381,29 +456,10 @@ public class YdbReadTable implements Batch, Scan, ScanBuilder, SupportsReportPar
             }
 
             if (rowLimit > 0) {
-                rtsb.rowLimit(rowLimit);
+                rtsb.rowLimit((int) (rowLimit - readRows));
             }
 
-            String columns = columnsToRead.stream().collect(Collectors.joining(","));
-            this.id = "READ TABLE " + columns + " RANGE " + keysRange + " LIMIT " + rowLimit;
-            this.settings = rtsb.build();
-        }
-
-        @Override
-        protected String start() {
-            // Execute read table
-            Result<Session> session = table.getCtx().getExecutor().createTableSession();
-            if (!session.isSuccess()) {
-                onComplete(session.getStatus(), null);
-                return id;
-            }
-
-            this.stream = session.getValue().executeReadTable(tablePath, settings);
-            stream.start(new StreamPartsHandler(this)).whenComplete((status, th) -> {
-                session.getValue().close();
-                onComplete(status, th);
-            });
-            return id;
+            return rtsb.build();
         }
 
         @Override
@@ -1,5 +1,6 @@
 package tech.ydb.spark.connector.read;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -9,6 +10,7 @@ import java.util.Random;
 import org.apache.spark.sql.catalyst.InternalRow;
 import org.apache.spark.sql.connector.expressions.aggregate.Aggregation;
 import org.apache.spark.sql.connector.expressions.filter.Predicate;
+import org.apache.spark.sql.connector.metric.CustomMetric;
 import org.apache.spark.sql.connector.read.Batch;
 import org.apache.spark.sql.connector.read.InputPartition;
 import org.apache.spark.sql.connector.read.PartitionReader;
@@ -17,6 +19,7 @@ import org.apache.spark.sql.connector.read.Scan;
 import org.apache.spark.sql.connector.read.ScanBuilder;
 import org.apache.spark.sql.connector.read.SupportsPushDownAggregates;
 import org.apache.spark.sql.connector.read.SupportsPushDownLimit;
+import org.apache.spark.sql.connector.read.SupportsPushDownOffset;
 import org.apache.spark.sql.connector.read.SupportsPushDownRequiredColumns;
 import org.apache.spark.sql.connector.read.SupportsPushDownV2Filters;
 import org.apache.spark.sql.connector.read.SupportsReportPartitioning;
@@ -28,15 +31,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import tech.ydb.common.transaction.TxMode;
-import tech.ydb.core.Result;
-import tech.ydb.query.QuerySession;
 import tech.ydb.query.QueryStream;
 import tech.ydb.query.settings.ExecuteQuerySettings;
 import tech.ydb.spark.connector.YdbTable;
 import tech.ydb.spark.connector.YdbTypes;
+import tech.ydb.spark.connector.common.FieldInfo;
 import tech.ydb.spark.connector.common.KeysRange;
 import tech.ydb.spark.connector.common.OperationOption;
+import tech.ydb.spark.connector.impl.GovernorWaitMetric;
 import tech.ydb.table.query.Params;
+import tech.ydb.table.values.TupleValue;
 
 /**
  * Scan is the factory for the Batch.
@@ -44,7 +48,8 @@ import tech.ydb.table.query.Params;
  * @author zinal
  */
 public class YdbScanTable implements Batch, Scan, ScanBuilder, SupportsReportPartitioning, PartitionReaderFactory,
-        SupportsPushDownV2Filters, SupportsPushDownRequiredColumns, SupportsPushDownLimit, SupportsPushDownAggregates {
+        SupportsPushDownV2Filters, SupportsPushDownRequiredColumns, SupportsPushDownLimit, SupportsPushDownOffset,
+        SupportsPushDownAggregates {
 
     private static final long serialVersionUID = 6752417702512593851L;
     private static final Logger logger = LoggerFactory.getLogger(YdbScanTable.class);
@@ -54,13 +59,16 @@ public class YdbScanTable implements Batch, Scan, ScanBuilder, SupportsReportPar
     private final YdbTypes types;
     private final int queueMaxSize;
     private final boolean useApacheArrow;
+    private final int retryCount;
+    private final long retryBackoff;
 
     private final boolean pushDownPredicate;
 //    private final boolean pushDownAggregate;
     private final boolean pushDownLimit;
-//    private final boolean pushDownOffset;
+    private final boolean pushDownOffset;
 
     private StructType readSchema;
+    private int rowLimit = -1;
 
     public YdbScanTable(YdbTable table, CaseInsensitiveStringMap scanOptions) {
         this.table = table;
@@ -78,10 +86,17 @@ public class YdbScanTable implements Batch, Scan, ScanBuilder, SupportsReportPar
         this.useApacheArrow = OperationOption.USE_APACHE_ARROW.readBoolean(options, false);
         this.readSchema = table.schema();
 
+        // Only row tables can be read in the primary key order, which is required to resume the broken stream
+        this.retryCount = table.getType() != YdbTable.Type.COLUMN ? StreamReader.readRetryCount(options) : 0;
+        this.retryBackoff = StreamReader.readRetryBackoff(options);
+        if (retryCount > 0) {
+            query.withOrderBy(table.getKeyColumns());
+        }
+
         this.pushDownPredicate = OperationOption.PUSHDOWN_PREDICATE.readBoolean(options, true);
 //        this.pushDownAggregate = OperationOption.PUSHDOWN_AGGREGATE.readBoolean(options, true);
         this.pushDownLimit = OperationOption.PUSHDOWN_LIMIT.readBoolean(options, true);
-//        this.pushDownOffset = OperationOption.PUSHDOWN_OFFSET.readBoolean(options, true);
+        this.pushDownOffset = OperationOption.PUSHDOWN_OFFSET.readBoolean(options, true);
     }
 
     @Override
@@ -104,10 +119,15 @@ public class YdbScanTable implements Batch, Scan, ScanBuilder, SupportsReportPar
         return readSchema;
     }
 
+    @Override
+    public CustomMetric[] supportedCustomMetrics() {
+        return new CustomMetric[] {new GovernorWaitMetric()};
+    }
+
     @Override
     public PartitionReader<InternalRow> createReader(InputPartition partition) {
         YdbPartition p = (YdbPartition) partition;
-        return new QueryServiceReader(p.makeQuery(query));
+        return new QueryServiceReader(p.makeQuery(query)).startEagerly();
     }
 
     @Override
@@ -156,11 +176,32 @@ public class YdbScanTable implements Batch, Scan, ScanBuilder, SupportsReportPar
 
     @Override
     public boolean pushLimit(int limit) {
-        if (pushDownLimit) {
-            logger.debug("push limit {}", limit);
-            query.withRowLimit(limit);
+        if (!pushDownLimit) {
+            return false;
+        }
+        logger.debug("push limit {}", limit);
+        query.withRowLimit(limit);
+        rowLimit = limit;
+        return true;
+    }
+
+    @Override
+    public boolean isPartiallyPushed() {
+        // limit is applied to each partition and must be re-applied if the scan has more than one partition
+        return !isSinglePartition();
+    }
+
+    @Override
+    public boolean pushOffset(int offset) {
+        // Spark pushes LIMIT (n + m) before OFFSET m, YQL doesn't support OFFSET without LIMIT
+        if (!pushDownOffset || rowLimit < 0 || !isSinglePartition()) {
+            return false;
         }
-        return false; // limit should be re-applied
+        logger.debug("push offset {}", offset);
+        query.withRowLimit(Math.max(rowLimit - offset, 0))
+                .withRowOffset(offset)
+                .withOrderBy(table.getKeyColumns()); // OFFSET is stable only with ordering by the primary key
+        return true;
     }
 
     @Override
@@ -170,7 +211,16 @@ public class YdbScanTable implements Batch, Scan, ScanBuilder, SupportsReportPar
             if (logger.isDebugEnabled()) {
                 logger.debug("prune columns {}", Arrays.toString(requiredSchema.names()));
             }
-            query.replacePredicates(requiredSchema.names());
+            List<String> columns = new ArrayList<>(Arrays.asList(requiredSchema.names()));
+            if (retryCount > 0) {
+                // key columns are required to resume the broken stream
+                for (FieldInfo key : table.getKeyColumns()) {
+                    if (!columns.contains(key.getName())) {
+                        columns.add(key.getName());
+                    }
+                }
+            }
+            query.replacePredicates(columns.toArray(new String[0]));
         }
     }
 
@@ -195,6 +245,26 @@ public class YdbScanTable implements Batch, Scan, ScanBuilder, SupportsReportPar
         return new UnknownPartitioning(1);
     }
 
+    private String[] keyNames() {
+        FieldInfo[] keys = table.getKeyColumns();
+        String[] names = new String[keys.length];
+        for (int idx = 0; idx < keys.length; idx++) {
+            names[idx] = keys[idx].getName();
+        }
+        return names;
+    }
+
+    private boolean isSinglePartition() {
+        switch (table.getType()) {
+            case ROW:
+            case INDEX:
+                return table.getPartitions().length <= 1;
+            case COLUMN:
+            default:
+                return false;
+        }
+    }
+
     private static <T> T[] shuffle(T[] array) {
         // TODO: maybe switch to deterministic shuffle
         Random rnd = new Random();
@@ -208,6 +278,24 @@ public class YdbScanTable implements Batch, Scan, ScanBuilder, SupportsReportPar
         return array;
     }
 
+    /**
+     * Spark executes limited scans (show, take, etc) wave by wave in the partition order, so the largest partitions
+     * are placed first to satisfy the limit with the smallest number of tasks.
+     */
+    private static InputPartition[] sortByRows(InputPartition[] array, long[] rows) {
+        Integer[] order = new Integer[array.length];
+        for (int idx = 0; idx < order.length; idx++) {
+            order[idx] = idx;
+        }
+        Arrays.sort(order, (i1, i2) -> Long.compare(rows[i2], rows[i1]));
+
+        InputPartition[] sorted = new InputPartition[array.length];
+        for (int idx = 0; idx < order.length; idx++) {
+            sorted[idx] = array[order[idx]];
+        }
+        return sorted;
+    }
+
     @Override
     public InputPartition[] planInputPartitions() {
         switch (table.getType()) {
@@ -233,6 +321,10 @@ public class YdbScanTable implements Batch, Scan, ScanBuilder, SupportsReportPar
                         logger.trace("create range {} partition", ranges[idx]);
                         partitions[idx] = YdbPartition.keysRange(types, table.getKeyColumns(), ranges[idx]);
                     }
+                    long[] rows = table.getPartitionRows();
+                    if (rowLimit >= 0 && rows.length == partitions.length) {
+                        return sortByRows(partitions, rows);
+                    }
                     return shuffle(partitions);
                 }
                 break;
@@ -243,22 +335,43 @@ public class YdbScanTable implements Batch, Scan, ScanBuilder, SupportsReportPar
 
     private final class QueryServiceReader extends StreamReader {
 
-        private final String query;
-        private final Params params;
+        private final SelectQuery origin;
         private volatile QueryStream stream = null;
 
         QueryServiceReader(SelectQuery query) {
-            super(types, queueMaxSize, readSchema);
-            this.query = query.toQuery();
-            this.params = query.toQueryParams();
+            super(table.getCtx().getExecutor().getGovernor(), types, queueMaxSize, readSchema,
+                    retryCount > 0 ? keyNames() : new String[0], retryCount, retryBackoff);
+            this.origin = query;
         }
 
         @Override
         protected String start() {
-            Result<QuerySession> session = table.getCtx().getExecutor().createQuerySession();
-            if (!session.isSuccess()) {
-                onComplete(session.getStatus(), null);
-            } else {
+            return execute(origin);
+        }
+
+        @Override
+        protected String resume(TupleValue lastKey, long readRows) {
+            if (lastKey == null) {
+                // nothing has been read, the query is repeated as is
+                return execute(origin);
+            }
+            SelectQuery next = origin.afterRows(readRows);
+            if (next.isLimitReached()) {
+                return null;
+            }
+            return execute(PrimaryKeyExpression.keyAfter(table.getKeyColumns(), lastKey).makeQuery(next));
+        }
+
+        private String execute(SelectQuery select) {
+            String query = select.toQuery();
+            Params params = select.toQueryParams();
+
+            table.getCtx().getExecutor().createQuerySession().whenComplete((session, error) -> {
+                if (error != null || !session.isSuccess()) {
+                    onComplete(session != null ? session.getStatus() : null, error);
+                    return;
+                }
+
                 ExecuteQuerySettings.Builder settings = ExecuteQuerySettings.newBuilder()
                         .withGrpcFlowControl(flowControl);
                 if (useApacheArrow) {
@@ -270,7 +383,11 @@ public class YdbScanTable implements Batch, Scan, ScanBuilder, SupportsReportPar
                     session.getValue().close();
                     onComplete((res == null) ? null : res.getStatus(), th);
                 });
-            }
+                if (isClosed()) {
+                    stream.cancel();
+                }
+            });
+
             StringBuilder sb = new StringBuilder(query);
             params.values().forEach((k, v) -> {
                 sb.append(", ").append(k).append("=").append(v);
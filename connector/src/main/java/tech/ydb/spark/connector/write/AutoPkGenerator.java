@@ -0,0 +1,151 @@
+package tech.ydb.spark.connector.write;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import tech.ydb.spark.connector.common.AutoPkMode;
+import tech.ydb.table.values.PrimitiveType;
+import tech.ydb.table.values.PrimitiveValue;
+import tech.ydb.table.values.Value;
+
+/**
+ * Generator of the automatic primary key values of one writer. Instances are not thread-safe.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+final class AutoPkGenerator {
+    // Length of the text representation of UUID
+    private static final int TEXT_SIZE = 36;
+    private static final int UUID_SIZE = 16;
+    private static final int UINT64_SIZE = 8;
+
+    private static final int PARTITION_SHIFT = 40;
+    private static final long COUNTER_MASK = (1L << PARTITION_SHIFT) - 1;
+    // Count of rows with the same prefix in the shard-local mode
+    private static final long SHARD_LOCAL_BLOCK = 1L << 20;
+    private static final int SHARD_LOCAL_UINT64_BITS = 24;
+    private static final int UUID7_MAX_SEQUENCE = 0xFFF;
+
+    private final AutoPkMode mode;
+    private final PrimitiveType type;
+    private final long jobPrefix;
+    private final long partitionId;
+
+    private long counter = 0;
+    private long prefix = 0;
+    private long lastMillis = 0;
+    private int sequence = 0;
+
+    private long msb;
+    private long lsb;
+
+    AutoPkGenerator(AutoPkMode mode, PrimitiveType type, long jobPrefix, int partitionId) {
+        if (type == PrimitiveType.Uint64 && mode != AutoPkMode.RANDOM && mode != AutoPkMode.SHARD_LOCAL) {
+            throw new IllegalArgumentException("Auto primary key mode " + mode + " requires Text or Uuid column");
+        }
+        this.mode = mode;
+        this.type = type;
+        this.jobPrefix = jobPrefix;
+        this.partitionId = partitionId & 0xFFFFFFL;
+    }
+
+    public PrimitiveType getType() {
+        return type;
+    }
+
+    public int estimateSize() {
+        switch (type) {
+            case Uuid:
+                return UUID_SIZE;
+            case Uint64:
+                return UINT64_SIZE;
+            default:
+                return TEXT_SIZE;
+        }
+    }
+
+    public Value<?> nextValue() {
+        switch (type) {
+            case Uuid:
+                next128();
+                return PrimitiveValue.newUuid(msb, lsb);
+            case Uint64:
+                return PrimitiveValue.newUint64(nextUint64());
+            default:
+                return PrimitiveValue.newText(nextText());
+        }
+    }
+
+    public String nextText() {
+        return nextUuid().toString();
+    }
+
+    public UUID nextUuid() {
+        next128();
+        return new UUID(msb, lsb);
+    }
+
+    public long nextUint64() {
+        // the random prefix of the block and the counter never repeat inside one writer, the writers collide only
+        // if they pick the same 40-bit prefix
+        long local = counter++ & ((1L << SHARD_LOCAL_UINT64_BITS) - 1);
+        if (local == 0) {
+            prefix = ThreadLocalRandom.current().nextLong() << SHARD_LOCAL_UINT64_BITS;
+        }
+        if (mode == AutoPkMode.RANDOM) {
+            // the bijective mix spreads the consecutive keys over all shards and keeps them unique
+            return mix64(prefix | local);
+        }
+        return prefix | local;
+    }
+
+    private static long mix64(long value) {
+        // SplitMix64 finalizer
+        long z = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private void next128() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (mode) {
+            case UUID7:
+                nextUuid7(random);
+                break;
+            case SEQUENTIAL:
+                msb = jobPrefix;
+                lsb = (partitionId << PARTITION_SHIFT) | (counter++ & COUNTER_MASK);
+                break;
+            case SHARD_LOCAL:
+                if (counter % SHARD_LOCAL_BLOCK == 0) {
+                    prefix = random.nextLong();
+                }
+                msb = prefix;
+                lsb = counter++;
+                break;
+            case RANDOM:
+            default:
+                // UUID.randomUUID() uses SecureRandom which is too slow to be called for every row
+                msb = (random.nextLong() & 0xffffffffffff0fffL) | 0x0000000000004000L; // version 4
+                lsb = (random.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L; // IETF variant
+                break;
+        }
+    }
+
+    private void nextUuid7(ThreadLocalRandom random) {
+        // 12 bits after the timestamp are used as the counter to keep keys of one writer monotonic
+        long now = System.currentTimeMillis();
+        if (now > lastMillis) {
+            lastMillis = now;
+            sequence = random.nextInt(UUID7_MAX_SEQUENCE / 2);
+        } else if (sequence < UUID7_MAX_SEQUENCE) {
+            sequence++;
+        } else {
+            lastMillis++;
+            sequence = 0;
+        }
+
+        msb = (lastMillis << 16) | 0x7000L | sequence; // version 7
+        lsb = (random.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L; // IETF variant
+    }
+}
@@ -1,12 +1,11 @@
 package tech.ydb.spark.connector.write;
 
-import java.util.UUID;
-
 import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.types.BinaryType;
 import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.StringType;
 
 import tech.ydb.spark.connector.YdbTypes;
-import tech.ydb.table.values.PrimitiveValue;
 import tech.ydb.table.values.Type;
 import tech.ydb.table.values.Value;
 
@@ -14,17 +13,31 @@ import tech.ydb.table.values.Value;
  * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
  */
 public final class ColumnEntry {
+    // Approximate protobuf overhead of one value: field tag and length
+    private static final int VALUE_OVERHEAD = 2;
+
     private final String name;
     private final Type type;
     // Null if column is auto-generated
     private final DataType dataType;
     private final int ordinal;
+    // Not null only if column is auto-generated
+    private final AutoPkGenerator autoPk;
 
     public ColumnEntry(String name, Type type, DataType dataType, int ordinal) {
         this.name = name;
         this.type = type;
         this.dataType = dataType;
         this.ordinal = ordinal;
+        this.autoPk = null;
+    }
+
+    ColumnEntry(String name, Type type, AutoPkGenerator autoPk) {
+        this.name = name;
+        this.type = type;
+        this.dataType = null;
+        this.ordinal = -1;
+        this.autoPk = autoPk;
     }
 
     public String getName() {
@@ -43,12 +56,39 @@ public final class ColumnEntry {
         return ordinal;
     }
 
+    AutoPkGenerator getAutoPk() {
+        return autoPk;
+    }
+
     public Value<?> read(YdbTypes types, InternalRow row) {
         if (dataType == null) {
-            return PrimitiveValue.newText(UUID.randomUUID().toString());
+            return autoPk.nextValue();
         }
 
         Object v = row.get(ordinal, dataType);
         return types.convertToYdb(v, type);
     }
+
+    /**
+     * Estimates the serialized size of the column value from the native Spark representation, without building
+     * of the YDB value.
+     *
+     * @param row Spark row
+     * @return approximate size of the value in bytes
+     */
+    public int estimateSize(InternalRow row) {
+        if (dataType == null) {
+            return autoPk.estimateSize() + VALUE_OVERHEAD;
+        }
+        if (row.isNullAt(ordinal)) {
+            return VALUE_OVERHEAD;
+        }
+        if (dataType instanceof StringType) {
+            return row.getUTF8String(ordinal).numBytes() + VALUE_OVERHEAD;
+        }
+        if (dataType instanceof BinaryType) {
+            return row.getBinary(ordinal).length + VALUE_OVERHEAD;
+        }
+        return dataType.defaultSize() + VALUE_OVERHEAD;
+    }
 }
@@ -0,0 +1,333 @@
+package tech.ydb.spark.connector.write;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import com.google.protobuf.NullValue;
+import com.google.protobuf.UnsafeByteOperations;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.types.BinaryType;
+import org.apache.spark.sql.types.BooleanType;
+import org.apache.spark.sql.types.ByteType;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DateType;
+import org.apache.spark.sql.types.DoubleType;
+import org.apache.spark.sql.types.FloatType;
+import org.apache.spark.sql.types.IntegerType;
+import org.apache.spark.sql.types.LongType;
+import org.apache.spark.sql.types.ShortType;
+import org.apache.spark.sql.types.StringType;
+import org.apache.spark.sql.types.TimestampType;
+
+import tech.ydb.proto.ValueProtos;
+import tech.ydb.spark.connector.YdbTypes;
+import tech.ydb.table.values.DecimalType;
+import tech.ydb.table.values.ListType;
+import tech.ydb.table.values.PrimitiveType;
+import tech.ydb.table.values.StructType;
+import tech.ydb.table.values.Type;
+
+/**
+ * Encodes Spark rows straight into the protobuf list of structs, without intermediate {@code Value<?>} objects.
+ * Conversions without the direct encoding fall back to {@link ColumnEntry#read}.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+final class ProtobufRowEncoder {
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+
+    // YDB value ranges, the values out of range are passed to the fallback conversion
+    private static final int MAX_DATE = 49673; // 2106-01-01, exclusive
+    private static final long MAX_DATETIME = 4291747200L; // 2106-01-01T00:00:00Z, exclusive
+    private static final long MAX_TIMESTAMP = MAX_DATETIME * MICROS_PER_SECOND; // exclusive
+    private static final int MIN_DATE32 = -53375809;
+    private static final int MAX_DATE32 = 53375807;
+    private static final long MIN_DATETIME64 = -4611669897600L;
+    private static final long MAX_DATETIME64 = 4611669811199L;
+    private static final long MIN_TIMESTAMP64 = -4611669897600000000L;
+    private static final long MAX_TIMESTAMP64 = 4611669811199999999L;
+
+    private final YdbTypes types;
+    private final ValueProtos.Type listType;
+    private final CellWriter[] writers;
+    // builders of the detached batches are returned here after the serialization
+    private final Queue<ValueProtos.Value.Builder> spare = new ConcurrentLinkedQueue<>();
+
+    private ValueProtos.Value.Builder list = ValueProtos.Value.newBuilder();
+    private int rowsCount = 0;
+
+    ProtobufRowEncoder(YdbTypes types, StructType structType, ColumnEntry[] columns) {
+        this.types = types;
+        this.listType = ListType.of(structType).toPb();
+        this.writers = new CellWriter[columns.length];
+        for (int idx = 0; idx < columns.length; idx++) {
+            writers[idx] = compile(columns[idx]);
+        }
+    }
+
+    public int rowsCount() {
+        return rowsCount;
+    }
+
+    public void appendRow(InternalRow record) {
+        ValueProtos.Value.Builder row = list.addItemsBuilder();
+        for (CellWriter writer : writers) {
+            writer.write(record, row);
+        }
+        rowsCount++;
+    }
+
+    public ValueProtos.TypedValue buildBatch() {
+        ValueProtos.TypedValue tv = build(list);
+        // builder is reused by the next batch
+        list.clear();
+        rowsCount = 0;
+        return tv;
+    }
+
+    /**
+     * Detaches the buffered rows and switches the encoder to another builder. The returned supplier builds the
+     * batch and may be called from any thread.
+     *
+     * @return supplier of the batch with the detached rows
+     */
+    public Supplier<ValueProtos.TypedValue> detachBatch() {
+        ValueProtos.Value.Builder detached = list;
+        ValueProtos.Value.Builder next = spare.poll();
+        list = next != null ? next : ValueProtos.Value.newBuilder();
+        rowsCount = 0;
+
+        return () -> {
+            ValueProtos.TypedValue tv = build(detached);
+            detached.clear();
+            spare.offer(detached);
+            return tv;
+        };
+    }
+
+    private ValueProtos.TypedValue build(ValueProtos.Value.Builder builder) {
+        return ValueProtos.TypedValue.newBuilder()
+                .setType(listType)
+                .setValue(builder.build())
+                .build();
+    }
+
+    private CellWriter compile(ColumnEntry column) {
+        CellWriter fallback = (record, row) -> row.addItems(column.read(types, record).toPb());
+        if (column.getDataType() == null) {
+            AutoPkGenerator autoPk = column.getAutoPk();
+            switch (autoPk.getType()) {
+                case Text:
+                    return (record, row) -> row.addItemsBuilder().setTextValue(autoPk.nextText());
+                case Uint64:
+                    return (record, row) -> row.addItemsBuilder().setUint64Value(autoPk.nextUint64());
+                default:
+                    return fallback;
+            }
+        }
+
+        int ordinal = column.getOrdinal();
+        boolean optional = column.getType().getKind() == Type.Kind.OPTIONAL;
+        Type type = optional ? column.getType().unwrapOptional() : column.getType();
+        CellWriter writer = compileValue(column.getDataType(), type, ordinal, fallback);
+        if (writer == null) {
+            return fallback;
+        }
+
+        return (record, row) -> {
+            if (!record.isNullAt(ordinal)) {
+                writer.write(record, row);
+            } else if (optional) {
+                row.addItemsBuilder().setNullFlagValue(NullValue.NULL_VALUE);
+            } else {
+                fallback.write(record, row); // reports the error
+            }
+        };
+    }
+
+    private static CellWriter compileValue(DataType dataType, Type type, int ordinal, CellWriter fallback) {
+        if (type.getKind() == Type.Kind.DECIMAL) {
+            return compileDecimal(dataType, (DecimalType) type, ordinal);
+        }
+        if (type.getKind() != Type.Kind.PRIMITIVE) {
+            return null;
+        }
+
+        ToLongFunction<InternalRow> integral = integralGetter(dataType, ordinal);
+        switch ((PrimitiveType) type) {
+            case Bool:
+                if (dataType instanceof BooleanType) {
+                    return (record, row) -> row.addItemsBuilder().setBoolValue(record.getBoolean(ordinal));
+                }
+                return null;
+            case Int8:
+                if (integral != null) {
+                    return (record, row) -> row.addItemsBuilder().setInt32Value((byte) integral.applyAsLong(record));
+                }
+                return null;
+            case Int16:
+                if (integral != null) {
+                    return (record, row) -> row.addItemsBuilder().setInt32Value((short) integral.applyAsLong(record));
+                }
+                return null;
+            case Int32:
+                if (integral != null) {
+                    return (record, row) -> row.addItemsBuilder().setInt32Value((int) integral.applyAsLong(record));
+                }
+                return null;
+            case Int64:
+                if (integral != null) {
+                    return (record, row) -> row.addItemsBuilder().setInt64Value(integral.applyAsLong(record));
+                }
+                return null;
+            case Float:
+                if (dataType instanceof FloatType) {
+                    return (record, row) -> row.addItemsBuilder().setFloatValue(record.getFloat(ordinal));
+                }
+                if (dataType instanceof DoubleType) {
+                    return (record, row) -> row.addItemsBuilder().setFloatValue((float) record.getDouble(ordinal));
+                }
+                return null;
+            case Double:
+                if (dataType instanceof DoubleType) {
+                    return (record, row) -> row.addItemsBuilder().setDoubleValue(record.getDouble(ordinal));
+                }
+                if (dataType instanceof FloatType) {
+                    return (record, row) -> row.addItemsBuilder().setDoubleValue(record.getFloat(ordinal));
+                }
+                return null;
+            case Text:
+            case Json:
+                if (dataType instanceof StringType) {
+                    return (record, row) -> row.addItemsBuilder().setTextValueBytes(
+                            UnsafeByteOperations.unsafeWrap(record.getUTF8String(ordinal).getBytes()));
+                }
+                return null;
+            case Bytes:
+                if (dataType instanceof BinaryType) {
+                    return (record, row) -> row.addItemsBuilder().setBytesValue(
+                            UnsafeByteOperations.unsafeWrap(record.getBinary(ordinal)));
+                }
+                if (dataType instanceof StringType) {
+                    return (record, row) -> row.addItemsBuilder().setBytesValue(
+                            UnsafeByteOperations.unsafeWrap(record.getUTF8String(ordinal).getBytes()));
+                }
+                return null;
+            case Date:
+                if (dataType instanceof DateType) {
+                    return (record, row) -> {
+                        int days = record.getInt(ordinal);
+                        if (days < 0 || days >= MAX_DATE) {
+                            fallback.write(record, row); // reports the error
+                        } else {
+                            row.addItemsBuilder().setUint32Value(days);
+                        }
+                    };
+                }
+                return null;
+            case Date32:
+                if (dataType instanceof DateType) {
+                    return (record, row) -> {
+                        int days = record.getInt(ordinal);
+                        if (days < MIN_DATE32 || days > MAX_DATE32) {
+                            fallback.write(record, row); // reports the error
+                        } else {
+                            row.addItemsBuilder().setInt32Value(days);
+                        }
+                    };
+                }
+                return null;
+            case Datetime:
+                if (dataType instanceof TimestampType) {
+                    return (record, row) -> {
+                        long seconds = Math.floorDiv(record.getLong(ordinal), MICROS_PER_SECOND);
+                        if (seconds < 0 || seconds >= MAX_DATETIME) {
+                            fallback.write(record, row); // reports the error
+                        } else {
+                            row.addItemsBuilder().setUint32Value((int) seconds);
+                        }
+                    };
+                }
+                return null;
+            case Datetime64:
+                if (dataType instanceof TimestampType) {
+                    return (record, row) -> {
+                        long seconds = Math.floorDiv(record.getLong(ordinal), MICROS_PER_SECOND);
+                        if (seconds < MIN_DATETIME64 || seconds > MAX_DATETIME64) {
+                            fallback.write(record, row); // reports the error
+                        } else {
+                            row.addItemsBuilder().setInt64Value(seconds);
+                        }
+                    };
+                }
+                return null;
+            case Timestamp:
+                if (dataType instanceof TimestampType) {
+                    return (record, row) -> {
+                        long micros = record.getLong(ordinal);
+                        if (micros < 0 || micros >= MAX_TIMESTAMP) {
+                            fallback.write(record, row); // reports the error
+                        } else {
+                            row.addItemsBuilder().setUint64Value(micros);
+                        }
+                    };
+                }
+                return null;
+            case Timestamp64:
+                if (dataType instanceof TimestampType) {
+                    return (record, row) -> {
+                        long micros = record.getLong(ordinal);
+                        if (micros < MIN_TIMESTAMP64 || micros > MAX_TIMESTAMP64) {
+                            fallback.write(record, row); // reports the error
+                        } else {
+                            row.addItemsBuilder().setInt64Value(micros);
+                        }
+                    };
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private static CellWriter compileDecimal(DataType dataType, DecimalType type, int ordinal) {
+        if (!(dataType instanceof org.apache.spark.sql.types.DecimalType)) {
+            return null;
+        }
+
+        org.apache.spark.sql.types.DecimalType sparkType = (org.apache.spark.sql.types.DecimalType) dataType;
+        int precision = sparkType.precision();
+        int scale = sparkType.scale();
+        // only compact decimals with the same scale can be written as is
+        if (precision > 18 || scale != type.getScale() || precision > type.getPrecision()) {
+            return null;
+        }
+
+        return (record, row) -> {
+            long unscaled = record.getDecimal(ordinal, precision, scale).toUnscaledLong();
+            row.addItemsBuilder().setLow128(unscaled).setHigh128(unscaled < 0 ? -1 : 0);
+        };
+    }
+
+    private static ToLongFunction<InternalRow> integralGetter(DataType dataType, int ordinal) {
+        if (dataType instanceof ByteType) {
+            return record -> record.getByte(ordinal);
+        }
+        if (dataType instanceof ShortType) {
+            return record -> record.getShort(ordinal);
+        }
+        if (dataType instanceof IntegerType) {
+            return record -> record.getInt(ordinal);
+        }
+        if (dataType instanceof LongType) {
+            return record -> record.getLong(ordinal);
+        }
+        return null;
+    }
+
+    private interface CellWriter {
+        void write(InternalRow record, ValueProtos.Value.Builder row);
+    }
+}
@@ -1,21 +1,36 @@
 package tech.ydb.spark.connector.write;
 
 import java.io.IOException;
-import java.util.concurrent.Semaphore;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
 
 import org.apache.spark.TaskContext;
 import org.apache.spark.executor.OutputMetrics;
 import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.connector.metric.CustomTaskMetric;
 import org.apache.spark.sql.connector.write.DataWriter;
 import org.apache.spark.sql.connector.write.WriterCommitMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import tech.ydb.core.Issue;
 import tech.ydb.core.Status;
 import tech.ydb.core.StatusCode;
-import tech.ydb.spark.connector.impl.SparkSessionRetryContext;
+import tech.ydb.spark.connector.impl.GovernorWaitMetric;
+import tech.ydb.spark.connector.impl.YdbGovernor;
 
 /**
  * Common batching/retry/back-pressure scaffolding shared by all YDB data writers.
@@ -24,21 +39,38 @@ import tech.ydb.spark.connector.impl.SparkSessionRetryContext;
  */
 public class YdbDataWriter implements DataWriter<InternalRow> {
     private static final Logger logger = LoggerFactory.getLogger(YdbDataWriter.class);
+    private static final AtomicInteger ENCODER_THREADS = new AtomicInteger(0);
+    // the encoder tasks never wait for the limits, so the pool is bounded by the CPU count
+    private static final ExecutorService ENCODER = newEncoderPool(Runtime.getRuntime().availableProcessors());
+    // Issue messages of the requests rejected because of their size
+    private static final String[] SIZE_ISSUE_MARKERS = {"too large", "too big", "exceed", "size limit", "larger than"};
+    private static final ScheduledExecutorService HEDGE_TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ydb-hedge-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-    private final SparkSessionRetryContext retryCtx;
     private final YdbWriter writer;
-    private final int maxConcurrency;
-    private final Semaphore semaphore;
+    private final YdbWriteLimiter limiter;
+    private final YdbGovernor governor;
+    private final boolean async;
+    private final boolean split;
+    private final boolean hedge;
     private final Metrics metrics = new Metrics();
 
     private volatile Status lastError = null;
+    // Batches of one writer are serialized one by one, while the task thread fills the next buffer
+    private CompletableFuture<Void> encoding = CompletableFuture.completedFuture(null);
 
-    YdbDataWriter(SparkSessionRetryContext retryCtx, YdbWriter writer, int concurrency) {
-        this.retryCtx = retryCtx;
+    YdbDataWriter(YdbWriter writer, YdbWriteLimiter limiter, YdbGovernor governor, boolean async, boolean split,
+            boolean hedge) {
         this.writer = writer;
-        this.maxConcurrency = concurrency;
-        this.semaphore = new Semaphore(maxConcurrency);
-        logger.debug("created YDB data writer {}", writer);
+        this.limiter = limiter;
+        this.governor = governor;
+        this.async = async;
+        this.split = split;
+        this.hedge = hedge;
+        logger.debug("created YDB data writer {} with {}, async {}, hedge {}", writer, limiter, async, hedge);
     }
 
     @Override
@@ -50,17 +82,20 @@ public class YdbDataWriter implements DataWriter<InternalRow> {
         }
 
         writer.appendRow(record);
-        if (writer.needToFlush()) {
+        // the adaptive size limits every batch, the buffer limits are checked by the writer itself
+        if (writer.needToFlush() || writer.nextBatchRows() >= limiter.getBatchRows()) {
             flushBatch();
         }
     }
 
     @Override
     public WriterCommitMessage commit() throws IOException {
-        flushBatch();
+        while (flushBatch()) {
+            // writer may keep several batches
+        }
 
-        semaphore.acquireUninterruptibly(maxConcurrency);
-        semaphore.release(maxConcurrency);
+        encoding.join();
+        limiter.awaitAll();
 
         Status localError = lastError;
         if (localError != null) {
@@ -68,70 +103,317 @@ public class YdbDataWriter implements DataWriter<InternalRow> {
             localError.expectSuccess("cannot commit write");
         }
 
-        metrics.complete();
+        metrics.complete(limiter);
+        if (limiter.isAdaptive()) {
+            logger.info("adaptive writer {} finished with concurrency {} and batch size {} rows",
+                    writer, limiter.getConcurrency(), limiter.getBatchRows());
+        }
         // All rows have been written successfully
         return new YdbWriteCommit();
     }
 
+    @Override
+    public CustomTaskMetric[] currentMetricsValues() {
+        return new CustomTaskMetric[] {GovernorWaitMetric.taskValue(metrics.governorWait.sum())};
+    }
+
     @Override
     public void abort() throws IOException {
-        semaphore.acquireUninterruptibly(maxConcurrency);
-        semaphore.release(maxConcurrency);
+        encoding.join();
+        limiter.awaitAll();
     }
 
     @Override
     public void close() throws IOException {
+        // the detached batches may use the writer resources until they are serialized
+        encoding.join();
         writer.close();
     }
 
-    private void flushBatch() {
-        YdbWriter.Batch batch = writer.buildNextBatch();
-        if (batch == null) {
-            return;
+    private boolean flushBatch() {
+        YdbWriter.PendingBatch pending = writer.detachNextBatch();
+        if (pending == null) {
+            return false;
+        }
+
+        int reserved = pending.estimatedSize();
+        limiter.acquireBytes(reserved);
+        // task metrics are available only in the task thread
+        TaskContext task = TaskContext.get();
+        OutputMetrics output = task != null ? task.taskMetrics().outputMetrics() : null;
+
+        // all waits are done by the task thread, the encoder threads only serialize and send the batches
+        limiter.acquire();
+        // the executor-wide limits are shared with other tasks
+        metrics.governorWait.add(governor.acquireWrite(reserved));
+
+        if (!async) {
+            sendBatch(pending, reserved, output);
+            return true;
         }
 
-        semaphore.acquireUninterruptibly();
+        encoding = encoding.thenRunAsync(() -> {
+            try {
+                sendBatch(pending, reserved, output);
+            } catch (RuntimeException ex) {
+                logger.error("cannot serialize batch", ex);
+                lastError = Status.of(StatusCode.CLIENT_INTERNAL_ERROR, ex);
+            }
+        }, ENCODER);
+        return true;
+    }
+
+    private void sendBatch(YdbWriter.PendingBatch pending, int reserved, OutputMetrics output) {
         if (lastError != null) {
-            semaphore.release();
+            releaseSlot(reserved);
             return;
         }
 
+        YdbWriter.Batch batch;
+        try {
+            batch = pending.serialize();
+        } catch (RuntimeException ex) {
+            releaseSlot(reserved);
+            throw ex;
+        }
+
         int rows = batch.rowsCount();
         int batchBytesSize = batch.bytesSize();
-        OutputMetrics output = TaskContext.get().taskMetrics().outputMetrics();
-
         long started = System.currentTimeMillis();
-        retryCtx.supplyStatus(batch).whenComplete((st, th) -> {
+        CompletableFuture<Status> written = split
+                ? writeSplitting(this::writeHedged, batch, limiter::onSplit)
+                : writeHedged(batch);
+        written.whenComplete((st, th) -> {
             if (st != null && st.isSuccess()) {
-                metrics.measure(output, started, rows, batchBytesSize);
+                long latency = metrics.measure(output, started, rows, batchBytesSize);
+                limiter.onSuccess(latency);
             } else {
                 lastError = st != null ? st : Status.of(StatusCode.CLIENT_INTERNAL_ERROR, th);
             }
+            releaseSlot(reserved);
+        });
+    }
+
+    private void releaseSlot(int reserved) {
+        governor.releaseWrite();
+        limiter.release();
+        limiter.releaseBytes(reserved);
+    }
+
+    private static ExecutorService newEncoderPool(int threads) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "ydb-batch-encoder-" + ENCODER_THREADS.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Writes the batch and splits it into halves if it is rejected as too large or too heavy for the server. Halves
+     * are written one by one and the splitting stops on the first failed single row. The failed batch may have been
+     * partially applied, so the splitting is allowed only for the idempotent methods.
+     */
+    static CompletableFuture<Status> writeSplitting(Function<YdbWriter.Batch, CompletableFuture<Status>> write,
+            YdbWriter.Batch batch, IntConsumer onSplit) {
+        return write.apply(batch).thenCompose(status -> {
+            if (status.isSuccess() || !isSplittable(status)) {
+                return CompletableFuture.completedFuture(status);
+            }
+            YdbWriter.Batch[] halves = batch.split();
+            if (halves == null) {
+                return CompletableFuture.completedFuture(status);
+            }
+
+            logger.warn("batch with {} rows failed with {}, retrying it as two halves", batch.rowsCount(), status);
+            onSplit.accept(halves[0].rowsCount());
+            return writeSplitting(write, halves[0], onSplit).thenCompose(first -> first.isSuccess()
+                    ? writeSplitting(write, halves[1], onSplit)
+                    : CompletableFuture.completedFuture(first));
+        });
+    }
 
-            semaphore.release();
+    /**
+     * Writes the batch and sends the same batch once more via another session if the first request takes longer
+     * than the usual p95 latency. The hedged request takes its own limiter slot and governor permit and is skipped
+     * if they are not available at once. The first successful response wins, the other request is cancelled.
+     */
+    private CompletableFuture<Status> writeHedged(YdbWriter.Batch batch) {
+        CompletableFuture<Status> primary = batch.write(this::checkOverload);
+        long delay = hedge ? metrics.hedgeDelay() : -1;
+        if (delay < 0) {
+            return primary;
+        }
+
+        HedgedWrite hedged = new HedgedWrite(primary);
+        ScheduledFuture<?> timer = HEDGE_TIMER.schedule(() -> hedged.sendSecond(batch, delay), delay,
+                TimeUnit.MILLISECONDS);
+        primary.whenComplete((st, th) -> {
+            timer.cancel(false);
+            hedged.onComplete(primary, st, th);
         });
+        return hedged.result;
+    }
+
+    private class HedgedWrite {
+        private final CompletableFuture<Status> result = new CompletableFuture<>();
+        private final CompletableFuture<Status> primary;
+        // guarded by this
+        private CompletableFuture<Status> second = null;
+
+        HedgedWrite(CompletableFuture<Status> primary) {
+            this.primary = primary;
+        }
+
+        void sendSecond(YdbWriter.Batch batch, long delay) {
+            CompletableFuture<Status> sent;
+            synchronized (this) {
+                // the primary request completes under the same lock, so it cannot miss the hedged one
+                if (primary.isDone()) {
+                    return;
+                }
+                if (!limiter.tryAcquire()) {
+                    logger.trace("hedged request is skipped, no free slots");
+                    return;
+                }
+                if (!governor.tryAcquireWrite(batch.bytesSize())) {
+                    limiter.release();
+                    logger.trace("hedged request is skipped by the governor");
+                    return;
+                }
+
+                logger.debug("batch with {} rows is not written in {} ms, sending the hedged request",
+                        batch.rowsCount(), delay);
+                metrics.hedged.increment();
+                try {
+                    sent = batch.write(YdbDataWriter.this::checkOverload);
+                } catch (RuntimeException ex) {
+                    governor.releaseWrite();
+                    limiter.release();
+                    throw ex;
+                }
+                second = sent;
+            }
+
+            sent.whenComplete((st, th) -> {
+                governor.releaseWrite();
+                limiter.release();
+                onComplete(sent, st, th);
+            });
+        }
+
+        synchronized void onComplete(CompletableFuture<Status> source, Status st, Throwable th) {
+            Status status = st != null ? st : Status.of(StatusCode.CLIENT_INTERNAL_ERROR, th);
+            CompletableFuture<Status> other = source == primary ? second : primary;
+            if (status.isSuccess()) {
+                if (result.complete(status) && other != null) {
+                    other.cancel(false);
+                }
+                return;
+            }
+            // the error is reported only if the other request cannot succeed anymore
+            if (other == null || other.isDone()) {
+                result.complete(status);
+            }
+        }
+    }
+
+    static boolean isSplittable(Status status) {
+        switch (status.getCode()) {
+            case OVERLOADED:
+            case TIMEOUT:
+            case CLIENT_RESOURCE_EXHAUSTED: // gRPC message is too large
+            case CLIENT_DEADLINE_EXCEEDED:
+            case CLIENT_DEADLINE_EXPIRED:
+                return true;
+            case BAD_REQUEST:
+                // schema, type and NOT NULL errors are reported with the same code and cannot be fixed by splitting
+                return isSizeIssue(status.getIssues());
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isSizeIssue(Issue[] issues) {
+        if (issues == null) {
+            return false;
+        }
+        for (Issue issue : issues) {
+            if (issue == null) {
+                continue;
+            }
+            String msg = issue.getMessage() != null ? issue.getMessage().toLowerCase(Locale.ROOT) : "";
+            for (String marker : SIZE_ISSUE_MARKERS) {
+                if (msg.contains(marker)) {
+                    return true;
+                }
+            }
+            if (isSizeIssue(issue.getIssues())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Status checkOverload(Status status) {
+        // every attempt is checked, the retry context hides the intermediate errors
+        if (status.getCode() == StatusCode.OVERLOADED || status.getCode() == StatusCode.TIMEOUT) {
+            limiter.onOverload();
+        }
+        return status;
     }
 
     private static class Metrics {
+        // the hedging delay is calculated over the last batches only
+        private static final int LATENCY_WINDOW = 64;
+        private static final int MIN_HEDGE_SAMPLES = 16;
+        private static final long MIN_HEDGE_DELAY_MS = 50;
+
         private final AtomicLong count = new AtomicLong(0);
         private final LongAdder latency = new LongAdder();
         private final LongAdder rowsCount = new LongAdder();
         private final LongAdder byteSize = new LongAdder();
+        private final LongAdder governorWait = new LongAdder();
+        private final LongAdder hedged = new LongAdder();
+        private final long[] lastLatencies = new long[LATENCY_WINDOW];
 
-        public void measure(OutputMetrics output, long startedAt, long batchRows, long batchSize) {
-            count.incrementAndGet();
-            latency.add(System.currentTimeMillis() - startedAt);
+        public long measure(OutputMetrics output, long startedAt, long batchRows, long batchSize) {
+            long ms = System.currentTimeMillis() - startedAt;
+            long idx = count.getAndIncrement();
+            synchronized (lastLatencies) {
+                lastLatencies[(int) (idx % LATENCY_WINDOW)] = ms;
+            }
+            latency.add(ms);
             byteSize.add(batchSize);
             rowsCount.add(batchRows);
 
-            output.setBytesWritten(byteSize.sum());
-            output.setRecordsWritten(rowsCount.sum());
+            if (output != null) {
+                output.setBytesWritten(byteSize.sum());
+                output.setRecordsWritten(rowsCount.sum());
+            }
+            return ms;
+        }
+
+        public long hedgeDelay() {
+            int samples = (int) Math.min(count.get(), LATENCY_WINDOW);
+            if (samples < MIN_HEDGE_SAMPLES) {
+                return -1;
+            }
+            long[] sorted;
+            synchronized (lastLatencies) {
+                sorted = Arrays.copyOf(lastLatencies, samples);
+            }
+            Arrays.sort(sorted);
+            return Math.max(MIN_HEDGE_DELAY_MS, sorted[(samples * 95) / 100]);
         }
 
-        public void complete() {
+        public void complete(YdbWriteLimiter limiter) {
             long avg = count.get() > 0 ? latency.sum() / count.get() : 0;
-            logger.debug("written {} batches with {} rows and {} total byte size, avg latency {} ms",
-                    count.get(), rowsCount.sum(), byteSize.sum(), avg);
+            logger.debug("written {} batches with {} rows and {} total byte size, avg latency {} ms, "
+                    + "governor wait {} ms, {} hedged requests, {}", count.get(), rowsCount.sum(), byteSize.sum(),
+                    avg, governorWait.sum(), hedged.sum(), limiter);
         }
     }
 }
@@ -1,9 +1,13 @@
 package tech.ydb.spark.connector.write;
 
+import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.spark.sql.catalyst.InternalRow;
 import org.apache.spark.sql.connector.write.DataWriter;
@@ -17,11 +21,16 @@ import scala.collection.Iterator;
 
 import tech.ydb.spark.connector.YdbTable;
 import tech.ydb.spark.connector.YdbTypes;
+import tech.ydb.spark.connector.common.AutoPkMode;
 import tech.ydb.spark.connector.common.FieldInfo;
 import tech.ydb.spark.connector.common.IngestMethod;
+import tech.ydb.spark.connector.common.KeysRange;
 import tech.ydb.spark.connector.common.OperationOption;
 import tech.ydb.spark.connector.impl.SparkSessionRetryContext;
+import tech.ydb.spark.connector.impl.YdbExecutor;
+import tech.ydb.table.Session;
 import tech.ydb.table.values.PrimitiveType;
+import tech.ydb.table.values.Type;
 
 /**
  *
@@ -36,6 +45,15 @@ public class YdbDataWriterFactory implements DataWriterFactory {
     private static final int MAX_BYTES_SIZE = 10 * 1024 * 1024;
     private static final int CONCURRENCY = 2;
     private static final int WRITE_RETRY_COUNT = 50;
+    // Limit of rows kept in all per-shard buffers, in batches
+    private static final int MAX_SHARD_BATCHES = 4;
+    private static final int MAX_CONCURRENCY = 16;
+    private static final int TARGET_LATENCY_MS = 1000;
+    // In the adaptive mode the batch can grow up to this count of configured batch sizes
+    private static final int MAX_ADAPTIVE_ROWS_FACTOR = 4;
+    private static final int LINGER_MS = 100;
+    // Partition id of the auto key generator of the shared writer, which belongs to no task
+    private static final int SHARED_PARTITION_ID = -1;
 
     private final YdbTable table;
     private final YdbTypes types;
@@ -44,10 +62,25 @@ public class YdbDataWriterFactory implements DataWriterFactory {
     private final IngestMethod method;
     private final boolean useApacheArrow;
     private final String autoPkName;
+    private final AutoPkMode autoPkMode;
+    // Common prefix of the sequential auto keys of one write job
+    private final long autoPkJobPrefix;
     private final int batchRowsCount;
     private final int batchBytesLimit;
     private final int batchConcurrency;
     private final int retryCount;
+    private final boolean writeSplit;
+    private final boolean writeHedge;
+    private final boolean writeQueryService;
+    private final boolean writeDedup;
+    private final boolean batchByShard;
+    private final boolean batchAdaptive;
+    private final int batchMaxConcurrency;
+    private final int batchTargetLatency;
+    private final boolean batchAsync;
+    private final int batchMaxInflightBytes;
+    private final boolean batchShared;
+    private final int batchLinger;
 
     public YdbDataWriterFactory(YdbTable table, StructType schema, CaseInsensitiveStringMap options) {
         this.table = table;
@@ -58,50 +91,206 @@ public class YdbDataWriterFactory implements DataWriterFactory {
         this.batchBytesLimit = OperationOption.BATCH_LIMIT.readInt(options, MAX_BYTES_SIZE);
         this.batchConcurrency = OperationOption.BATCH_CONCURRENCY.readInt(options, CONCURRENCY);
         this.autoPkName = OperationOption.TABLE_AUTOPK_NAME.read(options, OperationOption.DEFAULT_AUTO_PK);
+        this.autoPkMode = OperationOption.TABLE_AUTOPK_MODE.readEnum(options, AutoPkMode.RANDOM);
+        this.autoPkJobPrefix = new SecureRandom().nextLong();
         this.retryCount = OperationOption.WRITE_RETRY_COUNT.readInt(options, WRITE_RETRY_COUNT);
+        this.writeSplit = OperationOption.WRITE_SPLIT.readBoolean(options, true) && isIdempotent(method);
+        this.writeHedge = OperationOption.WRITE_HEDGE.readBoolean(options, false);
+        this.writeQueryService = OperationOption.WRITE_QUERY_SERVICE.readBoolean(options, false);
+        this.writeDedup = OperationOption.WRITE_DEDUP.readBoolean(options, false) && isDedupSafe(method);
+        this.batchByShard = OperationOption.BATCH_BY_SHARD.readBoolean(options, false);
+        this.batchAdaptive = OperationOption.BATCH_ADAPTIVE.readBoolean(options, false);
+        this.batchMaxConcurrency = OperationOption.BATCH_MAX_CONCURRENCY.readInt(options, MAX_CONCURRENCY);
+        this.batchTargetLatency = OperationOption.BATCH_TARGET_LATENCY.readInt(options, TARGET_LATENCY_MS);
+        this.batchAsync = OperationOption.BATCH_ASYNC.readBoolean(options, false);
+        this.batchMaxInflightBytes = OperationOption.BATCH_MAX_INFLIGHT_BYTES.readInt(options, defaultInflightBytes());
+        this.batchShared = OperationOption.BATCH_SHARED.readBoolean(options, false);
+        this.batchLinger = OperationOption.BATCH_LINGER.readInt(options, LINGER_MS);
+
+        if (batchShared && autoPkMode == AutoPkMode.SEQUENTIAL) {
+            // keys of the shared batcher don't depend on the task, so they can repeat after the task retry
+            throw new IllegalArgumentException("Auto primary key mode " + autoPkMode + " is not supported with "
+                    + OperationOption.BATCH_SHARED);
+        }
         this.schema = schema;
 
         if (useApacheArrow && method != IngestMethod.BULK_UPSERT) {
             logger.warn("Arrow ingestion was disabled because it is only supported with method BULK_UPSERT");
         }
+        if (OperationOption.WRITE_DEDUP.readBoolean(options, false) && !writeDedup) {
+            logger.warn("Deduplication was disabled because method {} is not last-write-wins", method);
+        }
+        if (writeHedge && method == IngestMethod.INSERT) {
+            logger.warn("Hedged requests were disabled because method INSERT is not idempotent");
+        }
+        if (OperationOption.WRITE_SPLIT.readBoolean(options, false) && !writeSplit) {
+            logger.warn("Batch splitting was disabled because method INSERT is not idempotent");
+        }
+        if (batchByShard && table.getType() == YdbTable.Type.COLUMN) {
+            logger.warn("Per-shard batching was disabled because it is not supported for column tables");
+        }
+    }
+
+    boolean isWriteSplit() {
+        return writeSplit;
     }
 
     @Override
     public DataWriter<InternalRow> createWriter(int partitionId, long taskId) {
         logger.trace("New writer for table {}, partition {}, task {}", table.getTablePath(), partitionId, taskId);
 
-        boolean idempotent = method != IngestMethod.INSERT;
-        SparkSessionRetryContext retryCtx = table.getCtx().getExecutor().createRetryCtx(retryCount, idempotent);
-        YdbWriter writer = buildYdbWriter();
-        return new YdbDataWriter(retryCtx, writer, batchConcurrency);
+        YdbExecutor executor = table.getCtx().getExecutor();
+        if (batchShared) {
+            return createSharedWriter(executor);
+        }
+
+        YdbWriter writer = buildYdbWriter(partitionId);
+        // duplicated requests are safe only for the idempotent methods
+        boolean hedge = writeHedge && isIdempotent(method);
+        return new YdbDataWriter(writer, buildLimiter(), executor.getGovernor(), batchAsync, writeSplit, hedge);
+    }
+
+    private DataWriter<InternalRow> createSharedWriter(YdbExecutor executor) {
+        // tasks of different jobs share the batcher only if they encode and send rows in the same way
+        List<Object> key = Arrays.asList(executor, table.getTablePath(), method, useApacheArrow, writeQueryService,
+                writeDedup, schema, types, autoPkName, autoPkMode, batchRowsCount, batchBytesLimit,
+                batchConcurrency, batchMaxInflightBytes, writeSplit);
+        YdbSharedBatcher batcher = YdbSharedBatcher.acquire(key, () -> new YdbSharedBatcher(key,
+                executor.getGovernor(), YdbWriteLimiter.fixed(batchConcurrency, batchMaxInflightBytes),
+                buildSharedWriter(), writeSplit));
+        return new YdbSharedDataWriter(batcher, batchLinger);
+    }
+
+    private static boolean isDedupSafe(IngestMethod method) {
+        switch (method) {
+            case UPSERT:
+            case BULK_UPSERT:
+            case REPLACE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isIdempotent(IngestMethod method) {
+        return method != IngestMethod.INSERT;
+    }
+
+    private YdbWriteLimiter buildLimiter() {
+        if (!batchAdaptive) {
+            return YdbWriteLimiter.fixed(batchConcurrency, batchMaxInflightBytes);
+        }
+        return YdbWriteLimiter.adaptive(batchConcurrency, batchMaxConcurrency, batchRowsCount, maxWriterRows(),
+                batchTargetLatency, batchMaxInflightBytes);
     }
 
-    private YdbWriter buildYdbWriter() {
-        List<ColumnEntry> columns = buildColumns();
+    private int defaultInflightBytes() {
+        // all parallel requests, one batch in the serialization and one more as a reserve
+        int concurrency = batchAdaptive ? Math.max(batchConcurrency, batchMaxConcurrency) : batchConcurrency;
+        return (int) Math.min(Integer.MAX_VALUE, (long) batchBytesLimit * (concurrency + 2));
+    }
+
+    private int maxWriterRows() {
+        if (!batchAdaptive) {
+            return batchRowsCount;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, (long) batchRowsCount * MAX_ADAPTIVE_ROWS_FACTOR);
+    }
+
+    private YdbWriter buildSharedWriter() {
+        // the shared writer serves many tasks, so its auto keys must not depend on the task which has created it;
+        // only the SEQUENTIAL keys use the partition id, and they are rejected with the shared batches
+        List<ColumnEntry> columns = buildColumns(SHARED_PARTITION_ID);
+        return withDedup(columns, buildYdbWriter(columns));
+    }
+
+    private YdbWriter withDedup(List<ColumnEntry> columns, YdbWriter writer) {
+        if (!writeDedup) {
+            return writer;
+        }
+        // the generated keys are always unique
+        List<ColumnEntry> keys = findKeyColumns(columns);
+        return keys != null ? new YdbWriterDedup(keys, columns, maxWriterRows(), batchBytesLimit, writer) : writer;
+    }
+
+    private YdbWriter buildYdbWriter(int partitionId) {
+        List<ColumnEntry> columns = buildColumns(partitionId);
+        KeysRange[] partitions = table.getPartitions();
+
+        if (batchByShard && table.getType() == YdbTable.Type.ROW && partitions.length > 1) {
+            List<ColumnEntry> keys = findKeyColumns(columns);
+            if (keys != null) {
+                int maxBufferedRows = batchRowsCount * MAX_SHARD_BATCHES;
+                // every shard keeps its own dedup window, the flush of one shard does not cut the others
+                return new YdbWriterSharded(types, partitions, keys, maxBufferedRows,
+                        () -> withDedup(columns, buildYdbWriter(columns)));
+            }
+        }
+
+        return withDedup(columns, buildYdbWriter(columns));
+    }
+
+    private List<ColumnEntry> findKeyColumns(List<ColumnEntry> columns) {
+        Map<String, ColumnEntry> byName = new HashMap<>();
+        for (ColumnEntry column : columns) {
+            byName.put(column.getName(), column);
+        }
+
+        List<ColumnEntry> keys = new ArrayList<>();
+        for (FieldInfo key : table.getKeyColumns()) {
+            ColumnEntry column = byName.get(key.getName());
+            // auto-generated keys are not known before the row is written
+            if (column == null || column.getDataType() == null) {
+                logger.debug("cannot find key column {} in the written rows", key.getName());
+                return null;
+            }
+            keys.add(column);
+        }
+        return keys;
+    }
+
+    private YdbWriter buildYdbWriter(List<ColumnEntry> columns) {
         String tablePath = table.getTablePath();
 
         if (method == IngestMethod.BULK_UPSERT) {
             if (!table.isBulkUpsertAllowed()) {
                 logger.warn("cannot execute BulkUpsert to table {} with indexes, use UPSERT", tablePath);
-                String cmd = IngestMethod.UPSERT.name();
-                return new YdbWriterDataQuery(cmd, tablePath, types, batchRowsCount, batchBytesLimit, columns);
+                return buildQueryWriter(IngestMethod.UPSERT, columns);
             }
 
+            YdbExecutor executor = table.getCtx().getExecutor();
+            SparkSessionRetryContext<Session> retryCtx = executor.createRetryCtx(retryCount, true);
             if (useApacheArrow) {
-                return new YdbWriterArrow(tablePath, columns, batchRowsCount, batchBytesLimit);
+                return new YdbWriterArrow(retryCtx, tablePath, columns, maxWriterRows(), batchBytesLimit);
             }
-            return new YdbWriterBulkUpsert(tablePath, types, batchRowsCount, batchBytesLimit, columns);
+            return new YdbWriterBulkUpsert(retryCtx, tablePath, types, maxWriterRows(), batchBytesLimit, columns);
         }
 
-        return new YdbWriterDataQuery(method.name(), tablePath, types, batchRowsCount, batchBytesLimit, columns);
+        return buildQueryWriter(method, columns);
+    }
+
+    private YdbWriter buildQueryWriter(IngestMethod queryMethod, List<ColumnEntry> columns) {
+        YdbExecutor executor = table.getCtx().getExecutor();
+        boolean idempotent = queryMethod != IngestMethod.INSERT;
+        if (writeQueryService) {
+            return new YdbWriterQuery(executor.createQueryRetryCtx(retryCount, idempotent), queryMethod,
+                    table.getTablePath(), types, maxWriterRows(), batchBytesLimit, columns);
+        }
+        return new YdbWriterDataQuery(executor.createRetryCtx(retryCount, idempotent), queryMethod,
+                table.getTablePath(), types, maxWriterRows(), batchBytesLimit, columns);
     }
 
-    private List<ColumnEntry> buildColumns() {
+    List<ColumnEntry> buildColumns(int partitionId) {
         Map<String, FieldInfo> tableTypes = new HashMap<>();
         for (FieldInfo column : table.getAllColumns()) {
             tableTypes.put(column.getName(), column);
         }
 
+        Set<String> keyNames = new HashSet<>();
+        for (FieldInfo key : table.getKeyColumns()) {
+            keyNames.add(key.getName());
+        }
+
         List<ColumnEntry> result = new ArrayList<>();
         Iterator<StructField> it = schema.iterator();
         int ordinal = 0;
@@ -112,15 +301,34 @@ public class YdbDataWriterFactory implements DataWriterFactory {
             if (fi == null) {
                 throw new IllegalArgumentException("Cannot write column " + name + " to table " + table);
             }
-            result.add(new ColumnEntry(name, fi.getType(), sf.dataType(), ordinal++));
+            int idx = ordinal++;
+            // the rows are deleted by the key, other columns are not sent at all
+            if (method == IngestMethod.DELETE_ON && !keyNames.contains(name)) {
+                continue;
+            }
+            result.add(new ColumnEntry(name, fi.getType(), sf.dataType(), idx));
+            keyNames.remove(name);
+        }
+
+        if (method == IngestMethod.UPDATE_ON || method == IngestMethod.DELETE_ON) {
+            // existing rows can be found only by the full primary key
+            if (!keyNames.isEmpty()) {
+                throw new IllegalArgumentException("Method " + method + " requires the primary key columns "
+                        + keyNames + " of table " + table);
+            }
+            return result;
         }
 
         FieldInfo pk = tableTypes.get(autoPkName);
-        if (pk != null) {
-            if (pk.getSafeType() != PrimitiveType.Text) {
+        // the key is generated only if it is not written explicitly, like in the row-level operations
+        if (pk != null && result.stream().noneMatch(c -> autoPkName.equals(c.getName()))) {
+            Type pkType = pk.getSafeType();
+            if (pkType != PrimitiveType.Text && pkType != PrimitiveType.Uuid && pkType != PrimitiveType.Uint64) {
                 throw new IllegalArgumentException("Wrong type of autopk column " + autoPkName + " -> " + pk.getType());
             }
-            result.add(new ColumnEntry(autoPkName, pk.getType(), null, -1));
+            AutoPkGenerator generator = new AutoPkGenerator(autoPkMode, (PrimitiveType) pkType, autoPkJobPrefix,
+                    partitionId);
+            result.add(new ColumnEntry(autoPkName, pk.getType(), generator));
         }
 
         return result;
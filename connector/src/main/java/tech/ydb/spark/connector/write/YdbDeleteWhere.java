@@ -0,0 +1,91 @@
+package tech.ydb.spark.connector.write;
+
+import org.apache.spark.sql.connector.expressions.filter.Predicate;
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tech.ydb.common.transaction.TxMode;
+import tech.ydb.spark.connector.YdbTable;
+import tech.ydb.spark.connector.common.OperationOption;
+import tech.ydb.spark.connector.read.SelectQuery;
+import tech.ydb.spark.connector.read.YqlExpressionBuilder;
+
+/**
+ * Server-side DELETE with the filters pushed down from Spark. Spark expects the delete to be all-or-nothing, so the
+ * rows are deleted by one statement in one transaction. Only BATCH DELETE, which is not atomic anyway, is split
+ * into the separate statements for each partition of the row table, which are executed in parallel.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+public class YdbDeleteWhere {
+    private static final Logger logger = LoggerFactory.getLogger(YdbDeleteWhere.class);
+
+    private static final int CONCURRENCY = 8;
+
+    private final YdbTable table;
+    private final String[] filters;
+    private final boolean batch;
+    private final int concurrency;
+
+    public YdbDeleteWhere(YdbTable table, String[] filters, CaseInsensitiveStringMap options) {
+        this.table = table;
+        this.filters = filters;
+        this.concurrency = Math.max(1, OperationOption.DELETE_CONCURRENCY.readInt(options, CONCURRENCY));
+
+        boolean batchDelete = OperationOption.DELETE_BATCH.readBoolean(options, false);
+        if (batchDelete && table.getType() != YdbTable.Type.ROW) {
+            logger.warn("BATCH DELETE was disabled because it is only supported for row tables");
+            batchDelete = false;
+        }
+        this.batch = batchDelete;
+    }
+
+    /**
+     * Translates Spark predicates to YQL expressions.
+     *
+     * @param predicates predicates of DELETE statement
+     * @return array of YQL expressions or null if some of predicates cannot be translated
+     */
+    public static String[] translate(Predicate[] predicates) {
+        YqlExpressionBuilder yql = new YqlExpressionBuilder();
+        String[] filters = new String[predicates.length];
+        for (int idx = 0; idx < predicates.length; idx++) {
+            String filter;
+            try {
+                filter = yql.build(predicates[idx]);
+            } catch (RuntimeException ex) {
+                logger.debug("cannot translate predicate {}", predicates[idx], ex);
+                return null;
+            }
+            if (filter == null || filter.isEmpty()) {
+                return null;
+            }
+            filters[idx] = "(" + filter + ")";
+        }
+        return filters;
+    }
+
+    public void run() {
+        SelectQuery origin = new SelectQuery(table);
+        for (String filter : filters) {
+            origin.addExpression(filter);
+        }
+
+        if (!batch) {
+            logger.info("deleting rows of table {} with filters {}", table.getTablePath(), filters);
+            table.getCtx().getExecutor()
+                    .executeQuery(origin.toDeleteQuery(false), TxMode.SERIALIZABLE_RW, origin.toQueryParams())
+                    .join().expectSuccess("Cannot delete rows from table " + table.getTablePath());
+            return;
+        }
+
+        // BATCH DELETE cannot be executed in the transaction
+        YdbPartitionedStatement delete = new YdbPartitionedStatement(table, origin, q -> q.toDeleteQuery(true),
+                TxMode.NONE);
+
+        logger.info("deleting rows of table {} by {} BATCH DELETE statements with filters {}", table.getTablePath(),
+                delete.size(), filters);
+        delete.execute(concurrency).expectSuccess("Cannot delete rows from table " + table.getTablePath());
+    }
+}
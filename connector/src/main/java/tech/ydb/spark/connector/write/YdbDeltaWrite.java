@@ -0,0 +1,118 @@
+package tech.ydb.spark.connector.write;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.spark.sql.connector.distributions.Distribution;
+import org.apache.spark.sql.connector.distributions.Distributions;
+import org.apache.spark.sql.connector.expressions.Expression;
+import org.apache.spark.sql.connector.expressions.FieldReference;
+import org.apache.spark.sql.connector.expressions.SortOrder;
+import org.apache.spark.sql.connector.metric.CustomMetric;
+import org.apache.spark.sql.connector.write.DeltaBatchWrite;
+import org.apache.spark.sql.connector.write.DeltaWrite;
+import org.apache.spark.sql.connector.write.DeltaWriteBuilder;
+import org.apache.spark.sql.connector.write.DeltaWriterFactory;
+import org.apache.spark.sql.connector.write.LogicalWriteInfo;
+import org.apache.spark.sql.connector.write.PhysicalWriteInfo;
+import org.apache.spark.sql.connector.write.RequiresDistributionAndOrdering;
+import org.apache.spark.sql.connector.write.WriterCommitMessage;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tech.ydb.spark.connector.YdbTable;
+import tech.ydb.spark.connector.common.IngestMethod;
+import tech.ydb.spark.connector.common.OperationOption;
+import tech.ydb.spark.connector.impl.GovernorWaitMetric;
+
+/**
+ * YDB writer of the row-level changes: orchestration and partition writer factory.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+public class YdbDeltaWrite implements DeltaWriteBuilder, DeltaWrite, DeltaBatchWrite, RequiresDistributionAndOrdering {
+    private static final Logger logger = LoggerFactory.getLogger(YdbDeltaWrite.class);
+
+    private final YdbTable table;
+    private final StructType schema;
+    private final StructType rowIdSchema;
+    private final Map<String, String> options;
+
+    public YdbDeltaWrite(YdbTable table, LogicalWriteInfo info) {
+        this.table = table;
+        this.schema = info.schema();
+        this.rowIdSchema = info.rowIdSchema().orElseThrow(() -> new IllegalArgumentException(
+                "Row-level operation on table " + table.getTablePath() + " has no row id"));
+        this.options = new HashMap<>();
+        this.options.putAll(table.properties());
+        this.options.putAll(info.options());
+    }
+
+    @Override
+    public DeltaWrite build() {
+        return this;
+    }
+
+    @Override
+    public DeltaBatchWrite toBatch() {
+        return this;
+    }
+
+    @Override
+    public Distribution requiredDistribution() {
+        // the delete of the old row and the insert of the new one with the same key must meet in one task, the
+        // split rows of a key-changing UPDATE keep the key of the deleted row in the key columns
+        String[] keys = rowIdSchema.fieldNames();
+        Expression[] clustering = new Expression[keys.length];
+        for (int idx = 0; idx < keys.length; idx++) {
+            clustering[idx] = FieldReference.column(keys[idx]);
+        }
+        return Distributions.clustered(clustering);
+    }
+
+    @Override
+    public SortOrder[] requiredOrdering() {
+        return new SortOrder[0];
+    }
+
+    @Override
+    public CustomMetric[] supportedCustomMetrics() {
+        return new CustomMetric[] {new GovernorWaitMetric()};
+    }
+
+    @Override
+    public DeltaWriterFactory createBatchWriterFactory(PhysicalWriteInfo physicalInfo) {
+        Map<String, String> upsertOptions = new HashMap<>(options);
+        IngestMethod method = OperationOption.INGEST_METHOD.readEnum(options, IngestMethod.BULK_UPSERT);
+        switch (method) {
+            case UPSERT:
+            case REPLACE:
+            case BULK_UPSERT:
+                break;
+            default:
+                // the updated rows must overwrite the existing ones
+                logger.warn("method {} is not supported for row-level operations, use UPSERT", method);
+                OperationOption.INGEST_METHOD.write(upsertOptions, IngestMethod.UPSERT.name());
+                break;
+        }
+
+        Map<String, String> deleteOptions = new HashMap<>(options);
+        OperationOption.INGEST_METHOD.write(deleteOptions, IngestMethod.DELETE_ON.name());
+
+        logger.trace("YdbDeltaWrite converted to DeltaWriterFactory for table {}", table.getTablePath());
+        return new YdbDeltaWriterFactory(schema, rowIdSchema,
+                new YdbDataWriterFactory(table, schema, new CaseInsensitiveStringMap(upsertOptions)),
+                new YdbDataWriterFactory(table, rowIdSchema, new CaseInsensitiveStringMap(deleteOptions))
+        );
+    }
+
+    @Override
+    public void commit(WriterCommitMessage[] messages) {
+    }
+
+    @Override
+    public void abort(WriterCommitMessage[] messages) {
+    }
+}
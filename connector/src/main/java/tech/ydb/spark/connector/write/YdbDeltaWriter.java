@@ -0,0 +1,182 @@
+package tech.ydb.spark.connector.write;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.connector.metric.CustomTaskMetric;
+import org.apache.spark.sql.connector.write.DataWriter;
+import org.apache.spark.sql.connector.write.DeltaWriter;
+import org.apache.spark.sql.connector.write.WriterCommitMessage;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.StructType;
+
+import tech.ydb.spark.connector.impl.GovernorWaitMetric;
+
+/**
+ * Data writer of the row-level changes. The inserted and updated rows are upserted by one data writer, the keys of
+ * the deleted rows are sent to another one. Both writers are created only when they are needed.
+ * <p>
+ * Both writers send their batches asynchronously, so the writer keeps the order of the changes of the same key by
+ * itself. All deletes refer to the rows read before the operation: the pending deletes are flushed and awaited
+ * before an upsert of the deleted key, and a delete of the key which has been already inserted by this task is
+ * skipped because the old row has been overwritten. A key-changing UPDATE produces exactly such pairs of changes.
+ * The inserted keys are kept in memory until the task is finished. The writer created without the key schema
+ * does not track the keys, it is used when the inserted and the deleted keys never intersect.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+class YdbDeltaWriter implements DeltaWriter<InternalRow> {
+    private final int[] keyOrdinals;
+    private final DataType[] keyTypes;
+    private final Supplier<DataWriter<InternalRow>> upsertsFactory;
+    private final Supplier<DataWriter<InternalRow>> deletesFactory;
+
+    private final Set<InternalRow> pendingDeletes = new HashSet<>();
+    private final Set<InternalRow> insertedKeys = new HashSet<>();
+
+    private DataWriter<InternalRow> upserts = null;
+    private DataWriter<InternalRow> deletes = null;
+    private long flushedGovernorWait = 0;
+
+    YdbDeltaWriter(Supplier<DataWriter<InternalRow>> upsertsFactory, Supplier<DataWriter<InternalRow>> deletesFactory) {
+        this.keyOrdinals = null;
+        this.keyTypes = null;
+        this.upsertsFactory = upsertsFactory;
+        this.deletesFactory = deletesFactory;
+    }
+
+    YdbDeltaWriter(StructType schema, StructType keySchema, Supplier<DataWriter<InternalRow>> upsertsFactory,
+            Supplier<DataWriter<InternalRow>> deletesFactory) {
+        this.keyOrdinals = new int[keySchema.size()];
+        this.keyTypes = new DataType[keySchema.size()];
+        for (int idx = 0; idx < keyOrdinals.length; idx++) {
+            keyOrdinals[idx] = schema.fieldIndex(keySchema.fields()[idx].name());
+            keyTypes[idx] = keySchema.fields()[idx].dataType();
+        }
+        this.upsertsFactory = upsertsFactory;
+        this.deletesFactory = deletesFactory;
+    }
+
+    @Override
+    public void delete(InternalRow metadata, InternalRow id) throws IOException {
+        if (keyTypes != null) {
+            InternalRow key = copyKey(id, null);
+            if (insertedKeys.contains(key)) {
+                // the deleted row has been already replaced by the inserted one
+                return;
+            }
+            pendingDeletes.add(key);
+        }
+        if (deletes == null) {
+            deletes = deletesFactory.get();
+        }
+        deletes.write(id);
+    }
+
+    @Override
+    public void update(InternalRow metadata, InternalRow id, InternalRow row) throws IOException {
+        if (!pendingDeletes.isEmpty() && pendingDeletes.contains(copyKey(id, null))) {
+            flushDeletes();
+        }
+        upsert(row);
+    }
+
+    @Override
+    public void insert(InternalRow row) throws IOException {
+        if (keyTypes != null) {
+            InternalRow key = copyKey(row, keyOrdinals);
+            if (pendingDeletes.contains(key)) {
+                flushDeletes();
+            }
+            insertedKeys.add(key);
+        }
+        upsert(row);
+    }
+
+    @Override
+    public WriterCommitMessage commit() throws IOException {
+        if (deletes != null) {
+            deletes.commit();
+        }
+        if (upserts != null) {
+            upserts.commit();
+        }
+        return new YdbWriteCommit();
+    }
+
+    @Override
+    public void abort() throws IOException {
+        if (deletes != null) {
+            deletes.abort();
+        }
+        if (upserts != null) {
+            upserts.abort();
+        }
+    }
+
+    @Override
+    public CustomTaskMetric[] currentMetricsValues() {
+        long wait = flushedGovernorWait + governorWait(upserts) + governorWait(deletes);
+        return new CustomTaskMetric[] {GovernorWaitMetric.taskValue(wait)};
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (deletes != null) {
+                deletes.close();
+            }
+        } finally {
+            if (upserts != null) {
+                upserts.close();
+            }
+        }
+    }
+
+    private void upsert(InternalRow row) throws IOException {
+        if (upserts == null) {
+            upserts = upsertsFactory.get();
+        }
+        upserts.write(row);
+    }
+
+    private void flushDeletes() throws IOException {
+        // commit waits for all sent batches, the next delete creates a new writer
+        DataWriter<InternalRow> flushed = deletes;
+        deletes = null;
+        pendingDeletes.clear();
+        try {
+            flushed.commit();
+        } finally {
+            flushedGovernorWait += governorWait(flushed);
+            flushed.close();
+        }
+    }
+
+    private InternalRow copyKey(InternalRow row, int[] ordinals) {
+        Object[] values = new Object[keyTypes.length];
+        for (int idx = 0; idx < values.length; idx++) {
+            int ordinal = ordinals != null ? ordinals[idx] : idx;
+            values[idx] = row.isNullAt(ordinal) ? null : row.get(ordinal, keyTypes[idx]);
+        }
+        // the values may point to the reused buffers of the row
+        return new GenericInternalRow(values).copy();
+    }
+
+    private static long governorWait(DataWriter<InternalRow> writer) {
+        if (writer == null) {
+            return 0;
+        }
+        long sum = 0;
+        for (CustomTaskMetric metric : writer.currentMetricsValues()) {
+            if (GovernorWaitMetric.NAME.equals(metric.name())) {
+                sum += metric.value();
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,35 @@
+package tech.ydb.spark.connector.write;
+
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.connector.write.DeltaWriter;
+import org.apache.spark.sql.connector.write.DeltaWriterFactory;
+import org.apache.spark.sql.types.StructType;
+
+/**
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+public class YdbDeltaWriterFactory implements DeltaWriterFactory {
+    private static final long serialVersionUID = 3926174458512707530L;
+
+    private final StructType schema;
+    private final StructType rowIdSchema;
+    private final YdbDataWriterFactory upserts;
+    private final YdbDataWriterFactory deletes;
+
+    public YdbDeltaWriterFactory(StructType schema, StructType rowIdSchema, YdbDataWriterFactory upserts,
+            YdbDataWriterFactory deletes) {
+        this.schema = schema;
+        this.rowIdSchema = rowIdSchema;
+        this.upserts = upserts;
+        this.deletes = deletes;
+    }
+
+    @Override
+    public DeltaWriter<InternalRow> createWriter(int partitionId, long taskId) {
+        return new YdbDeltaWriter(schema, rowIdSchema,
+                () -> upserts.createWriter(partitionId, taskId),
+                () -> deletes.createWriter(partitionId, taskId)
+        );
+    }
+}
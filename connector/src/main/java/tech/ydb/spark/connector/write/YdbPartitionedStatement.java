@@ -0,0 +1,108 @@
+package tech.ydb.spark.connector.write;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+
+import tech.ydb.common.transaction.TxMode;
+import tech.ydb.core.Status;
+import tech.ydb.spark.connector.YdbTable;
+import tech.ydb.spark.connector.YdbTypes;
+import tech.ydb.spark.connector.common.KeysRange;
+import tech.ydb.spark.connector.impl.YdbExecutor;
+import tech.ydb.spark.connector.read.SelectQuery;
+import tech.ydb.spark.connector.read.YdbPartition;
+
+/**
+ * Server-side statement which is executed separately for each partition of the row table, so every statement
+ * touches only one shard. The statements are executed in parallel with the limited concurrency.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+class YdbPartitionedStatement {
+    private final YdbExecutor executor;
+    private final Function<SelectQuery, String> text;
+    private final TxMode txMode;
+    private final Queue<SelectQuery> queries = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates the statement for the partitions of the given table.
+     *
+     * @param table table with the partitions
+     * @param origin query with the table and the filters of the statement
+     * @param text function to build the statement text from the query of one partition
+     * @param txMode transaction mode of the statements
+     */
+    YdbPartitionedStatement(YdbTable table, SelectQuery origin, Function<SelectQuery, String> text, TxMode txMode) {
+        this.executor = table.getCtx().getExecutor();
+        this.text = text;
+        this.txMode = txMode;
+
+        KeysRange[] partitions = table.getPartitions();
+        if (table.getType() == YdbTable.Type.ROW && partitions.length > 1) {
+            YdbTypes types = new YdbTypes(new CaseInsensitiveStringMap(table.properties()));
+            for (KeysRange range : partitions) {
+                queries.add(YdbPartition.keysRange(types, table.getKeyColumns(), range).makeQuery(origin));
+            }
+        } else {
+            queries.add(origin);
+        }
+    }
+
+    /**
+     * Creates the statement for the given queries.
+     *
+     * @param executor executor of the statements
+     * @param queries queries with the table and the filters of each statement
+     * @param text function to build the statement text from the query
+     * @param txMode transaction mode of the statements
+     */
+    YdbPartitionedStatement(YdbExecutor executor, List<SelectQuery> queries, Function<SelectQuery, String> text,
+            TxMode txMode) {
+        this.executor = executor;
+        this.text = text;
+        this.txMode = txMode;
+        this.queries.addAll(queries);
+    }
+
+    int size() {
+        return queries.size();
+    }
+
+    /**
+     * Executes the statements and waits for the result.
+     *
+     * @param concurrency max count of parallel statements
+     * @return the first failed status or success
+     */
+    Status execute(int concurrency) {
+        List<CompletableFuture<Status>> workers = new ArrayList<>();
+        for (int idx = 0; idx < Math.min(Math.max(1, concurrency), queries.size()); idx++) {
+            workers.add(executeNext());
+        }
+
+        Status result = Status.SUCCESS;
+        for (CompletableFuture<Status> worker : workers) {
+            Status status = worker.join();
+            if (result.isSuccess()) {
+                result = status;
+            }
+        }
+        return result;
+    }
+
+    private CompletableFuture<Status> executeNext() {
+        SelectQuery query = queries.poll();
+        if (query == null) {
+            return CompletableFuture.completedFuture(Status.SUCCESS);
+        }
+
+        return executor.executeQuery(text.apply(query), txMode, query.toQueryParams())
+                .thenCompose(status -> status.isSuccess() ? executeNext() : CompletableFuture.completedFuture(status));
+    }
+}
@@ -2,16 +2,29 @@ package tech.ydb.spark.connector.write;
 
 import org.apache.spark.sql.connector.write.RowLevelOperation;
 import org.apache.spark.sql.connector.write.RowLevelOperationBuilder;
+import org.apache.spark.sql.connector.write.RowLevelOperationInfo;
+
+import tech.ydb.spark.connector.YdbTable;
 
 /**
  *
  * @author zinal
  */
 public class YdbRowLevelBuilder implements RowLevelOperationBuilder {
+    private final YdbTable table;
+    private final RowLevelOperationInfo info;
+
+    public YdbRowLevelBuilder(YdbTable table, RowLevelOperationInfo info) {
+        this.table = table;
+        this.info = info;
+    }
 
     @Override
     public RowLevelOperation build() {
-        throw new UnsupportedOperationException("Not supported yet.");
+        if (table.getType() == YdbTable.Type.INDEX) {
+            throw new UnsupportedOperationException("Index table " + table.getTablePath() + " cannot be modified");
+        }
+        return new YdbRowLevelOperation(table, info);
     }
 
 }
@@ -0,0 +1,59 @@
+package tech.ydb.spark.connector.write;
+
+import org.apache.spark.sql.connector.expressions.FieldReference;
+import org.apache.spark.sql.connector.expressions.NamedReference;
+import org.apache.spark.sql.connector.read.ScanBuilder;
+import org.apache.spark.sql.connector.write.DeltaWriteBuilder;
+import org.apache.spark.sql.connector.write.LogicalWriteInfo;
+import org.apache.spark.sql.connector.write.RowLevelOperationInfo;
+import org.apache.spark.sql.connector.write.SupportsDelta;
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+
+import tech.ydb.spark.connector.YdbTable;
+import tech.ydb.spark.connector.common.FieldInfo;
+
+/**
+ * Row-level DELETE, UPDATE and MERGE operation. The rows are identified by the primary key, so only the changed
+ * rows are written and only the keys of the deleted rows are sent.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+public class YdbRowLevelOperation implements SupportsDelta {
+    private final YdbTable table;
+    private final RowLevelOperationInfo info;
+
+    public YdbRowLevelOperation(YdbTable table, RowLevelOperationInfo info) {
+        this.table = table;
+        this.info = info;
+    }
+
+    @Override
+    public Command command() {
+        return info.command();
+    }
+
+    @Override
+    public ScanBuilder newScanBuilder(CaseInsensitiveStringMap options) {
+        return table.newScanBuilder(options);
+    }
+
+    @Override
+    public NamedReference[] rowId() {
+        FieldInfo[] keys = table.getKeyColumns();
+        NamedReference[] refs = new NamedReference[keys.length];
+        for (int idx = 0; idx < keys.length; idx++) {
+            refs[idx] = FieldReference.column(keys[idx].getName());
+        }
+        return refs;
+    }
+
+    @Override
+    public DeltaWriteBuilder newWriteBuilder(LogicalWriteInfo writeInfo) {
+        return new YdbDeltaWrite(table, writeInfo);
+    }
+
+    @Override
+    public String description() {
+        return "YdbRowLevelOperation[" + info.command() + " on " + table.getTablePath() + "]";
+    }
+}
@@ -0,0 +1,182 @@
+package tech.ydb.spark.connector.write;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tech.ydb.core.Status;
+import tech.ydb.core.StatusCode;
+import tech.ydb.spark.connector.impl.YdbGovernor;
+
+/**
+ * Batch buffer shared by all concurrent writers of one table in the executor JVM. Rows of different tasks are
+ * merged into full-size batches. Every appended row gets the future of the batch it belongs to, so each task can
+ * wait for the acknowledgement of its own rows.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+final class YdbSharedBatcher {
+    private static final Logger logger = LoggerFactory.getLogger(YdbSharedBatcher.class);
+    // guarded by itself
+    private static final Map<List<Object>, YdbSharedBatcher> BATCHERS = new HashMap<>();
+
+    private final List<Object> key;
+    private final YdbGovernor governor;
+    private final YdbWriteLimiter limiter;
+    private final boolean split;
+    // guarded by this
+    private final YdbWriter writer;
+
+    // guarded by BATCHERS
+    private int usages = 0;
+    // guarded by this, completed when all rows of the current batch are written
+    private CompletableFuture<Status> current = new CompletableFuture<>();
+
+    YdbSharedBatcher(List<Object> key, YdbGovernor governor, YdbWriteLimiter limiter, YdbWriter writer,
+            boolean split) {
+        this.key = key;
+        this.governor = governor;
+        this.limiter = limiter;
+        this.writer = writer;
+        this.split = split;
+    }
+
+    static YdbSharedBatcher acquire(List<Object> key, Supplier<YdbSharedBatcher> factory) {
+        synchronized (BATCHERS) {
+            YdbSharedBatcher batcher = BATCHERS.computeIfAbsent(key, k -> {
+                YdbSharedBatcher created = factory.get();
+                logger.debug("created shared batcher for {}", created.writer);
+                return created;
+            });
+            batcher.usages++;
+            return batcher;
+        }
+    }
+
+    void release() {
+        synchronized (BATCHERS) {
+            usages--;
+            if (usages > 0) {
+                return;
+            }
+            BATCHERS.remove(key);
+        }
+
+        // all committed writers have flushed their rows, the rest belongs to the aborted tasks
+        synchronized (this) {
+            current.complete(Status.of(StatusCode.CLIENT_CANCELLED));
+            writer.close();
+        }
+        logger.debug("closed shared batcher for {}", writer);
+    }
+
+    /**
+     * Appends the row to the shared batch and sends the batch if it is full. The batch is sent by the calling thread,
+     * so the time spent waiting for the governor is reported to the caller.
+     *
+     * @param record row to write
+     * @param onGovernorWait consumer of the governor wait in milliseconds
+     * @return future of the batch with this row
+     */
+    CompletableFuture<Status> append(InternalRow record, LongConsumer onGovernorWait) {
+        CompletableFuture<Status> ticket;
+        List<YdbWriter.Batch> ready = null;
+        synchronized (this) {
+            writer.appendRow(record);
+            ticket = current;
+            if (writer.needToFlush()) {
+                ready = detachBatches();
+            }
+        }
+
+        if (ready != null) {
+            onGovernorWait.accept(send(ready, ticket));
+        }
+        return ticket;
+    }
+
+    /**
+     * Waits up to {@code lingerMs} for other tasks to fill the batch and sends it if it is still not sent.
+     *
+     * @param ticket future of the batch returned by {@link #append}
+     * @param lingerMs max time to wait for the batch to be filled
+     * @param onGovernorWait consumer of the governor wait in milliseconds
+     */
+    void flush(CompletableFuture<Status> ticket, long lingerMs, LongConsumer onGovernorWait) {
+        List<YdbWriter.Batch> ready = null;
+        synchronized (this) {
+            long deadline = System.currentTimeMillis() + lingerMs;
+            long left = lingerMs;
+            boolean interrupted = false;
+            while (ticket == current && left > 0) {
+                try {
+                    wait(left);
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                    break;
+                }
+                left = deadline - System.currentTimeMillis();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+
+            if (ticket == current) {
+                ready = detachBatches();
+            }
+        }
+
+        if (ready != null) {
+            onGovernorWait.accept(send(ready, ticket));
+        }
+    }
+
+    // must be called under the lock
+    private List<YdbWriter.Batch> detachBatches() {
+        List<YdbWriter.Batch> batches = new ArrayList<>();
+        for (YdbWriter.Batch batch = writer.buildNextBatch(); batch != null; batch = writer.buildNextBatch()) {
+            batches.add(batch);
+        }
+        current = new CompletableFuture<>();
+        notifyAll();
+        return batches;
+    }
+
+    private CompletableFuture<Status> writeBatch(YdbWriter.Batch batch) {
+        if (!split) {
+            return batch.write(UnaryOperator.identity());
+        }
+        return YdbDataWriter.writeSplitting(b -> b.write(UnaryOperator.identity()), batch, rows -> { });
+    }
+
+    private long send(List<YdbWriter.Batch> batches, CompletableFuture<Status> ticket) {
+        long governorWait = 0;
+        CompletableFuture<Status> result = CompletableFuture.completedFuture(Status.SUCCESS);
+        for (YdbWriter.Batch batch : batches) {
+            int bytesSize = batch.bytesSize();
+            limiter.acquireBytes(bytesSize);
+            limiter.acquire();
+            governorWait += governor.acquireWrite(bytesSize);
+
+            CompletableFuture<Status> written = writeBatch(batch).handle((st, th) -> {
+                governor.releaseWrite();
+                limiter.release();
+                limiter.releaseBytes(bytesSize);
+                return st != null ? st : Status.of(StatusCode.CLIENT_INTERNAL_ERROR, th);
+            });
+            // the first error is reported
+            result = result.thenCombine(written, (first, second) -> first.isSuccess() ? second : first);
+        }
+        result.thenAccept(ticket::complete);
+        return governorWait;
+    }
+}
@@ -0,0 +1,97 @@
+package tech.ydb.spark.connector.write;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongConsumer;
+
+import org.apache.spark.TaskContext;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.connector.metric.CustomTaskMetric;
+import org.apache.spark.sql.connector.write.DataWriter;
+import org.apache.spark.sql.connector.write.WriterCommitMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tech.ydb.core.Status;
+import tech.ydb.spark.connector.impl.GovernorWaitMetric;
+
+/**
+ * Data writer which hands the rows to the {@link YdbSharedBatcher}. The commit completes only when all batches
+ * with the rows of this task are written. The rows of the shared batch cannot be taken back, so an aborted task
+ * does not roll back its rows, and an error of the batch is reported to every task with rows in it.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+class YdbSharedDataWriter implements DataWriter<InternalRow> {
+    private static final Logger logger = LoggerFactory.getLogger(YdbSharedDataWriter.class);
+
+    private final YdbSharedBatcher batcher;
+    private final long lingerMs;
+    // futures of the shared batches with the rows of this task, in the order of appending
+    private final Deque<CompletableFuture<Status>> tickets = new ArrayDeque<>();
+
+    private long rowsCount = 0;
+    private long governorWaitMs = 0;
+    private boolean released = false;
+    // the task which sends the shared batch waits for the governor on behalf of all tasks with rows in it
+    private final LongConsumer onGovernorWait = wait -> governorWaitMs += wait;
+
+    YdbSharedDataWriter(YdbSharedBatcher batcher, long lingerMs) {
+        this.batcher = batcher;
+        this.lingerMs = lingerMs;
+    }
+
+    @Override
+    public void write(InternalRow record) throws IOException {
+        // fail fast if one of the previous batches was not written
+        while (!tickets.isEmpty() && tickets.peekFirst().isDone()) {
+            tickets.pollFirst().join().expectSuccess("Cannot execute write");
+        }
+
+        CompletableFuture<Status> ticket = batcher.append(record, onGovernorWait);
+        if (tickets.peekLast() != ticket) {
+            tickets.addLast(ticket);
+        }
+        rowsCount++;
+    }
+
+    @Override
+    public WriterCommitMessage commit() throws IOException {
+        CompletableFuture<Status> last = tickets.peekLast();
+        if (last != null) {
+            batcher.flush(last, lingerMs, onGovernorWait);
+        }
+
+        for (CompletableFuture<Status> ticket : tickets) {
+            ticket.join().expectSuccess("cannot commit write");
+        }
+        tickets.clear();
+
+        TaskContext.get().taskMetrics().outputMetrics().setRecordsWritten(rowsCount);
+        logger.debug("written {} rows via shared batches, governor wait {} ms", rowsCount, governorWaitMs);
+        return new YdbWriteCommit();
+    }
+
+    @Override
+    public CustomTaskMetric[] currentMetricsValues() {
+        return new CustomTaskMetric[] {GovernorWaitMetric.taskValue(governorWaitMs)};
+    }
+
+    @Override
+    public void abort() throws IOException {
+        // rows which have been already handed over are written together with rows of other tasks anyway, the Spark
+        // retry of this task writes them once more, see OperationOption.BATCH_SHARED
+        logger.debug("aborted writer with {} rows in {} shared batches", rowsCount, tickets.size());
+        tickets.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!released) {
+            released = true;
+            batcher.release();
+        }
+    }
+}
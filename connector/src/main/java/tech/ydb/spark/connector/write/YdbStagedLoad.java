@@ -0,0 +1,173 @@
+package tech.ydb.spark.connector.write;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tech.ydb.common.transaction.TxMode;
+import tech.ydb.core.Status;
+import tech.ydb.spark.connector.YdbTable;
+import tech.ydb.spark.connector.YdbTypes;
+import tech.ydb.spark.connector.common.FieldInfo;
+import tech.ydb.spark.connector.common.KeysRange;
+import tech.ydb.spark.connector.common.OperationOption;
+import tech.ydb.spark.connector.impl.YdbExecutor;
+import tech.ydb.spark.connector.impl.YdbShadowTable;
+import tech.ydb.spark.connector.read.PrimaryKeyExpression;
+import tech.ydb.spark.connector.read.SelectQuery;
+import tech.ydb.spark.connector.read.YdbPartition;
+import tech.ydb.table.description.TableDescription;
+import tech.ydb.table.result.ResultSetReader;
+import tech.ydb.table.values.TupleValue;
+import tech.ydb.table.values.Type;
+import tech.ydb.table.values.Value;
+
+/**
+ * Staged load of the table with secondary indexes. The writers use BulkUpsert to load the data into the staging
+ * table without indexes, then the rows are moved to the target table by the server-side UPSERT statements. Every
+ * partition of the staging table is moved by the chain of statements in the key order, each statement moves a
+ * limited chunk of rows in its own transaction.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+public class YdbStagedLoad {
+    private static final Logger logger = LoggerFactory.getLogger(YdbStagedLoad.class);
+
+    private static final int CONCURRENCY = 8;
+    private static final int CHUNK_ROWS = 10000;
+
+    private final YdbTable target;
+    private final String[] columns;
+    private final CaseInsensitiveStringMap options;
+    private final YdbShadowTable staging;
+    private final int concurrency;
+    private final int chunkRows;
+    private final AtomicLong movedChunks = new AtomicLong();
+
+    private YdbTable stagingTable = null;
+
+    public YdbStagedLoad(YdbTable target, StructType schema, CaseInsensitiveStringMap options) {
+        this.target = target;
+        this.columns = writtenColumns(target, schema, options);
+        this.options = options;
+        this.staging = new YdbShadowTable(target.getCtx().getExecutor(), target.getTablePath(), true);
+        this.concurrency = OperationOption.TABLE_STAGED_CONCURRENCY.readInt(options, CONCURRENCY);
+        this.chunkRows = Math.max(1, OperationOption.TABLE_STAGED_CHUNK_ROWS.readInt(options, CHUNK_ROWS));
+    }
+
+    /**
+     * Creates the empty staging table.
+     *
+     * @return staging table
+     */
+    public YdbTable create() {
+        TableDescription td = staging.create();
+        stagingTable = new YdbTable(target.getCtx(), new YdbTypes(options), target.name(), staging.getShadowPath(),
+                td, options);
+        return stagingTable;
+    }
+
+    /**
+     * Moves all rows from the staging table to the target one and drops the staging table. The staging table is
+     * kept if the move fails, it is dropped by {@link #drop()} when the write is aborted.
+     */
+    public void merge() {
+        YdbExecutor executor = target.getCtx().getExecutor();
+        // the staging table could be split by the load, so its partitions are described again
+        TableDescription td = executor.describeTable(staging.getShadowPath(), true);
+        YdbTypes types = new YdbTypes(options);
+        YdbTable loaded = new YdbTable(target.getCtx(), types, target.name(), staging.getShadowPath(), td, options);
+
+        SelectQuery origin = new SelectQuery(loaded).replacePredicates(columns);
+        Queue<SelectQuery> ranges = new ConcurrentLinkedQueue<>();
+        for (KeysRange range : loaded.getPartitions()) {
+            ranges.add(YdbPartition.keysRange(types, loaded.getKeyColumns(), range).makeQuery(origin));
+        }
+        if (ranges.isEmpty()) {
+            ranges.add(origin);
+        }
+
+        logger.info("merging staging table {} into {} by {} ranges", staging.getShadowPath(),
+                target.getTablePath(), ranges.size());
+        List<CompletableFuture<Status>> workers = new ArrayList<>();
+        for (int idx = 0; idx < Math.min(Math.max(1, concurrency), ranges.size()); idx++) {
+            workers.add(moveNextRange(executor, loaded.getKeyColumns(), ranges));
+        }
+
+        Status result = Status.SUCCESS;
+        for (CompletableFuture<Status> worker : workers) {
+            Status status = worker.join();
+            if (result.isSuccess()) {
+                result = status;
+            }
+        }
+        result.expectSuccess("Cannot merge staging table into " + target.getTablePath());
+        logger.info("merged staging table {} by {} statements", staging.getShadowPath(), movedChunks.get());
+        staging.drop();
+    }
+
+    public void drop() {
+        staging.drop();
+    }
+
+    private CompletableFuture<Status> moveNextRange(YdbExecutor executor, FieldInfo[] keys,
+            Queue<SelectQuery> ranges) {
+        SelectQuery range = ranges.poll();
+        if (range == null) {
+            return CompletableFuture.completedFuture(Status.SUCCESS);
+        }
+        return moveChunk(executor, keys, range, null).thenCompose(status -> status.isSuccess()
+                ? moveNextRange(executor, keys, ranges) : CompletableFuture.completedFuture(status));
+    }
+
+    private CompletableFuture<Status> moveChunk(YdbExecutor executor, FieldInfo[] keys, SelectQuery range,
+            TupleValue lastKey) {
+        SelectQuery chunk = lastKey == null ? range : PrimaryKeyExpression.keyAfter(keys, lastKey)
+                .makeQuery(range.copy());
+        String query = chunk.toUpsertChunkQuery(target.getTablePath(), keys, chunkRows);
+        return executor.executeQueryForResult(query, TxMode.SERIALIZABLE_RW, chunk.toQueryParams())
+                .thenCompose(result -> {
+                    if (!result.isSuccess()) {
+                        return CompletableFuture.completedFuture(result.getStatus());
+                    }
+                    movedChunks.incrementAndGet();
+                    ResultSetReader rs = result.getValue();
+                    if (!rs.next()) {
+                        // the previous chunk was the last one
+                        return CompletableFuture.completedFuture(Status.SUCCESS);
+                    }
+                    return moveChunk(executor, keys, range, readKey(rs, keys));
+                });
+    }
+
+    private static TupleValue readKey(ResultSetReader rs, FieldInfo[] keys) {
+        Value<?>[] key = new Value<?>[keys.length];
+        for (int idx = 0; idx < keys.length; idx++) {
+            Value<?> value = rs.getColumn(keys[idx].getName()).getValue();
+            // key tuples are always compared as optional values
+            key[idx] = value.getType().getKind() == Type.Kind.OPTIONAL ? value : value.makeOptional();
+        }
+        return TupleValue.of(Arrays.asList(key));
+    }
+
+    private static String[] writtenColumns(YdbTable target, StructType schema, CaseInsensitiveStringMap options) {
+        // the columns which are not written must keep their values in the target table
+        List<String> written = new ArrayList<>(Arrays.asList(schema.fieldNames()));
+        String autoPkName = OperationOption.TABLE_AUTOPK_NAME.read(options, OperationOption.DEFAULT_AUTO_PK);
+        for (FieldInfo column : target.getAllColumns()) {
+            if (autoPkName.equals(column.getName()) && !written.contains(autoPkName)) {
+                written.add(autoPkName);
+            }
+        }
+        return written.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,29 @@
+package tech.ydb.spark.connector.write;
+
+import java.io.Serializable;
+
+/**
+ * Commit message of the sync writer with the range of the keys written by the task.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+public class YdbSyncCommit extends YdbWriteCommit {
+    private static final long serialVersionUID = -3094516223744712586L;
+
+    // both are null if the task had no rows
+    private final Serializable[] firstKey;
+    private final Serializable[] lastKey;
+
+    YdbSyncCommit(Serializable[] firstKey, Serializable[] lastKey) {
+        this.firstKey = firstKey;
+        this.lastKey = lastKey;
+    }
+
+    public Serializable[] getFirstKey() {
+        return firstKey;
+    }
+
+    public Serializable[] getLastKey() {
+        return lastKey;
+    }
+}
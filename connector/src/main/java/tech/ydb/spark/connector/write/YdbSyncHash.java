@@ -0,0 +1,187 @@
+package tech.ydb.spark.connector.write;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.apache.spark.sql.catalyst.InternalRow;
+
+import tech.ydb.spark.connector.YdbTypes;
+import tech.ydb.table.values.OptionalValue;
+import tech.ydb.table.values.PrimitiveType;
+import tech.ydb.table.values.PrimitiveValue;
+import tech.ydb.table.values.Type;
+import tech.ydb.table.values.Value;
+
+/**
+ * Row hash which is calculated in the same way by the connector and by the YQL expression. Every column value is
+ * converted to Uint64 and mixed by {@code Digest::IntHash}, the hashes of the columns are chained in the order of
+ * the columns. The NULL value is hashed as zero.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+final class YdbSyncHash {
+    private static final long FNV64_INIT = 0xcbf29ce484222325L;
+    private static final long FNV64_PRIME = 0x100000001b3L;
+
+    private final ColumnEntry[] columns;
+    private final PrimitiveType[] types;
+    private final String yql;
+
+    YdbSyncHash(List<ColumnEntry> columns) {
+        this.columns = columns.toArray(new ColumnEntry[0]);
+        this.types = new PrimitiveType[this.columns.length];
+
+        String hash = "0ul";
+        for (int idx = 0; idx < this.columns.length; idx++) {
+            Type type = this.columns[idx].getType();
+            if (type.getKind() == Type.Kind.OPTIONAL) {
+                type = type.unwrapOptional();
+            }
+            String raw = type.getKind() == Type.Kind.PRIMITIVE
+                    ? rawYql((PrimitiveType) type, "`" + this.columns[idx].getName() + "`") : null;
+            if (raw == null) {
+                throw new IllegalArgumentException("Column " + this.columns[idx].getName() + " of type " + type
+                        + " is not supported by the sync mode");
+            }
+            this.types[idx] = (PrimitiveType) type;
+            hash = "Digest::IntHash(" + hash + " ^ COALESCE(Digest::IntHash(" + raw + "), 0ul))";
+        }
+        this.yql = hash;
+    }
+
+    /**
+     * @return YQL expression of the row hash
+     */
+    String toYql() {
+        return yql;
+    }
+
+    long hash(YdbTypes ydbTypes, InternalRow row) {
+        long hash = 0;
+        for (int idx = 0; idx < columns.length; idx++) {
+            Value<?> value = columns[idx].read(ydbTypes, row);
+            long encoded = 0;
+            if (value.getType().getKind() == Type.Kind.OPTIONAL) {
+                OptionalValue optional = value.asOptional();
+                value = optional.isPresent() ? optional.get() : null;
+            }
+            if (value != null) {
+                encoded = intHash(rawValue(types[idx], value.asData()));
+            }
+            hash = intHash(hash ^ encoded);
+        }
+        return hash;
+    }
+
+    private static String rawYql(PrimitiveType type, String column) {
+        switch (type) {
+            case Bool:
+            case Uint8:
+            case Uint16:
+            case Uint32:
+            case Uint64:
+            case Date:
+            case Datetime:
+            case Timestamp:
+                return "CAST(" + column + " AS Uint64)";
+            case Int8:
+            case Int16:
+            case Int32:
+            case Int64:
+            case Interval:
+            case Date32:
+            case Datetime64:
+            case Timestamp64:
+            case Interval64:
+                return "BITCAST(CAST(" + column + " AS Int64) AS Uint64)";
+            case Text:
+            case Bytes:
+                return "Digest::Fnv64(" + column + ")";
+            default:
+                return null;
+        }
+    }
+
+    private static long rawValue(PrimitiveType type, PrimitiveValue value) {
+        switch (type) {
+            case Bool:
+                return value.getBool() ? 1 : 0;
+            case Uint8:
+                return value.getUint8();
+            case Uint16:
+                return value.getUint16();
+            case Uint32:
+                return value.getUint32();
+            case Uint64:
+                return value.getUint64();
+            case Int8:
+                return value.getInt8();
+            case Int16:
+                return value.getInt16();
+            case Int32:
+                return value.getInt32();
+            case Int64:
+                return value.getInt64();
+            case Date:
+                return value.getDate().toEpochDay();
+            case Datetime:
+                return value.getDatetime().toEpochSecond(ZoneOffset.UTC);
+            case Timestamp:
+                return micros(value.getTimestamp());
+            case Interval:
+                return micros(value.getInterval());
+            case Date32:
+                return value.getDate32().toEpochDay();
+            case Datetime64:
+                return value.getDatetime64().toEpochSecond(ZoneOffset.UTC);
+            case Timestamp64:
+                return micros(value.getTimestamp64());
+            case Interval64:
+                return micros(value.getInterval64());
+            case Text:
+                return fnv64(value.getText().getBytes(StandardCharsets.UTF_8));
+            case Bytes:
+                return fnv64(value.getBytes());
+            default:
+                throw new IllegalArgumentException("Type " + type + " is not supported by the sync mode");
+        }
+    }
+
+    private static long micros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1000;
+    }
+
+    private static long micros(Duration duration) {
+        return duration.getSeconds() * 1_000_000L + duration.getNano() / 1000;
+    }
+
+    /**
+     * Same as {@code Digest::Fnv64}.
+     */
+    static long fnv64(byte[] data) {
+        long hash = FNV64_INIT;
+        for (byte b : data) {
+            hash = (hash * FNV64_PRIME) ^ (b & 0xFF);
+        }
+        return hash;
+    }
+
+    /**
+     * Same as {@code Digest::IntHash}.
+     */
+    static long intHash(long value) {
+        long key = value;
+        key += ~(key << 32);
+        key ^= key >>> 22;
+        key += ~(key << 13);
+        key ^= key >>> 8;
+        key += key << 3;
+        key ^= key >>> 15;
+        key += ~(key << 27);
+        key ^= key >>> 31;
+        return key;
+    }
+}
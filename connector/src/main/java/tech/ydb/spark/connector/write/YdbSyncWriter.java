@@ -0,0 +1,236 @@
+package tech.ydb.spark.connector.write;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.connector.metric.CustomTaskMetric;
+import org.apache.spark.sql.connector.write.DataWriter;
+import org.apache.spark.sql.connector.write.WriterCommitMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tech.ydb.common.transaction.TxMode;
+import tech.ydb.spark.connector.YdbTable;
+import tech.ydb.spark.connector.YdbTypes;
+import tech.ydb.spark.connector.common.FieldInfo;
+import tech.ydb.spark.connector.common.KeysRange;
+import tech.ydb.spark.connector.impl.YdbExecutor;
+import tech.ydb.spark.connector.read.SelectQuery;
+import tech.ydb.spark.connector.read.YdbPartition;
+import tech.ydb.table.result.ResultSetReader;
+import tech.ydb.table.result.ValueReader;
+import tech.ydb.table.values.Type;
+
+/**
+ * Data writer of the method SYNC. The sorted rows are collected into chunks, the count and the XOR of the row hashes
+ * of the chunk are compared with the same aggregates over the key range of the chunk in the table. The mismatched
+ * ranges are compared by halves, the small ranges are compared row by row: the changed rows are upserted and the
+ * keys missing in the written rows are deleted.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+class YdbSyncWriter implements DataWriter<InternalRow> {
+    private static final Logger logger = LoggerFactory.getLogger(YdbSyncWriter.class);
+
+    private static final int LEAF_ROWS = 64;
+    // the leaf range with much more rows in the table is cleared at once instead of reading of its keys
+    private static final int LEAF_READ_FACTOR = 16;
+
+    private final YdbTable table;
+    private final YdbExecutor executor;
+    private final YdbTypes types;
+    private final YdbSyncHash hash;
+    private final ColumnEntry[] keyColumns;
+    private final String[] keyNames;
+    private final int chunkRows;
+    private final YdbDeltaWriter changes;
+
+    private final List<InternalRow> rows = new ArrayList<>();
+    private final List<Serializable[]> keys = new ArrayList<>();
+
+    private Serializable[] firstKey = null;
+    private Serializable[] lastKey = null;
+    private long unchangedRows = 0;
+    private long changedRows = 0;
+    private long deletedRows = 0;
+
+    YdbSyncWriter(YdbTable table, YdbTypes types, List<ColumnEntry> columns, int chunkRows, YdbDeltaWriter changes) {
+        this.table = table;
+        this.executor = table.getCtx().getExecutor();
+        this.types = types;
+        this.hash = new YdbSyncHash(columns);
+        this.chunkRows = chunkRows;
+        this.changes = changes;
+
+        Map<String, ColumnEntry> byName = new HashMap<>();
+        for (ColumnEntry column : columns) {
+            byName.put(column.getName(), column);
+        }
+        FieldInfo[] tableKeys = table.getKeyColumns();
+        this.keyColumns = new ColumnEntry[tableKeys.length];
+        this.keyNames = new String[tableKeys.length];
+        for (int idx = 0; idx < tableKeys.length; idx++) {
+            keyColumns[idx] = byName.get(tableKeys[idx].getName());
+            keyNames[idx] = "`" + tableKeys[idx].getName() + "`";
+        }
+    }
+
+    @Override
+    public void write(InternalRow record) throws IOException {
+        // Spark reuses the row object, so the buffered row must be copied
+        InternalRow row = record.copy();
+        Serializable[] key = new Serializable[keyColumns.length];
+        for (int idx = 0; idx < key.length; idx++) {
+            key[idx] = types.ydb2pojo(keyColumns[idx].read(types, row));
+        }
+
+        int last = rows.size() - 1;
+        if (last >= 0 && Arrays.equals(keys.get(last), key)) {
+            // the rows are sorted, so the versions of one key are adjacent and the last one wins
+            rows.set(last, row);
+            return;
+        }
+
+        if (rows.size() >= chunkRows) {
+            syncChunk();
+        }
+        rows.add(row);
+        keys.add(key);
+    }
+
+    @Override
+    public WriterCommitMessage commit() throws IOException {
+        if (!rows.isEmpty()) {
+            syncChunk();
+        }
+        changes.commit();
+        logger.debug("synced {} rows of table {}: {} unchanged, {} upserted, {} deleted", unchangedRows + changedRows,
+                table.getTablePath(), unchangedRows, changedRows, deletedRows);
+        return new YdbSyncCommit(firstKey, lastKey);
+    }
+
+    @Override
+    public void abort() throws IOException {
+        changes.abort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        changes.close();
+    }
+
+    @Override
+    public CustomTaskMetric[] currentMetricsValues() {
+        return changes.currentMetricsValues();
+    }
+
+    private void syncChunk() throws IOException {
+        long[] hashes = new long[rows.size()];
+        for (int idx = 0; idx < hashes.length; idx++) {
+            hashes[idx] = hash.hash(types, rows.get(idx));
+        }
+
+        // the first chunk of the task starts from its first key, the next ones continue after the previous chunk
+        if (firstKey == null) {
+            firstKey = keys.get(0);
+            syncRange(hashes, 0, hashes.length, firstKey, true);
+        } else {
+            syncRange(hashes, 0, hashes.length, lastKey, false);
+        }
+
+        lastKey = keys.get(keys.size() - 1);
+        rows.clear();
+        keys.clear();
+    }
+
+    private void syncRange(long[] hashes, int from, int to, Serializable[] fromKey, boolean fromInclusive)
+            throws IOException {
+        KeysRange range = new KeysRange(fromKey, fromInclusive, keys.get(to - 1), true);
+        SelectQuery query = YdbPartition.keysRange(types, table.getKeyColumns(), range)
+                .makeQuery(new SelectQuery(table));
+
+        long localHash = 0;
+        for (int idx = from; idx < to; idx++) {
+            localHash ^= hashes[idx];
+        }
+
+        ResultSetReader summary = executor.readQuery(query.toSelectQuery("COUNT(*)", "BIT_XOR(" + hash.toYql() + ")"),
+                query.toQueryParams());
+        summary.next();
+        long tableRows = readUint64(summary.getColumn(0));
+        if (tableRows == to - from && readUint64(summary.getColumn(1)) == localHash) {
+            unchangedRows += to - from;
+            return;
+        }
+
+        if (to - from > LEAF_ROWS) {
+            int middle = (from + to) >>> 1;
+            syncRange(hashes, from, middle, fromKey, fromInclusive);
+            syncRange(hashes, middle, to, keys.get(middle - 1), false);
+            return;
+        }
+
+        if (tableRows > (long) LEAF_ROWS * LEAF_READ_FACTOR) {
+            executor.executeQuery(query.toDeleteQuery(false), TxMode.SERIALIZABLE_RW, query.toQueryParams()).join()
+                    .expectSuccess("Cannot delete rows from table " + table.getTablePath());
+            for (int idx = from; idx < to; idx++) {
+                changes.insert(rows.get(idx));
+            }
+            changedRows += to - from;
+            deletedRows += tableRows;
+            return;
+        }
+
+        syncLeaf(query, hashes, from, to);
+    }
+
+    private void syncLeaf(SelectQuery query, long[] hashes, int from, int to) throws IOException {
+        String[] columns = Arrays.copyOf(keyNames, keyNames.length + 1);
+        columns[keyNames.length] = hash.toYql();
+        ResultSetReader rs = executor.readQuery(query.toSelectQuery(columns), query.toQueryParams());
+
+        Map<List<Serializable>, Long> tableHashes = new HashMap<>();
+        Map<List<Serializable>, InternalRow> tableKeys = new HashMap<>();
+        while (rs.next()) {
+            Serializable[] key = new Serializable[keyNames.length];
+            GenericInternalRow id = new GenericInternalRow(keyNames.length);
+            for (int idx = 0; idx < keyNames.length; idx++) {
+                key[idx] = types.ydb2pojo(rs.getColumn(idx).getValue());
+                types.setRowValue(id, idx, rs.getColumn(idx));
+            }
+            tableHashes.put(Arrays.asList(key), readUint64(rs.getColumn(keyNames.length)));
+            tableKeys.put(Arrays.asList(key), id);
+        }
+
+        for (int idx = from; idx < to; idx++) {
+            List<Serializable> key = Arrays.asList(keys.get(idx));
+            Long tableHash = tableHashes.remove(key);
+            tableKeys.remove(key);
+            if (tableHash != null && tableHash == hashes[idx]) {
+                unchangedRows++;
+                continue;
+            }
+            changes.insert(rows.get(idx));
+            changedRows++;
+        }
+
+        for (InternalRow id : tableKeys.values()) {
+            changes.delete(null, id);
+            deletedRows++;
+        }
+    }
+
+    private static long readUint64(ValueReader reader) {
+        if (reader.getType().getKind() == Type.Kind.OPTIONAL) {
+            return reader.isOptionalItemPresent() ? reader.getOptionalItem().getUint64() : 0;
+        }
+        return reader.getUint64();
+    }
+}
@@ -0,0 +1,129 @@
+package tech.ydb.spark.connector.write;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.connector.write.DataWriter;
+import org.apache.spark.sql.connector.write.DataWriterFactory;
+import org.apache.spark.sql.connector.write.WriterCommitMessage;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tech.ydb.common.transaction.TxMode;
+import tech.ydb.spark.connector.YdbTable;
+import tech.ydb.spark.connector.YdbTypes;
+import tech.ydb.spark.connector.common.FieldInfo;
+import tech.ydb.spark.connector.common.IngestMethod;
+import tech.ydb.spark.connector.common.KeysRange;
+import tech.ydb.spark.connector.common.OperationOption;
+import tech.ydb.spark.connector.read.SelectQuery;
+import tech.ydb.spark.connector.read.YdbPartition;
+
+/**
+ * Factory of the writers of the method SYNC. The written rows must be range partitioned and sorted by the primary
+ * key, so every task covers the continuous range of keys. The tasks compare their ranges with the table, the keys
+ * between the ranges of the tasks are deleted by the driver on commit.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+public class YdbSyncWriterFactory implements DataWriterFactory {
+    private static final long serialVersionUID = 2391876254308810623L;
+
+    private static final Logger logger = LoggerFactory.getLogger(YdbSyncWriterFactory.class);
+
+    private static final int CHUNK_ROWS = 10000;
+    private static final int CONCURRENCY = 8;
+
+    private final YdbTable table;
+    private final YdbTypes types;
+    private final YdbDataWriterFactory upserts;
+    private final YdbDataWriterFactory deletes;
+    private final int chunkRows;
+    private final int concurrency;
+
+    public YdbSyncWriterFactory(YdbTable table, StructType schema, CaseInsensitiveStringMap options) {
+        if (table.getType() == YdbTable.Type.INDEX) {
+            throw new UnsupportedOperationException("Method " + IngestMethod.SYNC + " is not supported for index "
+                    + "table " + table.getTablePath());
+        }
+
+        List<StructField> keyFields = new ArrayList<>();
+        for (FieldInfo key : table.getKeyColumns()) {
+            if (!schema.getFieldIndex(key.getName()).isDefined()) {
+                throw new IllegalArgumentException("Method " + IngestMethod.SYNC + " requires the primary key "
+                        + "column " + key.getName() + " of table " + table);
+            }
+            keyFields.add(schema.apply(key.getName()));
+        }
+
+        this.table = table;
+        this.types = new YdbTypes(options);
+        this.chunkRows = Math.max(1, OperationOption.SYNC_CHUNK_ROWS.readInt(options, CHUNK_ROWS));
+        this.concurrency = Math.max(1, OperationOption.DELETE_CONCURRENCY.readInt(options, CONCURRENCY));
+
+        Map<String, String> upsertOptions = new HashMap<>(options);
+        OperationOption.INGEST_METHOD.write(upsertOptions, IngestMethod.BULK_UPSERT.name());
+        this.upserts = new YdbDataWriterFactory(table, schema, new CaseInsensitiveStringMap(upsertOptions));
+
+        Map<String, String> deleteOptions = new HashMap<>(options);
+        OperationOption.INGEST_METHOD.write(deleteOptions, IngestMethod.DELETE_ON.name());
+        this.deletes = new YdbDataWriterFactory(table, new StructType(keyFields.toArray(new StructField[0])),
+                new CaseInsensitiveStringMap(deleteOptions));
+
+        // unsupported column types are reported before the job is started
+        new YdbSyncHash(upserts.buildColumns(0));
+    }
+
+    @Override
+    public DataWriter<InternalRow> createWriter(int partitionId, long taskId) {
+        YdbDeltaWriter changes = new YdbDeltaWriter(
+                () -> upserts.createWriter(partitionId, taskId),
+                () -> deletes.createWriter(partitionId, taskId)
+        );
+        List<ColumnEntry> columns = upserts.buildColumns(partitionId);
+        return new YdbSyncWriter(table, types, columns, chunkRows, changes);
+    }
+
+    /**
+     * Deletes the rows with the keys before, between and after the key ranges of the tasks.
+     *
+     * @param messages commit messages of the tasks
+     */
+    public void deleteMissingRanges(WriterCommitMessage[] messages) {
+        List<YdbSyncCommit> ranges = new ArrayList<>();
+        for (WriterCommitMessage message : messages) {
+            if (message instanceof YdbSyncCommit && ((YdbSyncCommit) message).getFirstKey() != null) {
+                ranges.add((YdbSyncCommit) message);
+            }
+        }
+        ranges.sort((r1, r2) -> KeysRange.compareValues(r1.getFirstKey(), r2.getFirstKey()));
+
+        List<SelectQuery> gaps = new ArrayList<>();
+        Serializable[] from = null;
+        for (YdbSyncCommit range : ranges) {
+            addGap(gaps, from, range.getFirstKey());
+            from = range.getLastKey();
+        }
+        addGap(gaps, from, null);
+
+        YdbPartitionedStatement delete = new YdbPartitionedStatement(table.getCtx().getExecutor(), gaps,
+                q -> q.toDeleteQuery(false), TxMode.SERIALIZABLE_RW);
+        logger.info("deleting missing rows of table {} by {} statements", table.getTablePath(), delete.size());
+        delete.execute(concurrency).expectSuccess("Cannot delete missing rows from table " + table.getTablePath());
+    }
+
+    private void addGap(List<SelectQuery> gaps, Serializable[] from, Serializable[] to) {
+        KeysRange range = new KeysRange(from, false, to, false);
+        if (range.isEmpty()) {
+            return;
+        }
+        gaps.add(YdbPartition.keysRange(types, table.getKeyColumns(), range).makeQuery(new SelectQuery(table)));
+    }
+}
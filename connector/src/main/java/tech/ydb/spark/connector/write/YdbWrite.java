@@ -1,12 +1,24 @@
 package tech.ydb.spark.connector.write;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.apache.spark.sql.connector.distributions.Distribution;
+import org.apache.spark.sql.connector.distributions.Distributions;
+import org.apache.spark.sql.connector.expressions.Expression;
+import org.apache.spark.sql.connector.expressions.Expressions;
+import org.apache.spark.sql.connector.expressions.FieldReference;
+import org.apache.spark.sql.connector.expressions.SortDirection;
+import org.apache.spark.sql.connector.expressions.SortOrder;
+import org.apache.spark.sql.connector.metric.CustomMetric;
 import org.apache.spark.sql.connector.write.BatchWrite;
 import org.apache.spark.sql.connector.write.DataWriterFactory;
 import org.apache.spark.sql.connector.write.LogicalWriteInfo;
 import org.apache.spark.sql.connector.write.PhysicalWriteInfo;
+import org.apache.spark.sql.connector.write.RequiresDistributionAndOrdering;
 import org.apache.spark.sql.connector.write.SupportsTruncate;
 import org.apache.spark.sql.connector.write.Write;
 import org.apache.spark.sql.connector.write.WriteBuilder;
@@ -17,13 +29,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import tech.ydb.spark.connector.YdbTable;
+import tech.ydb.spark.connector.YdbTypes;
+import tech.ydb.spark.connector.common.FieldInfo;
+import tech.ydb.spark.connector.common.IngestMethod;
+import tech.ydb.spark.connector.common.OperationOption;
+import tech.ydb.spark.connector.impl.GovernorWaitMetric;
+import tech.ydb.spark.connector.impl.YdbShadowTable;
+import tech.ydb.table.description.TableDescription;
 
 /**
  * YDB table writer: orchestration and partition writer factory.
  *
  * @author zinal
  */
-public class YdbWrite implements WriteBuilder, SupportsTruncate, Write, BatchWrite {
+public class YdbWrite implements WriteBuilder, SupportsTruncate, Write, BatchWrite, RequiresDistributionAndOrdering {
 
     private static final Logger logger = LoggerFactory.getLogger(YdbWrite.class);
 
@@ -32,6 +51,10 @@ public class YdbWrite implements WriteBuilder, SupportsTruncate, Write, BatchWri
     private final CaseInsensitiveStringMap options;
     private final boolean truncate;
 
+    private YdbShadowTable shadow = null;
+    private YdbStagedLoad staged = null;
+    private YdbSyncWriterFactory sync = null;
+
     private YdbWrite(YdbTable table, StructType schema, CaseInsensitiveStringMap options, boolean truncate) {
         this.table = table;
         this.schema = schema;
@@ -60,12 +83,69 @@ public class YdbWrite implements WriteBuilder, SupportsTruncate, Write, BatchWri
         return new YdbWrite(table, schema, options, true);
     }
 
+    @Override
+    public Distribution requiredDistribution() {
+        if (!isSync() && !OperationOption.WRITE_DISTRIBUTE.readBoolean(options, false)) {
+            return Distributions.unspecified();
+        }
+
+        SortOrder[] keys = keySortOrder();
+        if (keys.length == 0) {
+            return Distributions.unspecified();
+        }
+
+        // every sync task must get the continuous range of keys
+        if (!isSync() && table.getType() == YdbTable.Type.COLUMN) {
+            // column tables are sharded by the hash of the key
+            Expression[] clustering = Arrays.stream(keys).map(SortOrder::expression).toArray(Expression[]::new);
+            return Distributions.clustered(clustering);
+        }
+
+        // range partitioning by the primary key is as close as possible to the table partitioning
+        return Distributions.ordered(keys);
+    }
+
+    @Override
+    public int requiredNumPartitions() {
+        if (!isSync() && !OperationOption.WRITE_DISTRIBUTE.readBoolean(options, false)) {
+            return 0;
+        }
+        // by default Spark keeps its own parallelism, a new or single-shard table must not make the write serial
+        return Math.max(0, OperationOption.WRITE_PARTITIONS.readInt(options, 0));
+    }
+
+    @Override
+    public SortOrder[] requiredOrdering() {
+        if (!isSync() && !OperationOption.WRITE_SORT.readBoolean(options, false)) {
+            return new SortOrder[0];
+        }
+        return keySortOrder();
+    }
+
+    private SortOrder[] keySortOrder() {
+        List<String> fields = Arrays.asList(schema.fieldNames());
+        List<SortOrder> keys = new ArrayList<>();
+        for (FieldInfo key : table.getKeyColumns()) {
+            // the auto-generated key is not the part of the written rows
+            if (!fields.contains(key.getName())) {
+                break;
+            }
+            keys.add(Expressions.sort(FieldReference.column(key.getName()), SortDirection.ASCENDING));
+        }
+        return keys.toArray(new SortOrder[0]);
+    }
+
     @Override
     public BatchWrite toBatch() {
         logger.trace("YdbWrite converted to BatchWrite for table {}", table.getTablePath());
         return this;
     }
 
+    @Override
+    public CustomMetric[] supportedCustomMetrics() {
+        return new CustomMetric[] {new GovernorWaitMetric()};
+    }
+
     @Override
     public void onDataWriterCommit(WriterCommitMessage message) {
     }
@@ -73,21 +153,73 @@ public class YdbWrite implements WriteBuilder, SupportsTruncate, Write, BatchWri
     @Override
     public DataWriterFactory createBatchWriterFactory(PhysicalWriteInfo physicalInfo) {
         logger.trace("YdbWrite converted to DataWriterFactory for table {}", table.getTablePath());
-        YdbDataWriterFactory factory = new YdbDataWriterFactory(table, schema, options);
-        // TODO: create the COW copy of the destination table
-        if (truncate) {
+        if (isSync()) {
+            // the table becomes equal to the written rows anyway
+            if (truncate) {
+                logger.info("Truncation of table {} is skipped by method SYNC", table.getTablePath());
+            }
+            sync = new YdbSyncWriterFactory(table, schema, options);
+            return sync;
+        }
+
+        YdbTable target = table;
+        if (truncate && OperationOption.TABLE_SHADOW.readBoolean(options, false)) {
+            // readers see the original table until the load is committed
+            boolean deferIndexes = OperationOption.TABLE_DEFER_INDEXES.readBoolean(options, false);
+            shadow = new YdbShadowTable(table.getCtx().getExecutor(), table.getTablePath(), deferIndexes);
+            TableDescription td = shadow.create();
+            target = new YdbTable(table.getCtx(), new YdbTypes(options), table.name(), shadow.getShadowPath(), td,
+                    options);
+        } else if (truncate) {
             table.truncateTable();
         }
-        return factory;
+
+        if (isStagedLoad(target)) {
+            staged = new YdbStagedLoad(target, schema, options);
+            Map<String, String> stagedOptions = new HashMap<>(options);
+            OperationOption.INGEST_METHOD.write(stagedOptions, IngestMethod.BULK_UPSERT.name());
+            return new YdbDataWriterFactory(staged.create(), schema, new CaseInsensitiveStringMap(stagedOptions));
+        }
+        return new YdbDataWriterFactory(target, schema, options);
     }
 
     @Override
     public void commit(WriterCommitMessage[] messages) {
-        // TODO: replace the original table with its copy
+        if (sync != null) {
+            sync.deleteMissingRanges(messages);
+        }
+        if (staged != null) {
+            staged.merge();
+        }
+        if (shadow != null) {
+            shadow.replace();
+        }
     }
 
     @Override
     public void abort(WriterCommitMessage[] messages) {
-        // TODO: remove the COW copy
+        if (staged != null) {
+            staged.drop();
+        }
+        if (shadow != null) {
+            shadow.drop();
+        }
+    }
+
+    private boolean isSync() {
+        return OperationOption.INGEST_METHOD.readEnum(options, IngestMethod.BULK_UPSERT) == IngestMethod.SYNC;
+    }
+
+    private boolean isStagedLoad(YdbTable target) {
+        if (!OperationOption.TABLE_STAGED.readBoolean(options, false) || target.isBulkUpsertAllowed()) {
+            return false;
+        }
+        // the rows are moved by UPSERT, so only the upserting methods keep their semantics
+        IngestMethod method = OperationOption.INGEST_METHOD.readEnum(options, IngestMethod.BULK_UPSERT);
+        if (method != IngestMethod.BULK_UPSERT && method != IngestMethod.UPSERT) {
+            logger.warn("Staged load was disabled because it is not supported with method {}", method);
+            return false;
+        }
+        return target.getType() == YdbTable.Type.ROW;
     }
 }
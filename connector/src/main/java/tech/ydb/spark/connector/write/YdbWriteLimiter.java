@@ -0,0 +1,186 @@
+package tech.ydb.spark.connector.write;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limits the count of in-flight batches, their total size and the batch size of one data writer. In the adaptive
+ * mode the count and the batch size are increased additively while the batch latency stays under the target and
+ * are cut in half when the server reports an overload.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+class YdbWriteLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(YdbWriteLimiter.class);
+
+    private final boolean adaptive;
+    private final int maxConcurrency;
+    private final int minRows;
+    private final int maxRows;
+    private final int rowsStep;
+    private final long targetLatencyMs;
+    private final long maxInFlightBytes;
+
+    private double concurrency;
+    private int batchRows;
+    // the largest batch size which is known to be accepted by the server
+    private int safeRows = Integer.MAX_VALUE;
+    private int inFlight = 0;
+    private long inFlightBytes = 0;
+    private long lastDecreaseAt = 0;
+
+    private YdbWriteLimiter(boolean adaptive, int concurrency, int maxConcurrency, int batchRows, int maxRows,
+            long targetLatencyMs, long maxInFlightBytes) {
+        this.adaptive = adaptive;
+        this.concurrency = Math.max(1, concurrency);
+        this.maxConcurrency = Math.max((int) this.concurrency, maxConcurrency);
+        this.batchRows = Math.max(1, batchRows);
+        this.maxRows = Math.max(this.batchRows, maxRows);
+        this.minRows = Math.max(1, this.batchRows / 16);
+        this.rowsStep = Math.max(1, this.batchRows / 10);
+        this.targetLatencyMs = targetLatencyMs;
+        this.maxInFlightBytes = maxInFlightBytes;
+    }
+
+    static YdbWriteLimiter fixed(int concurrency, long maxInFlightBytes) {
+        // batch size is controlled by the writer itself
+        return new YdbWriteLimiter(false, concurrency, concurrency, Integer.MAX_VALUE, Integer.MAX_VALUE, 0,
+                maxInFlightBytes);
+    }
+
+    static YdbWriteLimiter adaptive(int concurrency, int maxConcurrency, int batchRows, int maxRows,
+            long targetLatencyMs, long maxInFlightBytes) {
+        return new YdbWriteLimiter(true, concurrency, maxConcurrency, batchRows, maxRows, targetLatencyMs,
+                maxInFlightBytes);
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    public synchronized int getConcurrency() {
+        return (int) concurrency;
+    }
+
+    public synchronized int getBatchRows() {
+        return batchRows;
+    }
+
+    public synchronized void acquire() {
+        boolean interrupted = false;
+        while (inFlight >= (int) concurrency) {
+            try {
+                wait();
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        inFlight++;
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Takes one more in-flight slot only if it is available right now.
+     *
+     * @return true if the slot was taken and must be released
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) concurrency) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    public synchronized void release() {
+        inFlight--;
+        notifyAll();
+    }
+
+    /**
+     * Reserves the memory for the detached batch until it is written. A batch which is larger than the whole
+     * budget is allowed when nothing else is in flight.
+     *
+     * @param bytes estimated size of the batch
+     */
+    public synchronized void acquireBytes(long bytes) {
+        boolean interrupted = false;
+        while (inFlightBytes > 0 && inFlightBytes + bytes > maxInFlightBytes) {
+            try {
+                wait();
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        inFlightBytes += bytes;
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public synchronized void releaseBytes(long bytes) {
+        inFlightBytes -= bytes;
+        notifyAll();
+    }
+
+    public synchronized void awaitAll() {
+        boolean interrupted = false;
+        while (inFlight > 0 || inFlightBytes > 0) {
+            try {
+                wait();
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public synchronized void onSuccess(long latencyMs) {
+        if (!adaptive || latencyMs > targetLatencyMs) {
+            return;
+        }
+
+        // additive increase, concurrency grows by one per window of successful batches
+        concurrency = Math.min(maxConcurrency, concurrency + 1.0d / concurrency);
+        batchRows = Math.min(Math.min(maxRows, safeRows), batchRows + rowsStep);
+        notifyAll();
+    }
+
+    /**
+     * Limits the batch size for the rest of the task after the batch has been split.
+     *
+     * @param rows size of the split batch half
+     */
+    public synchronized void onSplit(int rows) {
+        safeRows = Math.max(1, Math.min(safeRows, rows));
+        batchRows = Math.min(batchRows, safeRows);
+    }
+
+    public synchronized void onOverload() {
+        if (!adaptive) {
+            return;
+        }
+
+        // all batches in flight see the same overload, so the limits are cut once per latency window
+        long now = System.currentTimeMillis();
+        if (now - lastDecreaseAt < targetLatencyMs) {
+            return;
+        }
+        lastDecreaseAt = now;
+
+        concurrency = Math.max(1, concurrency / 2);
+        batchRows = Math.max(minRows, batchRows / 2);
+        logger.debug("server is overloaded, decreased concurrency to {} and batch size to {} rows",
+                (int) concurrency, batchRows);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "YdbWriteLimiter{adaptive=" + adaptive + ", concurrency=" + (int) concurrency
+                + ", batchRows=" + batchRows + ", maxInFlightBytes=" + maxInFlightBytes + "}";
+    }
+}
@@ -1,25 +1,83 @@
 package tech.ydb.spark.connector.write;
 
 import java.util.concurrent.CompletableFuture;
-import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 import org.apache.spark.sql.catalyst.InternalRow;
 
 import tech.ydb.core.Status;
-import tech.ydb.table.Session;
 
 interface YdbWriter extends AutoCloseable {
-    interface Batch extends Function<Session, CompletableFuture<Status>> {
+    interface Batch {
         int rowsCount();
         int bytesSize();
+
+        /**
+         * Sends the batch to YDB with retries.
+         *
+         * @param onAttempt check of the result of every attempt
+         * @return future of the final status, its cancellation stops the retries
+         */
+        CompletableFuture<Status> write(UnaryOperator<Status> onAttempt);
+
+        /**
+         * Splits the batch into two halves with the same rows.
+         *
+         * @return two halves or null if the batch cannot be split
+         */
+        default Batch[] split() {
+            return null;
+        }
+    }
+
+    /**
+     * Rows detached from the writer buffer, which are not serialized yet. The serialization may be executed by
+     * any thread, the writer keeps accepting new rows meanwhile.
+     */
+    interface PendingBatch {
+        int rowsCount();
+        int estimatedSize();
+        Batch serialize();
     }
 
     void appendRow(InternalRow record);
 
     boolean needToFlush();
 
+    /**
+     * Count of rows of the batch which would be detached next. The adaptive batch size is compared with it, not with
+     * all buffered rows, because the sharded writer keeps a separate buffer for every shard.
+     *
+     * @return count of rows of the next batch
+     */
+    int nextBatchRows();
+
     Batch buildNextBatch();
 
+    default PendingBatch detachNextBatch() {
+        Batch batch = buildNextBatch();
+        if (batch == null) {
+            return null;
+        }
+
+        return new PendingBatch() {
+            @Override
+            public int rowsCount() {
+                return batch.rowsCount();
+            }
+
+            @Override
+            public int estimatedSize() {
+                return batch.bytesSize();
+            }
+
+            @Override
+            public Batch serialize() {
+                return batch;
+            }
+        };
+    }
+
     @Override
     void close();
 }
@@ -1,14 +1,47 @@
 package tech.ydb.spark.connector.write;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
-import java.time.LocalDate;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.UnaryOperator;
 
+import com.google.protobuf.ByteString;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.FixedSizeBinaryVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.TimeStampVector;
+import org.apache.arrow.vector.TinyIntVector;
+import org.apache.arrow.vector.UInt1Vector;
+import org.apache.arrow.vector.UInt2Vector;
+import org.apache.arrow.vector.UInt4Vector;
+import org.apache.arrow.vector.UInt8Vector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.ipc.ReadChannel;
+import org.apache.arrow.vector.ipc.WriteChannel;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.ipc.message.MessageSerializer;
+import org.apache.arrow.vector.types.pojo.Schema;
 import org.apache.spark.sql.catalyst.InternalRow;
-import org.apache.spark.sql.catalyst.util.DateTimeUtils;
 import org.apache.spark.sql.types.DataType;
 import org.apache.spark.sql.types.DataTypes;
 import org.apache.spark.sql.types.Decimal;
@@ -16,6 +49,7 @@ import org.apache.spark.sql.util.ArrowUtils;
 import org.apache.spark.unsafe.types.UTF8String;
 
 import tech.ydb.core.Status;
+import tech.ydb.spark.connector.impl.SparkSessionRetryContext;
 import tech.ydb.table.Session;
 import tech.ydb.table.query.arrow.ApacheArrowData;
 import tech.ydb.table.query.arrow.ApacheArrowWriter;
@@ -27,33 +61,61 @@ import tech.ydb.table.values.Type;
 /**
  * Encodes Spark rows as Apache Arrow IPC payloads and ships them via {@code BulkUpsert}.
  *
+ * <p>The Arrow schema is built once by the SDK's {@link ApacheArrowWriter}, so the columns keep the YDB-specific
+ * Arrow type mapping (Date as UInt16, Datetime as UInt32 and so on). The vectors are filled by the writer itself:
+ * every column writer is compiled for its vector and reads the cell by ordinal, the UTF-8 bytes are copied as is and
+ * the dates, timestamps and UUIDs are stored as numbers without the intermediate Java objects. The vectors of the
+ * serialized batches are reset and reused by the next batches.
+ *
  * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
  */
 public class YdbWriterArrow implements YdbWriter {
+    private static final int UUID_TEXT_SIZE = 36;
+    // the unscaled value of the decimal with such precision fits into long
+    private static final int MAX_LONG_DIGITS = 18;
+
     private final List<ColumnEntry> columns;
+    private final SparkSessionRetryContext<Session> retryCtx;
     private final String tablePath;
-    private final ApacheArrowWriter arrowWriter;
+    private final Schema schema;
+    private final ByteString schemaBytes;
     private final BulkUpsertSettings settings = new BulkUpsertSettings();
     private final int maxRowsCount;
     private final int maxBytesSize;
 
-    private ApacheArrowWriter.Batch batch;
+    // guarded by itself, the vectors of the serialized batches which are ready to be reused
+    private final Deque<VectorBuffer> released = new ArrayDeque<>();
+    // guarded by released
+    private boolean closed = false;
+
+    private VectorBuffer buffer;
     private int rowsCount = 0;
     private int bytesSize = 0;
 
-    public YdbWriterArrow(String tablePath, List<ColumnEntry> columns, int maxRowsCount, int maxBytesSize) {
+    public YdbWriterArrow(SparkSessionRetryContext<Session> retryCtx, String tablePath, List<ColumnEntry> columns,
+            int maxRowsCount, int maxBytesSize) {
         this.columns = columns;
+        this.retryCtx = retryCtx;
         this.tablePath = tablePath;
         this.maxRowsCount = maxRowsCount;
         this.maxBytesSize = maxBytesSize;
 
-        ApacheArrowWriter.Schema schema = ApacheArrowWriter.newSchema();
+        ApacheArrowWriter.Schema sdkSchema = ApacheArrowWriter.newSchema();
         for (ColumnEntry column: columns) {
-            schema.addColumn(column.getName(), column.getType());
+            sdkSchema.addColumn(column.getName(), column.getType());
+        }
+
+        ApacheArrowWriter sdkWriter = sdkSchema.createWriter(ArrowUtils.rootAllocator());
+        try {
+            this.schemaBytes = sdkWriter.createNewBatch(0).buildBatch().getSchema();
+            this.schema = readSchema(schemaBytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to build Arrow schema", ex);
+        } finally {
+            sdkWriter.close();
         }
 
-        this.arrowWriter = schema.createWriter(ArrowUtils.rootAllocator());
-        this.batch = arrowWriter.createNewBatch(0);
+        this.buffer = new VectorBuffer();
     }
 
     @Override
@@ -63,9 +125,8 @@ public class YdbWriterArrow implements YdbWriter {
 
     @Override
     public void appendRow(InternalRow record) {
-        ApacheArrowWriter.Row row = batch.writeNextRow();
-        for (ColumnEntry column: columns) {
-            bytesSize += writeValue(column, row, record);
+        for (CellWriter writer: buffer.writers) {
+            bytesSize += writer.write(record, rowsCount);
         }
         rowsCount++;
     }
@@ -75,42 +136,146 @@ public class YdbWriterArrow implements YdbWriter {
         return bytesSize >= maxBytesSize || rowsCount >= maxRowsCount;
     }
 
+    @Override
+    public int nextBatchRows() {
+        return rowsCount;
+    }
+
     @Override
     public void close() {
-        arrowWriter.close();
+        synchronized (released) {
+            closed = true;
+            released.forEach(VectorBuffer::close);
+            released.clear();
+        }
+        buffer.close();
     }
 
     @Override
     public Batch buildNextBatch() {
+        PendingBatch pending = detachNextBatch();
+        return pending != null ? pending.serialize() : null;
+    }
+
+    @Override
+    public PendingBatch detachNextBatch() {
         if (rowsCount <= 0) {
             return null;
         }
-        try {
-            Batch next = new Batch() {
-                private final int count = rowsCount;
-                private final ApacheArrowData data = batch.buildBatch();
-                @Override
-                public int rowsCount() {
-                    return count;
-                }
 
-                @Override
-                public int bytesSize() {
-                    return data.getData().size() + data.getSchema().size();
-                }
+        VectorBuffer detached = buffer;
+        int count = rowsCount;
+        int estimated = bytesSize;
 
-                @Override
-                public CompletableFuture<Status> apply(Session session) {
-                    return session.executeBulkUpsert(tablePath, data, settings);
+        // the detached vectors may still be serialized by another thread, they are reused only after that
+        buffer = nextBuffer();
+        rowsCount = 0;
+        bytesSize = 0;
+
+        return new PendingBatch() {
+            @Override
+            public int rowsCount() {
+                return count;
+            }
+
+            @Override
+            public int estimatedSize() {
+                return estimated;
+            }
+
+            @Override
+            public Batch serialize() {
+                try {
+                    return createBatch(count, new ApacheArrowData(schemaBytes, detached.serialize(count)));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException("Failed to serialize Arrow batch", ex);
+                } finally {
+                    release(detached);
                 }
-            };
+            }
+        };
+    }
 
-            rowsCount = 0;
-            bytesSize = 0;
-            batch = arrowWriter.createNewBatch(0);
-            return next;
-        } catch (IOException ex) {
-            throw new UncheckedIOException("Failed to serialize Arrow batch", ex);
+    private VectorBuffer nextBuffer() {
+        synchronized (released) {
+            VectorBuffer reused = released.poll();
+            return reused != null ? reused : new VectorBuffer();
+        }
+    }
+
+    private void release(VectorBuffer serialized) {
+        synchronized (released) {
+            if (closed) {
+                serialized.close();
+                return;
+            }
+            serialized.reset();
+            released.push(serialized);
+        }
+    }
+
+    private Batch createBatch(int count, ApacheArrowData data) {
+        return new Batch() {
+            @Override
+            public int rowsCount() {
+                return count;
+            }
+
+            @Override
+            public int bytesSize() {
+                return data.getData().size() + data.getSchema().size();
+            }
+
+            @Override
+            public CompletableFuture<Status> write(UnaryOperator<Status> onAttempt) {
+                return retryCtx.supplyStatus(session -> session.executeBulkUpsert(tablePath, data, settings),
+                        onAttempt);
+            }
+        };
+    }
+
+    private static Schema readSchema(ByteString bytes) throws IOException {
+        try (InputStream is = bytes.newInput()) {
+            try (ReadChannel channel = new ReadChannel(Channels.newChannel(is))) {
+                return MessageSerializer.deserializeSchema(channel);
+            }
+        }
+    }
+
+    /**
+     * Vectors of one batch with the column writers compiled for them.
+     */
+    private final class VectorBuffer {
+        private final VectorSchemaRoot root = VectorSchemaRoot.create(schema, ArrowUtils.rootAllocator());
+        private final CellWriter[] writers = new CellWriter[columns.size()];
+
+        VectorBuffer() {
+            root.allocateNew();
+            for (int idx = 0; idx < writers.length; idx++) {
+                ColumnEntry column = columns.get(idx);
+                writers[idx] = compile(column, root.getVector(column.getName()));
+            }
+        }
+
+        ByteString serialize(int count) throws IOException {
+            root.setRowCount(count);
+            ByteString.Output out = ByteString.newOutput();
+            try (ArrowRecordBatch batch = new VectorUnloader(root).getRecordBatch()) {
+                MessageSerializer.serialize(new WriteChannel(Channels.newChannel(out)), batch);
+            }
+            return out.toByteString();
+        }
+
+        void reset() {
+            // the allocated buffers are kept for the next batch
+            for (FieldVector vector: root.getFieldVectors()) {
+                vector.reset();
+            }
+            root.setRowCount(0);
+        }
+
+        void close() {
+            root.close();
         }
     }
 
@@ -118,163 +283,429 @@ public class YdbWriterArrow implements YdbWriter {
         return "Arrow ingestion does not support casting " + dataType + " to " + type;
     }
 
-    private static byte[] readBytes(InternalRow record, DataType dataType, Type type, int ordinal) {
-        if (!dataType.sameType(DataTypes.BinaryType)) {
-            throw new IllegalArgumentException(castMsg(dataType, type));
-        }
-        return (byte[]) record.get(ordinal, dataType);
+    private static CellWriter unsupported(String message) {
+        return (record, row) -> {
+            throw new IllegalArgumentException(message);
+        };
     }
 
-    @SuppressWarnings("MethodLength")
-    private static int writeValue(ColumnEntry column, ApacheArrowWriter.Row row, InternalRow record) {
+    private static CellWriter compile(ColumnEntry column, FieldVector vector) {
         DataType dataType = column.getDataType();
-        String name = column.getName();
         int ordinal = column.getOrdinal();
         Type type = column.getType();
 
         if (dataType == null) {
-            String randomKey = UUID.randomUUID().toString();
-            row.writeText(column.getName(), randomKey);
-            return randomKey.length();
+            return compileAutoPk(column.getAutoPk(), vector);
         }
 
+        boolean optional = false;
         while (type.getKind() == Type.Kind.OPTIONAL) {
+            optional = true;
+            type = type.unwrapOptional();
+        }
+
+        CellWriter writer = compileValue(dataType, type, ordinal, vector);
+        if (!optional) {
+            return writer;
+        }
+
+        NullSetter nulls = nullSetter(vector);
+        if (nulls == null) {
+            return unsupported("Arrow ingestion does not support optional type " + type);
+        }
+        int nullSize = dataType.defaultSize();
+        return (record, row) -> {
             if (record.isNullAt(ordinal)) {
-                row.writeNull(name);
-                return column.getDataType().defaultSize();
+                nulls.setNull(row);
+                return nullSize;
             }
-            type = type.unwrapOptional();
+            return writer.write(record, row);
+        };
+    }
+
+    private static CellWriter compileAutoPk(AutoPkGenerator autoPk, FieldVector vector) {
+        int size = autoPk.estimateSize();
+        switch (autoPk.getType()) {
+            case Uuid:
+                if (!(vector instanceof FixedSizeBinaryVector)) {
+                    return unsupported("Arrow ingestion does not support vector " + vector.getField());
+                }
+                FixedSizeBinaryVector uuids = (FixedSizeBinaryVector) vector;
+                byte[] uuid = new byte[16];
+                return (record, row) -> {
+                    UUID next = autoPk.nextUuid();
+                    writeUuid(uuid, next.getMostSignificantBits(), next.getLeastSignificantBits());
+                    uuids.setSafe(row, uuid);
+                    return size;
+                };
+            case Uint64:
+                LongSetter uint64 = longSetter(vector);
+                if (uint64 == null) {
+                    return unsupported("Arrow ingestion does not support vector " + vector.getField());
+                }
+                return (record, row) -> {
+                    uint64.set(row, autoPk.nextUint64());
+                    return size;
+                };
+            default:
+                if (!(vector instanceof BaseVariableWidthVector)) {
+                    return unsupported("Arrow ingestion does not support vector " + vector.getField());
+                }
+                BaseVariableWidthVector texts = (BaseVariableWidthVector) vector;
+                return (record, row) -> {
+                    byte[] text = autoPk.nextText().getBytes(StandardCharsets.UTF_8);
+                    texts.setSafe(row, text, 0, text.length);
+                    return size;
+                };
+        }
+    }
+
+    private static CellWriter compileDecimal(DataType dataType, DecimalType type, int ordinal, FieldVector vector) {
+        int scale = type.getScale();
+        int precision = dataType instanceof org.apache.spark.sql.types.DecimalType
+                ? ((org.apache.spark.sql.types.DecimalType) dataType).precision() : type.getPrecision();
+        int sparkScale = dataType instanceof org.apache.spark.sql.types.DecimalType
+                ? ((org.apache.spark.sql.types.DecimalType) dataType).scale() : scale;
+
+        if (vector instanceof DecimalVector) {
+            DecimalVector decimals = (DecimalVector) vector;
+            return (record, row) -> {
+                Decimal v = record.getDecimal(ordinal, precision, sparkScale);
+                if (v.scale() == scale && v.precision() <= MAX_LONG_DIGITS) {
+                    decimals.setSafe(row, v.toUnscaledLong());
+                } else {
+                    decimals.setSafe(row, v.toJavaBigDecimal().setScale(scale, RoundingMode.HALF_UP));
+                }
+                // YDB stores Decimal as array of 16 bytes
+                return 16;
+            };
+        }
+
+        if (vector instanceof FixedSizeBinaryVector) {
+            FixedSizeBinaryVector decimals = (FixedSizeBinaryVector) vector;
+            byte[] int128 = new byte[16];
+            return (record, row) -> {
+                Decimal v = record.getDecimal(ordinal, precision, sparkScale);
+                if (v.scale() == scale && v.precision() <= MAX_LONG_DIGITS) {
+                    long unscaled = v.toUnscaledLong();
+                    writeLittleEndian(int128, 0, unscaled);
+                    writeLittleEndian(int128, 8, unscaled >> 63);
+                } else {
+                    BigInteger unscaled = v.toJavaBigDecimal().setScale(scale, RoundingMode.HALF_UP).unscaledValue();
+                    writeLittleEndian(int128, 0, unscaled.longValue());
+                    writeLittleEndian(int128, 8, unscaled.shiftRight(64).longValue());
+                }
+                decimals.setSafe(row, int128);
+                return 16;
+            };
         }
 
+        return unsupported("Arrow ingestion does not support vector " + vector.getField());
+    }
+
+    @SuppressWarnings("MethodLength")
+    private static CellWriter compileValue(DataType dataType, Type type, int ordinal, FieldVector vector) {
         if (type.getKind() == Type.Kind.DECIMAL) {
-            DecimalType realType = (DecimalType) type;
-            Decimal v = record.getDecimal(ordinal, realType.getPrecision(), realType.getScale());
-            row.writeDecimal(name, realType.newValue(v.toJavaBigDecimal()));
-            // YDB stores Decimal as array of 16 bytes
-            return 16;
+            return compileDecimal(dataType, (DecimalType) type, ordinal, vector);
         }
 
         if (type.getKind() != Type.Kind.PRIMITIVE) {
-            throw new IllegalArgumentException("Arrow ingestion does not support type " + type);
+            return unsupported("Arrow ingestion does not support type " + type);
         }
 
+        String wrongVector = "Arrow ingestion does not support vector " + vector.getField() + " for type " + type;
+        LongSetter numbers = longSetter(vector);
+        BaseVariableWidthVector bytes = vector instanceof BaseVariableWidthVector
+                ? (BaseVariableWidthVector) vector : null;
+
         switch ((PrimitiveType) type) {
             case Bool:
-                row.writeBool(name, record.getBoolean(ordinal));
-                return 1;
+                if (numbers == null) {
+                    return unsupported(wrongVector);
+                }
+                return (record, row) -> {
+                    numbers.set(row, record.getBoolean(ordinal) ? 1 : 0);
+                    return 1;
+                };
             case Int8:
-                row.writeInt8(name, record.getByte(ordinal));
-                return 1;
+                if (numbers == null) {
+                    return unsupported(wrongVector);
+                }
+                return (record, row) -> {
+                    numbers.set(row, record.getByte(ordinal));
+                    return 1;
+                };
             case Int16:
-                row.writeInt16(name, record.getShort(ordinal));
-                return 2;
+                if (numbers == null) {
+                    return unsupported(wrongVector);
+                }
+                return (record, row) -> {
+                    numbers.set(row, record.getShort(ordinal));
+                    return 2;
+                };
             case Int32:
-                row.writeInt32(name, record.getInt(ordinal));
-                return 4;
+                if (numbers == null) {
+                    return unsupported(wrongVector);
+                }
+                return (record, row) -> {
+                    numbers.set(row, record.getInt(ordinal));
+                    return 4;
+                };
             case Int64:
-                row.writeInt64(name, record.getLong(ordinal));
-                return 8;
+                if (numbers == null) {
+                    return unsupported(wrongVector);
+                }
+                return (record, row) -> {
+                    numbers.set(row, record.getLong(ordinal));
+                    return 8;
+                };
             case Uint8:
-                row.writeUint8(name, record.getInt(ordinal));
-                return 1;
+                if (numbers == null) {
+                    return unsupported(wrongVector);
+                }
+                return (record, row) -> {
+                    numbers.set(row, record.getInt(ordinal));
+                    return 1;
+                };
             case Uint16:
-                row.writeUint16(name, record.getInt(ordinal));
-                return 2;
+                if (numbers == null) {
+                    return unsupported(wrongVector);
+                }
+                return (record, row) -> {
+                    numbers.set(row, record.getInt(ordinal));
+                    return 2;
+                };
             case Uint32:
-                row.writeUint32(name, record.getLong(ordinal));
-                return 4;
+                if (numbers == null) {
+                    return unsupported(wrongVector);
+                }
+                return (record, row) -> {
+                    numbers.set(row, record.getLong(ordinal));
+                    return 4;
+                };
             case Uint64:
-                Decimal uint64 = record.getDecimal(ordinal, 22, 0);
-                row.writeUint64(name, uint64.toJavaBigInteger().longValue());
-                return 8;
+                if (numbers == null) {
+                    return unsupported(wrongVector);
+                }
+                return (record, row) -> {
+                    Decimal uint64 = record.getDecimal(ordinal, 22, 0);
+                    numbers.set(row, uint64.toJavaBigInteger().longValue());
+                    return 8;
+                };
             case Float:
-                row.writeFloat(name, record.getFloat(ordinal));
-                return 4;
+                if (!(vector instanceof Float4Vector)) {
+                    return unsupported(wrongVector);
+                }
+                Float4Vector floats = (Float4Vector) vector;
+                return (record, row) -> {
+                    floats.setSafe(row, record.getFloat(ordinal));
+                    return 4;
+                };
             case Double:
-                row.writeDouble(name, record.getDouble(ordinal));
-                return 8;
+                if (!(vector instanceof Float8Vector)) {
+                    return unsupported(wrongVector);
+                }
+                Float8Vector doubles = (Float8Vector) vector;
+                return (record, row) -> {
+                    doubles.setSafe(row, record.getDouble(ordinal));
+                    return 8;
+                };
             case Text:
-                UTF8String text = record.getUTF8String(ordinal);
-                row.writeText(name, text.toString());
-                return text.numBytes();
             case Json:
-                UTF8String json = record.getUTF8String(ordinal);
-                row.writeJson(name, json.toString());
-                return json.numBytes();
             case JsonDocument:
-                UTF8String jsonDocument = record.getUTF8String(ordinal);
-                row.writeJsonDocument(name, jsonDocument.toString());
-                return jsonDocument.numBytes();
+                if (bytes == null) {
+                    return unsupported(wrongVector);
+                }
+                return (record, row) -> {
+                    // the UTF-8 bytes of the Spark string are copied without decoding, as Spark's ArrowWriter does
+                    UTF8String text = record.getUTF8String(ordinal);
+                    ByteBuffer buffer = text.getByteBuffer();
+                    bytes.setSafe(row, buffer, buffer.position(), text.numBytes());
+                    return text.numBytes();
+                };
             case Bytes:
-                byte[] bytes = readBytes(record, dataType, type, ordinal);
-                row.writeBytes(name, bytes);
-                return bytes.length;
             case Yson:
-                byte[] yson = readBytes(record, dataType, type, ordinal);
-                row.writeYson(name, yson);
-                return yson.length;
-            case Uuid:
-                UTF8String uuid = record.getUTF8String(ordinal);
-                row.writeUuid(name, UUID.fromString(uuid.toString()));
-                return 16;
-            case Date:
-                if (dataType.sameType(DataTypes.DateType)) {
-                    row.writeDate(name, LocalDate.ofEpochDay(record.getInt(ordinal)));
-                } else {
-                    throw new IllegalArgumentException(castMsg(dataType, type));
+                if (!dataType.sameType(DataTypes.BinaryType)) {
+                    return unsupported(castMsg(dataType, type));
                 }
-                return 2;
-            case Datetime:
-                if (dataType.sameType(DataTypes.TimestampType)) {
-                    row.writeDatetime(name, DateTimeUtils.microsToLocalDateTime(record.getLong(ordinal)));
-                } else {
-                    throw new IllegalArgumentException(castMsg(dataType, type));
+                if (bytes == null) {
+                    return unsupported(wrongVector);
                 }
-                return 4;
-            case Timestamp:
-                if (dataType.sameType(DataTypes.TimestampType)) {
-                    row.writeTimestamp(name, DateTimeUtils.microsToInstant(record.getLong(ordinal)));
-                } else {
-                    throw new IllegalArgumentException(castMsg(dataType, type));
+                return (record, row) -> {
+                    byte[] binary = record.getBinary(ordinal);
+                    bytes.setSafe(row, binary, 0, binary.length);
+                    return binary.length;
+                };
+            case Uuid:
+                if (!(vector instanceof FixedSizeBinaryVector)) {
+                    return unsupported(wrongVector);
                 }
-                return 8;
-//            case Interval:
-//                if (dataType.sameType(DataTypes.CalendarIntervalType)) {
-//                    row.writeInterval(name, Duration.ofMillis(record.getLong(ordinal)));
-//                } else {
-//                    throw new IllegalArgumentException(castMsg(dataType, type));
-//                }
-//                return 8;
+                FixedSizeBinaryVector uuids = (FixedSizeBinaryVector) vector;
+                byte[] uuid = new byte[16];
+                return (record, row) -> {
+                    parseUuid(record.getUTF8String(ordinal), uuid);
+                    uuids.setSafe(row, uuid);
+                    return 16;
+                };
+            case Date:
             case Date32:
-                if (dataType.sameType(DataTypes.DateType)) {
-                    row.writeDate32(name, LocalDate.ofEpochDay(record.getInt(ordinal)));
-                } else {
-                    throw new IllegalArgumentException(castMsg(dataType, type));
+                if (!dataType.sameType(DataTypes.DateType)) {
+                    return unsupported(castMsg(dataType, type));
                 }
-                return 4;
+                if (numbers == null) {
+                    return unsupported(wrongVector);
+                }
+                int dateSize = type == PrimitiveType.Date ? 2 : 4;
+                return (record, row) -> {
+                    // both Spark and YDB keep the dates as days since the epoch
+                    numbers.set(row, record.getInt(ordinal));
+                    return dateSize;
+                };
+            case Datetime:
             case Datetime64:
-                if (dataType.sameType(DataTypes.TimestampType)) {
-                    row.writeDatetime64(name, DateTimeUtils.microsToLocalDateTime(record.getLong(ordinal)));
-                } else {
-                    throw new IllegalArgumentException(castMsg(dataType, type));
+                if (!dataType.sameType(DataTypes.TimestampType)) {
+                    return unsupported(castMsg(dataType, type));
+                }
+                if (numbers == null) {
+                    return unsupported(wrongVector);
                 }
-                return 8;
+                int datetimeSize = type == PrimitiveType.Datetime ? 4 : 8;
+                return (record, row) -> {
+                    numbers.set(row, Math.floorDiv(record.getLong(ordinal), 1_000_000L));
+                    return datetimeSize;
+                };
+            case Timestamp:
             case Timestamp64:
-                if (dataType.sameType(DataTypes.TimestampType)) {
-                    row.writeTimestamp64(name, DateTimeUtils.microsToInstant(record.getLong(ordinal)));
-                } else {
-                    throw new IllegalArgumentException(castMsg(dataType, type));
+                if (!dataType.sameType(DataTypes.TimestampType)) {
+                    return unsupported(castMsg(dataType, type));
+                }
+                if (numbers == null) {
+                    return unsupported(wrongVector);
                 }
-                return 8;
-//            case Interval64:
-//                if (dataType.sameType(DataTypes.CalendarIntervalType)) {
-//                    row.writeInterval64(name, Duration.ofMillis(record.getLong(ordinal)));
-//                } else {
-//                    throw new IllegalArgumentException(castMsg(dataType, type));
-//                }
-//                return 8;
+                return (record, row) -> {
+                    // both Spark and YDB keep the timestamps as microseconds since the epoch
+                    numbers.set(row, record.getLong(ordinal));
+                    return 8;
+                };
             default:
-                throw new IllegalArgumentException("Arrow ingestion does not support type " + type);
+                return unsupported("Arrow ingestion does not support type " + type);
+        }
+    }
+
+    private static LongSetter longSetter(FieldVector vector) {
+        if (vector instanceof BigIntVector) {
+            BigIntVector v = (BigIntVector) vector;
+            return v::setSafe;
+        }
+        if (vector instanceof UInt8Vector) {
+            UInt8Vector v = (UInt8Vector) vector;
+            return v::setSafe;
+        }
+        if (vector instanceof TimeStampVector) {
+            TimeStampVector v = (TimeStampVector) vector;
+            return v::setSafe;
+        }
+        if (vector instanceof IntVector) {
+            IntVector v = (IntVector) vector;
+            return (row, value) -> v.setSafe(row, (int) value);
+        }
+        if (vector instanceof UInt4Vector) {
+            UInt4Vector v = (UInt4Vector) vector;
+            return (row, value) -> v.setSafe(row, (int) value);
+        }
+        if (vector instanceof DateDayVector) {
+            DateDayVector v = (DateDayVector) vector;
+            return (row, value) -> v.setSafe(row, (int) value);
+        }
+        if (vector instanceof SmallIntVector) {
+            SmallIntVector v = (SmallIntVector) vector;
+            return (row, value) -> v.setSafe(row, (int) value);
+        }
+        if (vector instanceof UInt2Vector) {
+            UInt2Vector v = (UInt2Vector) vector;
+            return (row, value) -> v.setSafe(row, (int) value);
+        }
+        if (vector instanceof TinyIntVector) {
+            TinyIntVector v = (TinyIntVector) vector;
+            return (row, value) -> v.setSafe(row, (int) value);
+        }
+        if (vector instanceof UInt1Vector) {
+            UInt1Vector v = (UInt1Vector) vector;
+            return (row, value) -> v.setSafe(row, (int) value);
+        }
+        if (vector instanceof BitVector) {
+            BitVector v = (BitVector) vector;
+            return (row, value) -> v.setSafe(row, (int) value);
+        }
+        return null;
+    }
+
+    private static NullSetter nullSetter(FieldVector vector) {
+        if (vector instanceof BaseFixedWidthVector) {
+            return ((BaseFixedWidthVector) vector)::setNull;
+        }
+        if (vector instanceof BaseVariableWidthVector) {
+            return ((BaseVariableWidthVector) vector)::setNull;
         }
+        return null;
+    }
+
+    private static void parseUuid(UTF8String text, byte[] uuid) {
+        ByteBuffer buffer = text.getByteBuffer();
+        int pos = buffer.position();
+        if (text.numBytes() != UUID_TEXT_SIZE || buffer.get(pos + 8) != '-' || buffer.get(pos + 13) != '-'
+                || buffer.get(pos + 18) != '-' || buffer.get(pos + 23) != '-') {
+            // the non-canonical forms are rare, they are parsed by the JDK
+            UUID value = UUID.fromString(text.toString());
+            writeUuid(uuid, value.getMostSignificantBits(), value.getLeastSignificantBits());
+            return;
+        }
+
+        long msb = (parseHex(buffer, pos, 8) << 32) | (parseHex(buffer, pos + 9, 4) << 16)
+                | parseHex(buffer, pos + 14, 4);
+        long lsb = (parseHex(buffer, pos + 19, 4) << 48) | parseHex(buffer, pos + 24, 12);
+        writeUuid(uuid, msb, lsb);
+    }
+
+    private static long parseHex(ByteBuffer buffer, int from, int length) {
+        long value = 0;
+        for (int idx = from; idx < from + length; idx++) {
+            int digit = Character.digit(buffer.get(idx), 16);
+            if (digit < 0) {
+                throw new IllegalArgumentException("Invalid UUID character at position " + (idx - from));
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    /**
+     * Writes UUID in the YDB binary layout: time_low, time_mid and time_hi_and_version are little-endian, the rest
+     * of the bytes keep the order of the text form.
+     */
+    private static void writeUuid(byte[] uuid, long msb, long lsb) {
+        long timeLow = msb >>> 32;
+        long timeMid = (msb >>> 16) & 0xffff;
+        long timeHigh = msb & 0xffff;
+        writeLittleEndian(uuid, 0, timeLow | (timeMid << 32) | (timeHigh << 48));
+        writeLittleEndian(uuid, 8, Long.reverseBytes(lsb));
+    }
+
+    private static void writeLittleEndian(byte[] bytes, int offset, long value) {
+        for (int idx = 0; idx < 8; idx++) {
+            bytes[offset + idx] = (byte) (value >>> (idx * 8));
+        }
+    }
+
+    private interface CellWriter {
+        int write(InternalRow record, int row);
+    }
+
+    private interface LongSetter {
+        void set(int row, long value);
+    }
+
+    private interface NullSetter {
+        void setNull(int row);
     }
 }
@@ -2,20 +2,25 @@ package tech.ydb.spark.connector.write;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.UnaryOperator;
 
 import tech.ydb.core.Status;
 import tech.ydb.proto.ValueProtos;
 import tech.ydb.spark.connector.YdbTypes;
+import tech.ydb.spark.connector.impl.SparkSessionRetryContext;
 import tech.ydb.table.Session;
 import tech.ydb.table.query.BulkUpsertData;
 import tech.ydb.table.settings.BulkUpsertSettings;
 
 class YdbWriterBulkUpsert extends YdbWriterProtobuf {
+    private final SparkSessionRetryContext<Session> retryCtx;
     private final String tablePath;
     private final BulkUpsertSettings settings = new BulkUpsertSettings();
 
-    YdbWriterBulkUpsert(String tablePath, YdbTypes types, int maxRowsCount, int maxBytesSize, List<ColumnEntry> cols) {
+    YdbWriterBulkUpsert(SparkSessionRetryContext<Session> retryCtx, String tablePath, YdbTypes types,
+            int maxRowsCount, int maxBytesSize, List<ColumnEntry> cols) {
         super(types, cols, maxRowsCount, maxBytesSize);
+        this.retryCtx = retryCtx;
         this.tablePath = tablePath;
     }
 
@@ -25,7 +30,8 @@ class YdbWriterBulkUpsert extends YdbWriterProtobuf {
     }
 
     @Override
-    protected CompletableFuture<Status> writeData(Session session, ValueProtos.TypedValue data) {
-        return session.executeBulkUpsert(tablePath, new BulkUpsertData(data), settings);
+    protected CompletableFuture<Status> writeData(ValueProtos.TypedValue data, UnaryOperator<Status> onAttempt) {
+        BulkUpsertData bulkData = new BulkUpsertData(data);
+        return retryCtx.supplyStatus(session -> session.executeBulkUpsert(tablePath, bulkData, settings), onAttempt);
     }
 }
@@ -4,12 +4,14 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
-import tech.ydb.core.Result;
 import tech.ydb.core.Status;
 import tech.ydb.proto.ValueProtos;
 import tech.ydb.spark.connector.YdbTypes;
+import tech.ydb.spark.connector.common.IngestMethod;
+import tech.ydb.spark.connector.impl.SparkSessionRetryContext;
 import tech.ydb.table.Session;
 import tech.ydb.table.query.Params;
 import tech.ydb.table.settings.ExecuteDataQuerySettings;
@@ -18,44 +20,65 @@ import tech.ydb.table.values.Type;
 import tech.ydb.table.values.Value;
 
 class YdbWriterDataQuery extends YdbWriterProtobuf {
-    private final String command;
+    private final SparkSessionRetryContext<Session> retryCtx;
+    private final IngestMethod method;
     private final String tablePath;
     private final String query;
     private final ExecuteDataQuerySettings settings = new ExecuteDataQuerySettings();
 
-    YdbWriterDataQuery(String command, String tablePath, YdbTypes types, int maxRowsCount, int maxBytesSize,
-            List<ColumnEntry> columns) {
+    YdbWriterDataQuery(SparkSessionRetryContext<Session> retryCtx, IngestMethod method, String tablePath,
+            YdbTypes types, int maxRowsCount, int maxBytesSize, List<ColumnEntry> columns) {
         super(types, columns, maxRowsCount, maxBytesSize);
 
-        this.command = command;
+        this.retryCtx = retryCtx;
+        this.method = method;
         this.tablePath = tablePath;
+        this.query = buildQuery(method, tablePath, columns);
+    }
 
+    /**
+     * Builds the statement which applies the list of rows passed as the $input parameter to the table.
+     *
+     * @param method ingest method of the statement
+     * @param tablePath path of the table
+     * @param columns columns of the passed rows
+     * @return text of the statement
+     */
+    static String buildQuery(IngestMethod method, String tablePath, List<ColumnEntry> columns) {
         StringBuilder sb = new StringBuilder();
         sb.append("DECLARE $input AS List<Struct<");
         sb.append(columns.stream()
                 .map(c -> "`" + c.getName() + "`:" + c.getType())
                 .collect(Collectors.joining(",")));
         sb.append(">>;\n");
-        sb.append(command)
-                .append(" INTO `")
-                .append(tablePath)
-                .append("`  SELECT * FROM AS_TABLE($input);");
-
-        this.query = sb.toString();
+        switch (method) {
+            case UPDATE_ON:
+                sb.append("UPDATE `").append(tablePath).append("` ON");
+                break;
+            case DELETE_ON:
+                sb.append("DELETE FROM `").append(tablePath).append("` ON");
+                break;
+            default:
+                sb.append(method.name()).append(" INTO `").append(tablePath).append("` ");
+                break;
+        }
+        sb.append(" SELECT * FROM AS_TABLE($input);");
+        return sb.toString();
     }
 
     @Override
     public String toString() {
-        return "YdbWriterDataQuery[" + command + " to " + tablePath + "]";
+        return "YdbWriterDataQuery[" + method + " to " + tablePath + "]";
     }
 
     @Override
-    protected CompletableFuture<Status> writeData(Session session, ValueProtos.TypedValue data) {
-        return session.executeDataQuery(query, TxControl.serializableRw(), new OneValueParams(data), settings)
-                .thenApply(Result::getStatus);
+    protected CompletableFuture<Status> writeData(ValueProtos.TypedValue data, UnaryOperator<Status> onAttempt) {
+        Params params = new OneValueParams(data);
+        return retryCtx.supplyStatus(session -> session.executeDataQuery(query, TxControl.serializableRw(), params,
+                settings), result -> onAttempt.apply(result.getStatus()));
     }
 
-    private static class OneValueParams implements Params {
+    static class OneValueParams implements Params {
         private static final long serialVersionUID = 8114418145717751004L;
 
         private final ValueProtos.TypedValue value;
@@ -0,0 +1,160 @@
+package tech.ydb.spark.connector.write;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.spark.sql.catalyst.InternalRow;
+
+/**
+ * Keeps only the last version of each primary key in the batch. The rows are buffered in the order of the first
+ * appearance of their keys, the open-addressing index maps the key to the slot of the buffered row. The last-write-wins
+ * semantic is safe only for UPSERT, BULK_UPSERT and REPLACE.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+class YdbWriterDedup implements YdbWriter {
+    // the window of the huge batches is limited, the full buffer is passed to the writer as is
+    private static final int MAX_BUFFERED_ROWS = 1 << 20;
+
+    private final ColumnEntry[] keyColumns;
+    private final ColumnEntry[] columns;
+    private final YdbWriter writer;
+    private final int maxRowsCount;
+    private final int maxBytesSize;
+
+    private final InternalRow[] rows;
+    private final int[] hashes;
+    private final int[] sizes;
+    // slot index + 1 for each key, 0 is the empty cell
+    private final int[] index;
+    private final int mask;
+
+    private int count = 0;
+    private int bytesSize = 0;
+
+    YdbWriterDedup(List<ColumnEntry> keyColumns, List<ColumnEntry> columns, int maxRowsCount, int maxBytesSize,
+            YdbWriter writer) {
+        this.keyColumns = keyColumns.toArray(new ColumnEntry[0]);
+        this.columns = columns.toArray(new ColumnEntry[0]);
+        this.writer = writer;
+        this.maxRowsCount = Math.max(1, maxRowsCount);
+        this.maxBytesSize = maxBytesSize;
+
+        int buffered = Math.min(this.maxRowsCount, MAX_BUFFERED_ROWS);
+        this.rows = new InternalRow[buffered];
+        this.hashes = new int[buffered];
+        this.sizes = new int[buffered];
+        // load factor is kept below 0.5, the capacity is at most 4 * MAX_BUFFERED_ROWS
+        int capacity = Integer.highestOneBit(buffered) << 2;
+        this.index = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "YdbWriterDedup[" + writer + "]";
+    }
+
+    @Override
+    public void appendRow(InternalRow record) {
+        // Spark reuses the row object, so the buffered row must be copied
+        InternalRow row = record.copy();
+        int size = 0;
+        for (ColumnEntry column : columns) {
+            size += column.estimateSize(row);
+        }
+
+        int hash = keyHash(row);
+        int cell = hash & mask;
+        while (index[cell] != 0) {
+            int slot = index[cell] - 1;
+            if (hashes[slot] == hash && sameKey(rows[slot], row)) {
+                bytesSize += size - sizes[slot];
+                rows[slot] = row;
+                sizes[slot] = size;
+                return;
+            }
+            cell = (cell + 1) & mask;
+        }
+
+        if (count == rows.length) {
+            // the buffer is full and was not flushed, the previous versions are passed to the writer as is
+            moveRows();
+            cell = hash & mask;
+        }
+
+        rows[count] = row;
+        hashes[count] = hash;
+        sizes[count] = size;
+        index[cell] = ++count;
+        bytesSize += size;
+    }
+
+    @Override
+    public boolean needToFlush() {
+        return count >= maxRowsCount || bytesSize >= maxBytesSize || writer.needToFlush();
+    }
+
+    @Override
+    public int nextBatchRows() {
+        // the buffered rows are moved to the writer before the batch is detached
+        return count + writer.nextBatchRows();
+    }
+
+    @Override
+    public Batch buildNextBatch() {
+        moveRows();
+        return writer.buildNextBatch();
+    }
+
+    @Override
+    public PendingBatch detachNextBatch() {
+        moveRows();
+        // the batch reports only the rows which are really sent, the dropped versions are not written at all
+        return writer.detachNextBatch();
+    }
+
+    @Override
+    public void close() {
+        writer.close();
+    }
+
+    private void moveRows() {
+        if (count == 0) {
+            return;
+        }
+
+        for (int slot = 0; slot < count; slot++) {
+            writer.appendRow(rows[slot]);
+            rows[slot] = null;
+        }
+
+        Arrays.fill(index, 0);
+        count = 0;
+        bytesSize = 0;
+    }
+
+    private int keyHash(InternalRow row) {
+        int hash = 1;
+        for (ColumnEntry key : keyColumns) {
+            Object value = row.get(key.getOrdinal(), key.getDataType());
+            hash = 31 * hash + (value instanceof byte[] ? Arrays.hashCode((byte[]) value) : Objects.hashCode(value));
+        }
+        // spread the bits for the power of two table
+        return hash ^ (hash >>> 16);
+    }
+
+    private boolean sameKey(InternalRow first, InternalRow second) {
+        for (ColumnEntry key : keyColumns) {
+            Object v1 = first.get(key.getOrdinal(), key.getDataType());
+            Object v2 = second.get(key.getOrdinal(), key.getDataType());
+            boolean equal = v1 instanceof byte[] && v2 instanceof byte[]
+                    ? Arrays.equals((byte[]) v1, (byte[]) v2) : Objects.equals(v1, v2);
+            if (!equal) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
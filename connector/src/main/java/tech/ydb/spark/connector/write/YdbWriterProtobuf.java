@@ -1,34 +1,29 @@
 package tech.ydb.spark.connector.write;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 import org.apache.spark.sql.catalyst.InternalRow;
 
 import tech.ydb.core.Status;
 import tech.ydb.proto.ValueProtos;
 import tech.ydb.spark.connector.YdbTypes;
-import tech.ydb.table.Session;
-import tech.ydb.table.values.ListValue;
 import tech.ydb.table.values.StructType;
 import tech.ydb.table.values.Type;
-import tech.ydb.table.values.Value;
 
 abstract class YdbWriterProtobuf implements YdbWriter {
-    private final YdbTypes types;
-    private final StructType structType;
     private final ColumnEntry[] columns;
+    private final ProtobufRowEncoder encoder;
     private final int maxRowsCount;
     private final int maxBytesSize;
 
-    private List<Value<?>> batch = new ArrayList<>();
     private int bytesSize = 0;
 
     protected YdbWriterProtobuf(YdbTypes types, List<ColumnEntry> columnsList, int maxRowsCount, int maxBytesSize) {
-        this.types = types;
         this.maxRowsCount = maxRowsCount;
         this.maxBytesSize = maxBytesSize;
 
@@ -39,43 +34,74 @@ abstract class YdbWriterProtobuf implements YdbWriter {
             structColumns.put(col.getName(), col);
         }
 
-        this.structType = StructType.of(structTypes);
+        StructType structType = StructType.of(structTypes);
         this.columns = new ColumnEntry[structType.getMembersCount()];
         for (int idx = 0; idx < structType.getMembersCount(); idx += 1) {
             this.columns[idx] = structColumns.get(structType.getMemberName(idx));
         }
+        this.encoder = new ProtobufRowEncoder(types, structType, columns);
     }
 
     @Override
     public boolean needToFlush() {
-        return bytesSize >= maxBytesSize || batch.size() >= maxRowsCount;
+        return bytesSize >= maxBytesSize || encoder.rowsCount() >= maxRowsCount;
+    }
+
+    @Override
+    public int nextBatchRows() {
+        return encoder.rowsCount();
     }
 
     @Override
     public void appendRow(InternalRow record) {
-        Value<?>[] row = new Value<?>[columns.length];
-        for (int idx = 0; idx < row.length; ++idx) {
-            row[idx] = columns[idx].read(types, record);
-            bytesSize += row[idx].toPb().getSerializedSize();
+        encoder.appendRow(record);
+        for (ColumnEntry column : columns) {
+            // exact size is calculated only for the whole batch
+            bytesSize += column.estimateSize(record);
         }
-        batch.add(structType.newValueUnsafe(row));
     }
 
     @Override
     public Batch buildNextBatch() {
-        if (batch.isEmpty()) {
+        if (encoder.rowsCount() == 0) {
             return null;
         }
 
-        ListValue lv = ListValue.of(batch.toArray(new Value<?>[0]));
-        ValueProtos.TypedValue tv = ValueProtos.TypedValue.newBuilder()
-                .setType(lv.getType().toPb())
-                .setValue(lv.toPb())
-                .build();
+        ValueProtos.TypedValue tv = encoder.buildBatch();
+        bytesSize = 0;
+        return createBatch(tv);
+    }
+
+    @Override
+    public PendingBatch detachNextBatch() {
+        if (encoder.rowsCount() == 0) {
+            return null;
+        }
 
-        batch = new ArrayList<>();
+        int rows = encoder.rowsCount();
+        int estimated = bytesSize;
+        Supplier<ValueProtos.TypedValue> data = encoder.detachBatch();
         bytesSize = 0;
 
+        return new PendingBatch() {
+            @Override
+            public int rowsCount() {
+                return rows;
+            }
+
+            @Override
+            public int estimatedSize() {
+                return estimated;
+            }
+
+            @Override
+            public Batch serialize() {
+                return createBatch(data.get());
+            }
+        };
+    }
+
+    private Batch createBatch(ValueProtos.TypedValue tv) {
         return new Batch() {
             @Override
             public int rowsCount() {
@@ -88,13 +114,34 @@ abstract class YdbWriterProtobuf implements YdbWriter {
             }
 
             @Override
-            public CompletableFuture<Status> apply(Session session) {
-                return writeData(session, tv);
+            public CompletableFuture<Status> write(UnaryOperator<Status> onAttempt) {
+                return writeData(tv, onAttempt);
+            }
+
+            @Override
+            public Batch[] split() {
+                List<ValueProtos.Value> items = tv.getValue().getItemsList();
+                if (items.size() < 2) {
+                    return null;
+                }
+                int half = items.size() / 2;
+                return new Batch[] {
+                    createBatch(slice(tv, items.subList(0, half))),
+                    createBatch(slice(tv, items.subList(half, items.size()))),
+                };
             }
         };
     }
 
-    protected abstract CompletableFuture<Status> writeData(Session session, ValueProtos.TypedValue data);
+    private static ValueProtos.TypedValue slice(ValueProtos.TypedValue tv, List<ValueProtos.Value> items) {
+        return ValueProtos.TypedValue.newBuilder()
+                .setType(tv.getType())
+                .setValue(ValueProtos.Value.newBuilder().addAllItems(items))
+                .build();
+    }
+
+    protected abstract CompletableFuture<Status> writeData(ValueProtos.TypedValue data,
+            UnaryOperator<Status> onAttempt);
 
     @Override
     public void close() {
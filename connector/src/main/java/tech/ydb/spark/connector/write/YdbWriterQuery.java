@@ -0,0 +1,50 @@
+package tech.ydb.spark.connector.write;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.UnaryOperator;
+
+import tech.ydb.common.transaction.TxMode;
+import tech.ydb.core.Status;
+import tech.ydb.proto.ValueProtos;
+import tech.ydb.query.QuerySession;
+import tech.ydb.spark.connector.YdbTypes;
+import tech.ydb.spark.connector.common.IngestMethod;
+import tech.ydb.spark.connector.impl.SparkSessionRetryContext;
+import tech.ydb.table.query.Params;
+
+/**
+ * Writer of the ingest statements via the Query service. Every batch is executed as a single statement in the
+ * implicit transaction, so the session is not kept between the batches and the parallel batches use different
+ * sessions of the pool.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+class YdbWriterQuery extends YdbWriterProtobuf {
+    private final SparkSessionRetryContext<QuerySession> retryCtx;
+    private final IngestMethod method;
+    private final String tablePath;
+    private final String query;
+
+    YdbWriterQuery(SparkSessionRetryContext<QuerySession> retryCtx, IngestMethod method, String tablePath,
+            YdbTypes types, int maxRowsCount, int maxBytesSize, List<ColumnEntry> columns) {
+        super(types, columns, maxRowsCount, maxBytesSize);
+
+        this.retryCtx = retryCtx;
+        this.method = method;
+        this.tablePath = tablePath;
+        this.query = YdbWriterDataQuery.buildQuery(method, tablePath, columns);
+    }
+
+    @Override
+    public String toString() {
+        return "YdbWriterQuery[" + method + " to " + tablePath + "]";
+    }
+
+    @Override
+    protected CompletableFuture<Status> writeData(ValueProtos.TypedValue data, UnaryOperator<Status> onAttempt) {
+        Params params = new YdbWriterDataQuery.OneValueParams(data);
+        return retryCtx.supplyStatus(session -> session.createQuery(query, TxMode.NONE, params).execute(),
+                result -> onAttempt.apply(result.getStatus()));
+    }
+}
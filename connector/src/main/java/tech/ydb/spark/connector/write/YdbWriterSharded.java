@@ -0,0 +1,220 @@
+package tech.ydb.spark.connector.write;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.types.StringType;
+
+import tech.ydb.spark.connector.YdbTypes;
+import tech.ydb.spark.connector.common.KeysRange;
+import tech.ydb.table.values.PrimitiveType;
+import tech.ydb.table.values.Type;
+
+/**
+ * Routes rows to the separate writers by the table partitions, so each batch touches only one shard. The keys are
+ * compared in the native Spark representation when it matches the representation of the partition bounds, the
+ * writer of the shard is created with its first row.
+ *
+ * @author Aleksandr Gorshenin {@literal <alexandr268@ydb.tech>}
+ */
+class YdbWriterSharded implements YdbWriter {
+    private final YdbTypes types;
+    private final KeysRange[] partitions;
+    private final ColumnEntry[] keyColumns;
+    private final boolean[] nativeKeys;
+    private final Supplier<YdbWriter> writerFactory;
+    private final YdbWriter[] writers;
+    private final int[] rowsCount;
+    private final int maxBufferedRows;
+    // reused for every row, the key is not kept after the routing
+    private final Serializable[] key;
+
+    private int bufferedRows = 0;
+    private int largestRows = 0;
+
+    YdbWriterSharded(YdbTypes types, KeysRange[] partitions, List<ColumnEntry> keyColumns, int maxBufferedRows,
+            Supplier<YdbWriter> writerFactory) {
+        this.types = types;
+        this.partitions = partitions;
+        this.keyColumns = keyColumns.toArray(new ColumnEntry[0]);
+        this.nativeKeys = new boolean[this.keyColumns.length];
+        for (int idx = 0; idx < nativeKeys.length; idx++) {
+            nativeKeys[idx] = isNativeKey(types, this.keyColumns[idx]);
+        }
+        this.maxBufferedRows = maxBufferedRows;
+        this.writerFactory = writerFactory;
+        this.writers = new YdbWriter[partitions.length];
+        this.rowsCount = new int[partitions.length];
+        this.key = new Serializable[this.keyColumns.length];
+    }
+
+    @Override
+    public String toString() {
+        return "YdbWriterSharded[" + writers.length + " shards]";
+    }
+
+    @Override
+    public void appendRow(InternalRow record) {
+        for (int idx = 0; idx < key.length; idx++) {
+            key[idx] = readKey(idx, record);
+        }
+
+        int shard = findShard(key);
+        if (writers[shard] == null) {
+            writers[shard] = writerFactory.get();
+        }
+        writers[shard].appendRow(record);
+        rowsCount[shard]++;
+        bufferedRows++;
+        largestRows = Math.max(largestRows, rowsCount[shard]);
+    }
+
+    @Override
+    public int nextBatchRows() {
+        // every shard is flushed by its own batches
+        return largestRows;
+    }
+
+    @Override
+    public boolean needToFlush() {
+        if (bufferedRows >= maxBufferedRows) {
+            return true;
+        }
+        for (YdbWriter writer: writers) {
+            if (writer != null && writer.needToFlush()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Batch buildNextBatch() {
+        int next = nextWriter();
+        return next >= 0 ? writers[next].buildNextBatch() : null;
+    }
+
+    @Override
+    public PendingBatch detachNextBatch() {
+        int next = nextWriter();
+        return next >= 0 ? writers[next].detachNextBatch() : null;
+    }
+
+    @Override
+    public void close() {
+        for (YdbWriter writer: writers) {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+
+    private int nextWriter() {
+        int next = -1;
+        for (int idx = 0; idx < writers.length; idx++) {
+            if (writers[idx] == null) {
+                continue;
+            }
+            if (writers[idx].needToFlush()) {
+                next = idx;
+                break;
+            }
+            // otherwise the largest buffer is flushed
+            if (rowsCount[idx] > 0 && (next < 0 || rowsCount[idx] > rowsCount[next])) {
+                next = idx;
+            }
+        }
+
+        if (next >= 0) {
+            bufferedRows -= rowsCount[next];
+            rowsCount[next] = 0;
+            largestRows = 0;
+            for (int rows : rowsCount) {
+                largestRows = Math.max(largestRows, rows);
+            }
+        }
+        return next;
+    }
+
+    private Serializable readKey(int idx, InternalRow row) {
+        ColumnEntry column = keyColumns[idx];
+        if (!nativeKeys[idx]) {
+            return types.ydb2pojo(column.read(types, row));
+        }
+        if (row.isNullAt(column.getOrdinal())) {
+            return null;
+        }
+
+        Object value = row.get(column.getOrdinal(), column.getDataType());
+        if (value instanceof byte[]) {
+            return new YdbTypes.Bytes((byte[]) value);
+        }
+        if (value instanceof Byte) {
+            // Int8 bounds are kept as short values
+            return ((Byte) value).shortValue();
+        }
+        return (Serializable) value;
+    }
+
+    private int findShard(Serializable[] key) {
+        int low = 0;
+        int high = partitions.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = partitions[mid].compareKey(key);
+            if (cmp == 0) {
+                return mid;
+            }
+            if (cmp > 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return Math.max(0, Math.min(low, partitions.length - 1));
+    }
+
+    /**
+     * Checks that the native Spark value of the column is comparable with the partition bounds made by
+     * {@link YdbTypes#ydb2pojo}, so the key can be routed without building of the YDB value.
+     */
+    private static boolean isNativeKey(YdbTypes types, ColumnEntry column) {
+        Type type = column.getType();
+        if (type.getKind() == Type.Kind.OPTIONAL) {
+            type = type.unwrapOptional();
+        }
+        if (column.getDataType() == null || !column.getDataType().equals(types.mapTypeYdb2Spark(type))) {
+            return false;
+        }
+
+        switch (type.getKind()) {
+            case DECIMAL:
+                return true;
+            case PRIMITIVE:
+                break;
+            default:
+                return false;
+        }
+
+        switch ((PrimitiveType) type) {
+            case Text:
+                return true;
+            case Uuid:
+            case Yson:
+            case Json:
+            case JsonDocument:
+            case Interval:
+            case Interval64:
+            case TzDate:
+            case TzDatetime:
+            case TzTimestamp:
+            case DyNumber:
+                return false;
+            default:
+                // the dates read as strings are normalized by the conversion
+                return !(column.getDataType() instanceof StringType);
+        }
+    }
+}
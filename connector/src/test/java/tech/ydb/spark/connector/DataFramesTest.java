@@ -13,16 +13,22 @@ import org.apache.spark.sql.Row;
 import org.apache.spark.sql.SaveMode;
 import org.apache.spark.sql.SparkSession;
 import org.apache.spark.sql.catalyst.expressions.GenericRowWithSchema;
+import org.apache.spark.sql.connector.expressions.Transform;
+import org.apache.spark.sql.connector.read.InputPartition;
 import org.apache.spark.sql.types.DataTypes;
 import org.apache.spark.sql.types.Metadata;
 import org.apache.spark.sql.types.StructField;
 import org.apache.spark.sql.types.StructType;
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.ClassRule;
 import org.junit.Test;
 
+import tech.ydb.spark.connector.common.KeysRange;
+import tech.ydb.spark.connector.read.ShardPartition;
+import tech.ydb.spark.connector.read.YdbReadTable;
 import tech.ydb.table.description.TableDescription;
 import tech.ydb.test.junit4.YdbHelperRule;
 
@@ -152,6 +158,17 @@ public class DataFramesTest {
         Assert.assertEquals(count2, count3);
     }
 
+    @Test
+    public void prewarmedReadTest() {
+        // the other pool settings make a separate executor, which opens its sessions in advance
+        long count = readYdb().option("pool.prewarm", "2").load("row_table").count();
+        Assert.assertEquals(10, count);
+
+        long count2 = readYdb().option("pool.prewarm", "2").option("useReadTable", "true")
+                .load("dir/splitted").count();
+        Assert.assertEquals(10, count2);
+    }
+
     @Test
     public void countColumnTableTest() {
         long count = readYdb().option("dbtable", "column_table").load().count();
@@ -174,6 +191,43 @@ public class DataFramesTest {
         Assert.assertEquals(count2, count3);
     }
 
+    @Test
+    public void pagedRowTableTest() {
+        Dataset<Row> page = readYdb().load("row_table").offset(2).limit(3);
+        Object[] ids = page.collectAsList().stream().map(row -> row.get(0)).toArray();
+        Assert.assertArrayEquals(new Object[] {10, 11, 12}, ids);
+
+        Assert.assertEquals(3, readYdb().load("dir/splitted").offset(2).limit(3).count());
+    }
+
+    @Test
+    public void limitedScanPlanningTest() {
+        Map<String, String> props = new HashMap<>(ydbCreds);
+        props.put("dbtable", "dir/splitted");
+        YdbTable table = (YdbTable) new YdbTableProvider().getTable(null, new Transform[0], props);
+
+        KeysRange[] ranges = table.getPartitions();
+        long[] rows = table.getPartitionRows();
+        Assert.assertEquals(7, ranges.length);
+
+        YdbReadTable scan = new YdbReadTable(table, new CaseInsensitiveStringMap(props));
+        scan.pushLimit(0);
+        InputPartition[] planned = scan.planInputPartitions();
+        Assert.assertEquals(ranges.length, planned.length);
+        if (rows.length != ranges.length) {
+            return; // partition statistics are not available yet
+        }
+
+        // the largest partitions go first
+        long previous = Long.MAX_VALUE;
+        for (InputPartition partition : planned) {
+            int idx = Arrays.asList(ranges).indexOf(((ShardPartition) partition).getRange());
+            Assert.assertTrue(idx >= 0);
+            Assert.assertTrue(rows[idx] <= previous);
+            previous = rows[idx];
+        }
+    }
+
     @Test
     public void emptyWriteTest() {
         Dataset<Row> origin = readYdb().load("row_table");
@@ -286,4 +340,268 @@ public class DataFramesTest {
             readYdb().option("query", "DROP TABLE `copy/indexed_table`;").load().count();
         }
     }
+
+    @Test
+    public void shardedWriteTest() {
+        Dataset<Row> origin = readYdb().load("row_table");
+        Assert.assertEquals(10, origin.count());
+
+        readYdb().option("query", "CREATE TABLE `copy/sharded_table` ("
+                + " id Int32 NOT NULL,"
+                + " value Text,"
+                + " PRIMARY KEY(id)  "
+                + ") WITH ("
+                + "  AUTO_PARTITIONING_MIN_PARTITIONS_COUNT = 4, "
+                + "  PARTITION_AT_KEYS = (2, 11, 51) "
+                + ")").load().count();
+
+        try {
+            origin.write().format("ydb")
+                    .options(ydbCreds)
+                    .option("batch.byShard", "true")
+                    .option("batch.rows", "2")
+                    .mode(SaveMode.Append)
+                    .save("copy/sharded_table");
+
+            Assert.assertEquals(10, readYdb().load("copy/sharded_table").count());
+            Assert.assertEquals(3, readYdb().load("copy/sharded_table").filter("id >= 11 AND id < 51").count());
+
+            origin.write().format("ydb")
+                    .options(ydbCreds)
+                    .option("write.distribute", "true")
+                    .option("write.sort", "true")
+                    .mode(SaveMode.Append)
+                    .save("copy/sharded_table");
+
+            Assert.assertEquals(10, readYdb().load("copy/sharded_table").count());
+        } finally {
+            readYdb().option("query", "DROP TABLE `copy/sharded_table`;").load().count();
+        }
+    }
+
+    @Test
+    public void sharedBatchWriteTest() {
+        Dataset<Row> origin = readYdb().load("row_table");
+        Assert.assertEquals(10, origin.count());
+
+        try {
+            origin.repartition(5).write().format("ydb")
+                    .options(ydbCreds)
+                    .option("batch.shared", "true")
+                    .option("batch.linger", "10")
+                    .mode(SaveMode.Append)
+                    .save("copy/shared_table");
+
+            Assert.assertEquals(10, readYdb().load("copy/shared_table").count());
+        } finally {
+            readYdb().option("query", "DROP TABLE `copy/shared_table`;").load().count();
+        }
+    }
+
+    @Test
+    public void updateAndDeleteOnTest() {
+        Dataset<Row> origin = readYdb().load("row_table");
+        Assert.assertEquals(10, origin.count());
+
+        try {
+            origin.write().format("ydb").options(ydbCreds).mode(SaveMode.Append).save("copy/update_table");
+
+            origin.filter("id < 11").selectExpr("id", "'updated' AS value").write().format("ydb")
+                    .options(ydbCreds)
+                    .option("method", "update_on")
+                    .mode(SaveMode.Append)
+                    .save("copy/update_table");
+
+            Dataset<Row> copy = readYdb().load("copy/update_table");
+            Assert.assertEquals(10, copy.count());
+            Assert.assertEquals(3, copy.filter("value = 'updated'").count());
+
+            origin.filter("id >= 50").write().format("ydb")
+                    .options(ydbCreds)
+                    .option("method", "delete_on")
+                    .mode(SaveMode.Append)
+                    .save("copy/update_table");
+
+            Assert.assertEquals(5, readYdb().load("copy/update_table").count());
+        } finally {
+            readYdb().option("query", "DROP TABLE `copy/update_table`;").load().count();
+        }
+    }
+
+    @Test
+    public void queryServiceWriteTest() {
+        Dataset<Row> origin = readYdb().load("row_table");
+        Assert.assertEquals(10, origin.count());
+
+        try {
+            origin.write().format("ydb").options(ydbCreds)
+                    .option("method", "upsert")
+                    .option("write.queryService", "true")
+                    .mode(SaveMode.Append)
+                    .save("copy/query_service_table");
+            Assert.assertEquals(10, readYdb().load("copy/query_service_table").count());
+
+            origin.filter("id >= 50").write().format("ydb").options(ydbCreds)
+                    .option("method", "delete_on")
+                    .option("write.queryService", "true")
+                    .mode(SaveMode.Append)
+                    .save("copy/query_service_table");
+            Assert.assertEquals(5, readYdb().load("copy/query_service_table").count());
+        } finally {
+            readYdb().option("query", "DROP TABLE `copy/query_service_table`;").load().count();
+        }
+    }
+
+    @Test
+    public void preSplitTableTest() {
+        Dataset<Row> origin = readYdb().load("row_table");
+        Assert.assertEquals(10, origin.count());
+
+        Map<String, String> options = new HashMap<>(ydbCreds);
+        options.put("dbtable", "copy/presplit_table");
+        options.put("table.primary_keys", "id");
+        options.put("table.presplit", "4");
+
+        try {
+            Assert.assertTrue(YdbPreSplit.createTable(origin, options));
+            Assert.assertFalse(YdbPreSplit.createTable(origin, options));
+
+            origin.write().format("ydb").options(options).mode(SaveMode.Append).save();
+
+            Dataset<Row> copy = readYdb().load("copy/presplit_table");
+            Assert.assertEquals(10, copy.count());
+            Assert.assertEquals(4, copy.rdd().getNumPartitions());
+        } finally {
+            readYdb().option("query", "DROP TABLE `copy/presplit_table`;").load().count();
+        }
+    }
+
+    @Test
+    public void dedupWriteTest() {
+        Dataset<Row> origin = readYdb().load("row_table");
+        Assert.assertEquals(10, origin.count());
+
+        try {
+            origin.write().format("ydb").options(ydbCreds).mode(SaveMode.Append).save("copy/dedup_table");
+
+            // the versions of one key are written by the same task in the order of the union
+            origin.selectExpr("id", "'first' AS value")
+                    .union(origin.selectExpr("id", "'last' AS value"))
+                    .coalesce(1)
+                    .write().format("ydb").options(ydbCreds)
+                    .option("method", "upsert")
+                    .option("write.dedup", "true")
+                    .mode(SaveMode.Append)
+                    .save("copy/dedup_table");
+
+            // the same result is expected without dedup, the dropped versions are checked by YdbWriterDedupTest
+            Dataset<Row> copy = readYdb().load("copy/dedup_table");
+            Assert.assertEquals(10, copy.count());
+            Assert.assertEquals(10, copy.filter("value = 'last'").count());
+        } finally {
+            readYdb().option("query", "DROP TABLE `copy/dedup_table`;").load().count();
+        }
+    }
+
+    @Test
+    public void syncWriteTest() {
+        Dataset<Row> origin = readYdb().load("row_table");
+        Assert.assertEquals(10, origin.count());
+
+        try {
+            origin.write().format("ydb").options(ydbCreds).mode(SaveMode.Append).save("copy/sync_table");
+
+            // rows 1, 2 are removed, rows 10, 11 are changed, row 100 is added
+            Dataset<Row> changed = origin.filter("id > 2")
+                    .selectExpr("id", "CASE WHEN id < 12 THEN 'changed' ELSE value END AS value")
+                    .union(origin.filter("id = 67").selectExpr("100 AS id", "'added' AS value"));
+
+            changed.write().format("ydb").options(ydbCreds)
+                    .option("method", "sync")
+                    .option("sync.chunk", "3")
+                    .mode(SaveMode.Append)
+                    .save("copy/sync_table");
+
+            Dataset<Row> copy = readYdb().load("copy/sync_table");
+            Assert.assertEquals(9, copy.count());
+            Assert.assertEquals(0, copy.filter("id <= 2").count());
+            Assert.assertEquals(2, copy.filter("value = 'changed'").count());
+            Assert.assertEquals(1, copy.filter("id = 100 AND value = 'added'").count());
+            Assert.assertEquals(0, copy.exceptAll(changed).count());
+
+            // the second sync of the same rows changes nothing
+            changed.write().format("ydb").options(ydbCreds)
+                    .option("method", "sync")
+                    .mode(SaveMode.Append)
+                    .save("copy/sync_table");
+            Assert.assertEquals(9, readYdb().load("copy/sync_table").count());
+        } finally {
+            readYdb().option("query", "DROP TABLE `copy/sync_table`;").load().count();
+        }
+    }
+
+    @Test
+    public void shadowOverwriteTest() {
+        Dataset<Row> origin = readYdb().load("row_table");
+        Assert.assertEquals(10, origin.count());
+
+        readYdb().option("query", "CREATE TABLE `copy/shadow_table` ("
+                + " id Int32 NOT NULL,"
+                + " value Text NOT NULL,"
+                + " PRIMARY KEY(id),  "
+                + " INDEX value_idx GLOBAL SYNC ON (value) "
+                + ")").load().count();
+
+        try {
+            origin.filter("id < 11").write().format("ydb").options(ydbCreds).mode(SaveMode.Append)
+                    .save("copy/shadow_table");
+            Assert.assertEquals(3, readYdb().load("copy/shadow_table").count());
+
+            origin.write().format("ydb")
+                    .options(ydbCreds)
+                    .option("table.shadow", "true")
+                    .option("table.defer_indexes", "true")
+                    .mode(SaveMode.Overwrite)
+                    .save("copy/shadow_table");
+
+            Assert.assertEquals(10, readYdb().load("copy/shadow_table").count());
+            Assert.assertEquals(1, describeTable("copy/shadow_table").getIndexes().size());
+        } finally {
+            readYdb().option("query", "DROP TABLE `copy/shadow_table`;").load().count();
+        }
+    }
+
+    @Test
+    public void stagedIndexedLoadTest() {
+        Dataset<Row> origin = readYdb().load("row_table");
+        Assert.assertEquals(10, origin.count());
+
+        readYdb().option("query", "CREATE TABLE `copy/staged_table` ("
+                + " id Int32 NOT NULL,"
+                + " value Text NOT NULL,"
+                + " PRIMARY KEY(id),  "
+                + " INDEX value_idx GLOBAL SYNC ON (value) "
+                + ")").load().count();
+
+        try {
+            origin.write().format("ydb")
+                    .options(ydbCreds)
+                    .option("table.staged", "true")
+                    // the rows are moved by several chunks
+                    .option("table.staged.chunk", "3")
+                    .mode(SaveMode.Append)
+                    .save("copy/staged_table");
+
+            Assert.assertEquals(10, readYdb().load("copy/staged_table").count());
+            Assert.assertEquals(1, describeTable("copy/staged_table").getIndexes().size());
+
+            try (YdbContext ctx = new YdbContext(ydbCreds)) {
+                // the staging table is dropped after the merge
+                Assert.assertEquals(1, ctx.getExecutor().listDirectory("copy").getChildren().stream()
+                        .filter(e -> e.getName().startsWith("staged_table")).count());
+            }
+        } finally {
+            readYdb().option("query", "DROP TABLE `copy/staged_table`;").load().count();
+        }
+    }
 }
@@ -144,6 +144,82 @@ public class SparkSqlTest {
         Assert.assertEquals(2, select.count());
     }
 
+    @Test
+    public void deleteWhereTest() {
+        spark.sql("INSERT INTO ydb.test_dir.test2 (id, value) VALUES (1, 'v1'), (2, 'v2'), (3, 'v3'), (4, 'v4')")
+                .count();
+        Assert.assertEquals(4, spark.sql("SELECT * FROM ydb.test_dir.test2").count());
+
+        spark.sql("DELETE FROM ydb.test_dir.test2 WHERE id > 2 AND value <> 'v4'").count();
+        Assert.assertEquals(3, spark.sql("SELECT * FROM ydb.test_dir.test2").count());
+
+        spark.sql("DELETE FROM ydb.test_dir.test2 WHERE id >= 2").count();
+        Assert.assertEquals(1, spark.sql("SELECT * FROM ydb.test_dir.test2").count());
+    }
+
+    @Test
+    public void deleteWhereSplittedTest() {
+        // the table is dropped by the test, so the other tests see the same list of tables
+        executeSchemeQuery("CREATE TABLE `test_dir/test_splitted` (id Int32 NOT NULL, value Text, PRIMARY KEY(id)) "
+                + "WITH (AUTO_PARTITIONING_BY_SIZE = DISABLED, AUTO_PARTITIONING_BY_LOAD = DISABLED, "
+                + "AUTO_PARTITIONING_MIN_PARTITIONS_COUNT = 4, PARTITION_AT_KEYS = (10, 20, 30))");
+        try {
+            StringBuilder values = new StringBuilder();
+            for (int id = 1; id <= 40; id++) {
+                values.append(id > 1 ? ", " : "").append("(").append(id).append(", 'v").append(id).append("')");
+            }
+            spark.sql("INSERT INTO ydb.test_dir.test_splitted (id, value) VALUES " + values).count();
+            Assert.assertEquals(40, spark.sql("SELECT * FROM ydb.test_dir.test_splitted").count());
+
+            // the filter covers all four partitions
+            spark.sql("DELETE FROM ydb.test_dir.test_splitted WHERE id > 5 AND id <= 35 AND value <> 'v15'").count();
+            Assert.assertEquals(11, spark.sql("SELECT * FROM ydb.test_dir.test_splitted").count());
+            Assert.assertEquals(1, spark.sql("SELECT * FROM ydb.test_dir.test_splitted WHERE id = 15").count());
+            Assert.assertEquals(5, spark.sql("SELECT * FROM ydb.test_dir.test_splitted WHERE id > 35").count());
+        } finally {
+            executeSchemeQuery("DROP TABLE IF EXISTS `test_dir/test_splitted`");
+        }
+    }
+
+    @Test
+    public void updateAndMergeTest() {
+        spark.sql("INSERT INTO ydb.test1 (id, value) VALUES (1, 'v1'), (2, 'v2'), (3, 'v3')").count();
+
+        spark.sql("UPDATE ydb.test1 SET value = 'updated' WHERE id >= 2").count();
+        Assert.assertEquals(2, spark.sql("SELECT * FROM ydb.test1 WHERE value = 'updated'").count());
+
+        spark.sql("SELECT * FROM VALUES (1, 'merged'), (3, NULL), (4, 'v4') AS src(id, value)")
+                .createOrReplaceTempView("merge_source");
+        spark.sql("MERGE INTO ydb.test1 t USING merge_source s ON t.id = s.id "
+                + "WHEN MATCHED AND s.value IS NULL THEN DELETE "
+                + "WHEN MATCHED THEN UPDATE SET t.value = s.value "
+                + "WHEN NOT MATCHED THEN INSERT (id, value) VALUES (s.id, s.value)").count();
+
+        Assert.assertEquals(3, spark.sql("SELECT * FROM ydb.test1").count());
+        Assert.assertEquals(1, spark.sql("SELECT * FROM ydb.test1 WHERE value = 'merged'").count());
+        Assert.assertEquals(0, spark.sql("SELECT * FROM ydb.test1 WHERE id = 3").count());
+
+        spark.sql("DELETE FROM ydb.test1").count();
+    }
+
+    @Test
+    public void updateKeyTest() {
+        StringBuilder values = new StringBuilder();
+        for (int id = 1; id <= 20; id++) {
+            values.append(id > 1 ? ", " : "").append("(").append(id).append(", 'v").append(id).append("')");
+        }
+        spark.sql("INSERT INTO ydb.test_dir.test2 (id, value) VALUES " + values).count();
+
+        // every new key except 21 is the old key of another updated row
+        spark.sql("UPDATE ydb.test_dir.test2 SET id = id + 1").count();
+        Assert.assertEquals(20, spark.sql("SELECT * FROM ydb.test_dir.test2").count());
+        Assert.assertEquals(0, spark.sql("SELECT * FROM ydb.test_dir.test2 WHERE id = 1").count());
+        Assert.assertEquals(20, spark.sql("SELECT * FROM ydb.test_dir.test2 "
+                + "WHERE value = concat('v', CAST(id - 1 AS STRING))").count());
+
+        spark.sql("DELETE FROM ydb.test_dir.test2").count();
+    }
+
 //    @Test
 //    public void ddlTests() {
 //        Dataset<Row> df = spark.sql("CREATE TABLE test_table1 (id Int32 NOT NULL, value Text, PRIMARY KEY(id)) USING YDB");
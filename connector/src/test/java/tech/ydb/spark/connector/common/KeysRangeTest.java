@@ -164,4 +164,31 @@ public class KeysRangeTest {
         Assert.assertEquals(r1, r1.intersect(KeysRange.UNRESTRICTED));
         Assert.assertEquals(r2, KeysRange.UNRESTRICTED.intersect(r2));
     }
+
+    @Test
+    public void compareKeyTest() {
+        Serializable[] v1 = new Serializable[] {"A", 9};
+        Serializable[] v2 = new Serializable[] {"A", 10};
+        Serializable[] v3 = new Serializable[] {"B"};
+
+        KeysRange r1 = new KeysRange(null, false, v1, false); // (-Inf - (A,9))
+        KeysRange r2 = new KeysRange(v1, true, v2, true);     // [(A,9) - (A,10)]
+        KeysRange r3 = new KeysRange(v2, false, null, false); // ((A,10) - +Inf)
+
+        Assert.assertEquals(0, r1.compareKey(new Serializable[] {"A", 8}));
+        Assert.assertEquals(0, r1.compareKey(new Serializable[] {"A", null}));
+        Assert.assertEquals(1, r1.compareKey(v1));
+
+        Assert.assertEquals(-1, r2.compareKey(new Serializable[] {"A", 8}));
+        Assert.assertEquals(0, r2.compareKey(v1));
+        Assert.assertEquals(0, r2.compareKey(v2));
+        Assert.assertEquals(1, r2.compareKey(new Serializable[] {"A", 10, 1L}));
+
+        Assert.assertEquals(-1, r3.compareKey(v2));
+        Assert.assertEquals(0, r3.compareKey(new Serializable[] {"A", 10, 1L}));
+        Assert.assertEquals(0, r3.compareKey(v3));
+
+        Assert.assertEquals(0, KeysRange.UNRESTRICTED.compareKey(v3));
+        Assert.assertEquals(1, KeysRange.EMPTY.compareKey(v3));
+    }
 }
@@ -0,0 +1,94 @@
+package tech.ydb.spark.connector.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Aleksandr Gorshenin
+ */
+public class YdbGovernorTest {
+
+    @Test
+    public void noLimitsTest() {
+        YdbGovernor governor = new YdbGovernor(0, 0, 0);
+        for (int idx = 0; idx < 100; idx++) {
+            Assert.assertEquals(0, governor.acquireReadStream());
+            Assert.assertEquals(0, governor.acquireWrite(1_000_000_000L));
+        }
+        governor.releaseReadStream();
+        governor.releaseWrite();
+    }
+
+    @Test
+    public void readStreamsTest() throws Exception {
+        YdbGovernor governor = new YdbGovernor(0, 2, 0);
+        governor.acquireReadStream();
+        governor.acquireReadStream();
+
+        CompletableFuture<Long> third = CompletableFuture.supplyAsync(governor::acquireReadStream);
+        Thread.sleep(100);
+        Assert.assertFalse(third.isDone());
+
+        governor.releaseReadStream();
+        long waitMs = third.get(10, TimeUnit.SECONDS);
+        Assert.assertTrue("waited " + waitMs, waitMs >= 50);
+        Assert.assertTrue(governor.toString(), governor.toString().contains("readStreams=0,"));
+    }
+
+    @Test
+    public void writeRequestsTest() throws Exception {
+        YdbGovernor governor = new YdbGovernor(0, 0, 1);
+        Assert.assertEquals(0, governor.acquireWrite(10));
+
+        CompletableFuture<Long> second = CompletableFuture.supplyAsync(() -> governor.acquireWrite(10));
+        Thread.sleep(100);
+        Assert.assertFalse(second.isDone());
+
+        governor.releaseWrite();
+        long waitMs = second.get(10, TimeUnit.SECONDS);
+        Assert.assertTrue("waited " + waitMs, waitMs >= 50);
+
+        governor.releaseWrite();
+        Assert.assertTrue(governor.toString(), governor.toString().contains("writeRequests=1}"));
+    }
+
+    @Test
+    public void writeRateTest() {
+        // 1000 bytes per second, the bucket starts full
+        YdbGovernor governor = new YdbGovernor(1000, 0, 0);
+        Assert.assertTrue(governor.acquireWrite(1000) < 50);
+        // the balance is zero, the request is sent at once and moves the balance below zero
+        Assert.assertTrue(governor.acquireWrite(300) < 50);
+
+        // the debt of 300 bytes is paid off in 300 ms
+        long waitMs = governor.acquireWrite(1);
+        Assert.assertTrue("waited " + waitMs, waitMs >= 200 && waitMs < 2000);
+    }
+
+    @Test
+    public void tryAcquireWriteTest() {
+        YdbGovernor governor = new YdbGovernor(1000, 0, 1);
+        Assert.assertTrue(governor.tryAcquireWrite(1200));
+        // no free request slots
+        Assert.assertFalse(governor.tryAcquireWrite(1));
+
+        governor.releaseWrite();
+        // the bucket is below zero, the slot taken by the failed attempt is returned
+        Assert.assertFalse(governor.tryAcquireWrite(1));
+        Assert.assertTrue(governor.toString(), governor.toString().contains("writeRequests=1}"));
+    }
+
+    @Test
+    public void writeRateRefillTest() throws Exception {
+        YdbGovernor governor = new YdbGovernor(1000, 0, 0);
+        governor.acquireWrite(1300);
+
+        // the bucket is refilled while nothing is written
+        Thread.sleep(500);
+        Assert.assertTrue(governor.acquireWrite(1) < 50);
+    }
+}
@@ -0,0 +1,72 @@
+package tech.ydb.spark.connector.read;
+
+import java.util.Collections;
+
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import tech.ydb.spark.connector.YdbTable;
+import tech.ydb.spark.connector.YdbTypes;
+import tech.ydb.table.description.TableDescription;
+import tech.ydb.table.values.PrimitiveType;
+import tech.ydb.table.values.PrimitiveValue;
+import tech.ydb.table.values.TupleValue;
+
+/**
+ *
+ * @author Aleksandr Gorshenin
+ */
+public class SelectQueryTest {
+
+    private static YdbTable table() {
+        TableDescription td = TableDescription.newBuilder()
+                .addNonnullColumn("id", PrimitiveType.Int32)
+                .addNullableColumn("value", PrimitiveType.Text)
+                .setPrimaryKey("id")
+                .setStoreType(TableDescription.StoreType.ROW)
+                .build();
+        CaseInsensitiveStringMap options = CaseInsensitiveStringMap.empty();
+        return new YdbTable(null, new YdbTypes(options), "test", "/local/test", td, options);
+    }
+
+    @Test
+    public void afterRowsTest() {
+        SelectQuery query = new SelectQuery(table()).withRowLimit(5).withRowOffset(2);
+        Assert.assertEquals("SELECT `id` FROM `/local/test` LIMIT 5 OFFSET 2", query.toQuery());
+
+        // nothing has been read, so the OFFSET is still required
+        Assert.assertEquals(query.toQuery(), query.afterRows(0).toQuery());
+        Assert.assertFalse(query.afterRows(0).isLimitReached());
+
+        Assert.assertEquals("SELECT `id` FROM `/local/test` LIMIT 2", query.afterRows(3).toQuery());
+        Assert.assertFalse(query.afterRows(3).isLimitReached());
+        Assert.assertTrue(query.afterRows(5).isLimitReached());
+
+        // the origin query is not changed
+        Assert.assertEquals("SELECT `id` FROM `/local/test` LIMIT 5 OFFSET 2", query.toQuery());
+    }
+
+    @Test
+    public void unlimitedAfterRowsTest() {
+        SelectQuery query = new SelectQuery(table());
+        Assert.assertEquals("SELECT `id` FROM `/local/test`", query.afterRows(100).toQuery());
+        Assert.assertFalse(query.afterRows(100).isLimitReached());
+    }
+
+    @Test
+    public void upsertChunkQueryTest() {
+        YdbTable table = table();
+        SelectQuery query = new SelectQuery(table).replacePredicates(new String[] {"id", "value"});
+        Assert.assertEquals("$chunk = SELECT `id`, `value` FROM `/local/test` ORDER BY `id` LIMIT 3; "
+                + "UPSERT INTO `/local/target` SELECT * FROM $chunk; "
+                + "SELECT `id` FROM $chunk ORDER BY `id` DESC LIMIT 1;",
+                query.toUpsertChunkQuery("/local/target", table.getKeyColumns(), 3));
+
+        TupleValue lastKey = TupleValue.of(Collections.singletonList(PrimitiveValue.newInt32(5).makeOptional()));
+        SelectQuery next = PrimaryKeyExpression.keyAfter(table.getKeyColumns(), lastKey).makeQuery(query.copy());
+        Assert.assertTrue(next.toUpsertChunkQuery("/local/target", table.getKeyColumns(), 3)
+                .contains(" FROM `/local/test` WHERE `id` > $r ORDER BY `id` LIMIT 3; "));
+        Assert.assertEquals(1, next.toQueryParams().values().size());
+    }
+}
@@ -0,0 +1,261 @@
+package tech.ydb.spark.connector.read;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.Metadata;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import tech.ydb.core.Status;
+import tech.ydb.core.StatusCode;
+import tech.ydb.proto.ValueProtos;
+import tech.ydb.spark.connector.YdbTypes;
+import tech.ydb.spark.connector.impl.YdbGovernor;
+import tech.ydb.table.result.ResultSetReader;
+import tech.ydb.table.result.ValueReader;
+import tech.ydb.table.result.impl.ProtoValueReaders;
+import tech.ydb.table.values.PrimitiveType;
+import tech.ydb.table.values.PrimitiveValue;
+import tech.ydb.table.values.TupleValue;
+
+/**
+ *
+ * @author Aleksandr Gorshenin
+ */
+public class StreamReaderTest {
+    private static final StructType SCHEMA = new StructType(new StructField[]{
+        new StructField("id", DataTypes.IntegerType, false, Metadata.empty()),
+    });
+
+    private static final Status UNAVAILABLE = Status.of(StatusCode.UNAVAILABLE);
+
+    @Test
+    public void resumeFromLastKeyTest() {
+        FakeReader reader = new FakeReader(3)
+                .stream(UNAVAILABLE, new int[] {1, 2}, new int[] {3})
+                .stream(Status.SUCCESS, new int[] {4, 5});
+
+        Assert.assertEquals(listOf(1, 2, 3, 4, 5), readAll(reader));
+        Assert.assertEquals(1, reader.resumedKeys.size());
+        Assert.assertEquals(PrimitiveValue.newInt32(3).makeOptional(), reader.resumedKeys.get(0).get(0));
+        Assert.assertEquals(Long.valueOf(3), reader.resumedRows.get(0));
+    }
+
+    @Test
+    public void resumeBeforeFirstRowTest() {
+        FakeReader reader = new FakeReader(3)
+                .stream(UNAVAILABLE)
+                .stream(Status.SUCCESS, new int[] {1, 2});
+
+        Assert.assertEquals(listOf(1, 2), readAll(reader));
+        Assert.assertEquals(1, reader.resumedKeys.size());
+        Assert.assertNull(reader.resumedKeys.get(0));
+        Assert.assertEquals(Long.valueOf(0), reader.resumedRows.get(0));
+    }
+
+    @Test
+    public void nothingToResumeTest() {
+        // the reader has no more streams, so the resume reports the reached limit
+        FakeReader reader = new FakeReader(3)
+                .stream(UNAVAILABLE, new int[] {1, 2});
+
+        Assert.assertEquals(listOf(1, 2), readAll(reader));
+        Assert.assertEquals(1, reader.resumedKeys.size());
+    }
+
+    @Test
+    public void retriesAreExhaustedTest() {
+        FakeReader reader = new FakeReader(1)
+                .stream(UNAVAILABLE, new int[] {1})
+                .stream(UNAVAILABLE)
+                .stream(Status.SUCCESS, new int[] {2});
+
+        Assert.assertThrows(RuntimeException.class, () -> readAll(reader));
+        Assert.assertEquals(1, reader.resumedKeys.size());
+    }
+
+    @Test
+    public void notRetryableErrorTest() {
+        FakeReader reader = new FakeReader(3)
+                .stream(Status.of(StatusCode.SCHEME_ERROR), new int[] {1})
+                .stream(Status.SUCCESS, new int[] {2});
+
+        Assert.assertThrows(RuntimeException.class, () -> readAll(reader));
+        Assert.assertTrue(reader.resumedKeys.isEmpty());
+    }
+
+    @Test
+    public void disabledResumeTest() {
+        FakeReader reader = new FakeReader(0)
+                .stream(UNAVAILABLE, new int[] {1})
+                .stream(Status.SUCCESS, new int[] {2});
+
+        Assert.assertThrows(RuntimeException.class, () -> readAll(reader));
+        Assert.assertTrue(reader.resumedKeys.isEmpty());
+    }
+
+    @Test
+    public void eagerStartTest() {
+        FakeReader reader = new FakeReader(0)
+                .stream(Status.SUCCESS, new int[] {1, 2});
+
+        Assert.assertSame(reader, reader.startEagerly());
+        Assert.assertEquals(1, reader.starts);
+        // next() continues the already started stream
+        Assert.assertEquals(listOf(1, 2), readAll(reader));
+        Assert.assertEquals(1, reader.starts);
+    }
+
+    @Test
+    public void partAfterCloseTest() {
+        FakeReader reader = new FakeReader(0);
+        // the stream is still being created
+        reader.streams.add(() -> { });
+        reader.startEagerly();
+
+        TestPart early = part(1);
+        reader.onNextPart(early);
+        reader.close();
+        Assert.assertTrue(reader.cancelled);
+        Assert.assertTrue(early.closed);
+
+        TestPart late = part(2, 3);
+        reader.onNextPart(late);
+        Assert.assertTrue(late.closed);
+    }
+
+    @Test
+    public void failedStartTest() {
+        YdbGovernor governor = new YdbGovernor(0, 1, 0);
+        FakeReader failed = new FakeReader(0, governor);
+        failed.streams.add(() -> {
+            throw new IllegalStateException("cannot start the stream");
+        });
+
+        Assert.assertThrows(IllegalStateException.class, failed::startEagerly);
+        // the permit of the failed start is returned, so the next reader is not blocked
+        Assert.assertTrue(governor.toString(), governor.toString().contains("readStreams=1,"));
+
+        FakeReader reader = new FakeReader(0, governor)
+                .stream(Status.SUCCESS, new int[] {1});
+        Assert.assertEquals(listOf(1), readAll(reader));
+        Assert.assertTrue(governor.toString(), governor.toString().contains("readStreams=1,"));
+    }
+
+    private static List<Integer> listOf(int... ids) {
+        List<Integer> list = new ArrayList<>();
+        for (int id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+
+    private static List<Integer> readAll(StreamReader reader) {
+        List<Integer> ids = new ArrayList<>();
+        try {
+            while (reader.next()) {
+                ids.add(reader.get().getInt(0));
+            }
+        } finally {
+            reader.close();
+        }
+        return ids;
+    }
+
+    private static TestPart part(int... ids) {
+        ValueProtos.ResultSet.Builder rs = ValueProtos.ResultSet.newBuilder()
+                .addColumns(ValueProtos.Column.newBuilder().setName("id").setType(PrimitiveType.Int32.toPb()));
+        for (int id : ids) {
+            rs.addRows(ValueProtos.Value.newBuilder().addItems(PrimitiveValue.newInt32(id).toPb()));
+        }
+        return new TestPart(ProtoValueReaders.forResultSet(rs.build()));
+    }
+
+    private static final class TestPart implements StreamPart {
+        private final ResultSetReader rsr;
+        private boolean closed = false;
+
+        TestPart(ResultSetReader rsr) {
+            this.rsr = rsr;
+        }
+
+        @Override
+        public int getRowCount() {
+            return rsr.getRowCount();
+        }
+
+        @Override
+        public ValueReader getColumn(String name) {
+            return rsr.getColumn(name);
+        }
+
+        @Override
+        public boolean next() {
+            return rsr.next();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static final class FakeReader extends StreamReader {
+        private final Deque<Runnable> streams = new ArrayDeque<>();
+        private final List<TupleValue> resumedKeys = new ArrayList<>();
+        private final List<Long> resumedRows = new ArrayList<>();
+        private int starts = 0;
+        private boolean cancelled = false;
+
+        FakeReader(int maxRetries) {
+            this(maxRetries, new YdbGovernor(0, 0, 0));
+        }
+
+        FakeReader(int maxRetries, YdbGovernor governor) {
+            super(governor, new YdbTypes(CaseInsensitiveStringMap.empty()), 10, SCHEMA,
+                    new String[] {"id"}, maxRetries, 0);
+            // the real streams register the call on start
+            flowControl.newCall(count -> { }).onStart();
+        }
+
+        FakeReader stream(Status status, int[]... parts) {
+            streams.add(() -> {
+                for (int[] ids : parts) {
+                    onNextPart(part(ids));
+                }
+                onComplete(status, null);
+            });
+            return this;
+        }
+
+        @Override
+        protected String start() {
+            starts++;
+            streams.poll().run();
+            return "fake";
+        }
+
+        @Override
+        protected String resume(TupleValue lastKey, long readRows) {
+            resumedKeys.add(lastKey);
+            resumedRows.add(readRows);
+            if (streams.isEmpty()) {
+                return null;
+            }
+            streams.poll().run();
+            return "fake";
+        }
+
+        @Override
+        protected void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package tech.ydb.spark.connector.write;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import tech.ydb.spark.connector.common.AutoPkMode;
+import tech.ydb.table.values.PrimitiveType;
+
+/**
+ *
+ * @author Aleksandr Gorshenin
+ */
+public class AutoPkGeneratorTest {
+    private static final long JOB_PREFIX = 0x1234567890abcdefL;
+
+    @Test
+    public void uuid7MonotonicTest() {
+        AutoPkGenerator generator = new AutoPkGenerator(AutoPkMode.UUID7, PrimitiveType.Uuid, JOB_PREFIX, 0);
+        UUID prev = generator.nextUuid();
+        Assert.assertEquals(7, prev.version());
+        Assert.assertEquals(2, prev.variant());
+
+        // more keys than the 12-bit counter of one millisecond
+        for (int idx = 0; idx < 100_000; idx++) {
+            UUID next = generator.nextUuid();
+            Assert.assertEquals(7, next.version());
+            Assert.assertTrue(prev + " >= " + next,
+                    Long.compareUnsigned(prev.getMostSignificantBits(), next.getMostSignificantBits()) < 0);
+            prev = next;
+        }
+    }
+
+    @Test
+    public void sequentialRetryTest() {
+        AutoPkGenerator first = new AutoPkGenerator(AutoPkMode.SEQUENTIAL, PrimitiveType.Text, JOB_PREFIX, 5);
+        AutoPkGenerator retry = new AutoPkGenerator(AutoPkMode.SEQUENTIAL, PrimitiveType.Text, JOB_PREFIX, 5);
+        AutoPkGenerator other = new AutoPkGenerator(AutoPkMode.SEQUENTIAL, PrimitiveType.Text, JOB_PREFIX, 6);
+
+        Set<String> otherKeys = new HashSet<>();
+        for (int idx = 0; idx < 1000; idx++) {
+            otherKeys.add(other.nextText());
+        }
+
+        for (int idx = 0; idx < 1000; idx++) {
+            String key = first.nextText();
+            // the retried task generates the same keys, so its rows overwrite the rows of the failed attempt
+            Assert.assertEquals(key, retry.nextText());
+            Assert.assertFalse(otherKeys.contains(key));
+        }
+    }
+
+    @Test
+    public void shardLocalUniqueTest() {
+        Set<UUID> uuids = new HashSet<>();
+        Set<Long> longs = new HashSet<>();
+        for (int writer = 0; writer < 4; writer++) {
+            AutoPkGenerator uuid = new AutoPkGenerator(AutoPkMode.SHARD_LOCAL, PrimitiveType.Uuid, JOB_PREFIX, 0);
+            AutoPkGenerator uint64 = new AutoPkGenerator(AutoPkMode.SHARD_LOCAL, PrimitiveType.Uint64, JOB_PREFIX, 0);
+            for (int idx = 0; idx < 50_000; idx++) {
+                Assert.assertTrue(uuids.add(uuid.nextUuid()));
+                Assert.assertTrue(longs.add(uint64.nextUint64()));
+            }
+        }
+    }
+
+    @Test
+    public void randomUint64Test() {
+        Set<Long> keys = new HashSet<>();
+        Set<Long> topBytes = new HashSet<>();
+        for (int writer = 0; writer < 4; writer++) {
+            AutoPkGenerator generator = new AutoPkGenerator(AutoPkMode.RANDOM, PrimitiveType.Uint64, JOB_PREFIX, 0);
+            for (int idx = 0; idx < 50_000; idx++) {
+                long key = generator.nextUint64();
+                Assert.assertTrue(keys.add(key));
+                topBytes.add(key >>> 56);
+            }
+        }
+        // the consecutive keys are spread over the whole range
+        Assert.assertEquals(256, topBytes.size());
+    }
+
+    @Test
+    public void uint64ModesTest() {
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> new AutoPkGenerator(AutoPkMode.UUID7, PrimitiveType.Uint64, JOB_PREFIX, 0));
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> new AutoPkGenerator(AutoPkMode.SEQUENTIAL, PrimitiveType.Uint64, JOB_PREFIX, 0));
+    }
+}
@@ -0,0 +1,128 @@
+package tech.ydb.spark.connector.write;
+
+import java.util.Collections;
+
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.Decimal;
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import org.apache.spark.unsafe.types.UTF8String;
+import org.junit.Assert;
+import org.junit.Test;
+
+import tech.ydb.proto.ValueProtos;
+import tech.ydb.spark.connector.YdbTypes;
+import tech.ydb.table.values.DecimalType;
+import tech.ydb.table.values.PrimitiveType;
+import tech.ydb.table.values.StructType;
+import tech.ydb.table.values.Type;
+
+/**
+ * Checks that the direct encoding produces exactly the same protobuf values as the conversion through
+ * {@link ColumnEntry#read}, including the bounds of the value ranges.
+ *
+ * @author Aleksandr Gorshenin
+ */
+public class ProtobufRowEncoderTest {
+    private static final YdbTypes TYPES = new YdbTypes(CaseInsensitiveStringMap.empty());
+
+    private static final long MICROS = 1_000_000L;
+    private static final long MAX_DATETIME = 4291747200L;
+
+    private static void assertEncoded(Type type, DataType dataType, Object... values) {
+        for (Object value : values) {
+            assertEncoded(type, dataType, value);
+            if (value != null) {
+                assertEncoded(type.makeOptional(), dataType, value);
+            }
+        }
+    }
+
+    private static void assertEncoded(Type type, DataType dataType, Object value) {
+        ColumnEntry column = new ColumnEntry("col", type, dataType, 0);
+        InternalRow record = new GenericInternalRow(new Object[] {value});
+
+        ValueProtos.Value expected;
+        try {
+            expected = column.read(TYPES, record).toPb();
+        } catch (RuntimeException ex) {
+            expected = null;
+        }
+
+        ProtobufRowEncoder encoder = new ProtobufRowEncoder(TYPES,
+                StructType.of(Collections.singletonMap("col", type)), new ColumnEntry[] {column});
+        if (expected == null) {
+            Assert.assertThrows("Value " + value + " of " + type, RuntimeException.class,
+                    () -> encoder.appendRow(record));
+            return;
+        }
+
+        encoder.appendRow(record);
+        ValueProtos.Value encoded = encoder.buildBatch().getValue().getItems(0).getItems(0);
+        Assert.assertEquals("Value " + value + " of " + type, expected.toByteString(), encoded.toByteString());
+    }
+
+    @Test
+    public void integralTest() {
+        assertEncoded(PrimitiveType.Bool, DataTypes.BooleanType, true, false);
+        assertEncoded(PrimitiveType.Int8, DataTypes.ByteType, (byte) 0, Byte.MIN_VALUE, Byte.MAX_VALUE);
+        assertEncoded(PrimitiveType.Int16, DataTypes.ShortType, (short) -1, Short.MIN_VALUE, Short.MAX_VALUE);
+        assertEncoded(PrimitiveType.Int32, DataTypes.IntegerType, 0, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        assertEncoded(PrimitiveType.Int32, DataTypes.LongType, 1L, -1L, (long) Integer.MAX_VALUE);
+        assertEncoded(PrimitiveType.Int64, DataTypes.LongType, 0L, Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEncoded(PrimitiveType.Int64, DataTypes.IntegerType, -5, Integer.MAX_VALUE);
+        assertEncoded(PrimitiveType.Float, DataTypes.FloatType, 1.5f, Float.NaN, Float.NEGATIVE_INFINITY);
+        assertEncoded(PrimitiveType.Double, DataTypes.DoubleType, 1.5d, Double.NaN, -0.0d);
+        assertEncoded(PrimitiveType.Double, DataTypes.FloatType, 0.1f);
+    }
+
+    @Test
+    public void bytesTest() {
+        assertEncoded(PrimitiveType.Text, DataTypes.StringType,
+                UTF8String.fromString(""), UTF8String.fromString("текст"));
+        assertEncoded(PrimitiveType.Bytes, DataTypes.BinaryType, new byte[0], new byte[] {0, -1, 127});
+        assertEncoded(PrimitiveType.Bytes, DataTypes.StringType, UTF8String.fromString("bytes"));
+    }
+
+    @Test
+    public void decimalTest() {
+        org.apache.spark.sql.types.DecimalType sparkType = DataTypes.createDecimalType(10, 2);
+        assertEncoded(DecimalType.of(22, 2), sparkType,
+                Decimal.apply("0.00"), Decimal.apply("-12345678.99"), Decimal.apply("99999999.99"));
+    }
+
+    @Test
+    public void dateTest() {
+        assertEncoded(PrimitiveType.Date, DataTypes.DateType, 0, 1, 49672, -1, 49673, Integer.MAX_VALUE);
+        assertEncoded(PrimitiveType.Date32, DataTypes.DateType,
+                0, -1, -53375809, 53375807, -53375810, 53375808, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void datetimeTest() {
+        long max = MAX_DATETIME * MICROS;
+        assertEncoded(PrimitiveType.Datetime, DataTypes.TimestampType,
+                0L, 1L, MICROS - 1, -1L, max - 1, max, (1L << 32) * MICROS + 5 * MICROS, Long.MAX_VALUE);
+        assertEncoded(PrimitiveType.Datetime64, DataTypes.TimestampType,
+                0L, -1L, -MICROS, 4611669811199L * MICROS + MICROS - 1, 4611669811200L * MICROS,
+                -4611669897600L * MICROS, -4611669897601L * MICROS, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void timestampTest() {
+        long max = MAX_DATETIME * MICROS;
+        assertEncoded(PrimitiveType.Timestamp, DataTypes.TimestampType,
+                0L, 1L, -1L, max - 1, max, (1L << 32) * MICROS, Long.MAX_VALUE);
+        assertEncoded(PrimitiveType.Timestamp64, DataTypes.TimestampType,
+                0L, -1L, 4611669811199999999L, 4611669811200000000L, -4611669897600000000L,
+                -4611669897600000001L, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void nullTest() {
+        assertEncoded(PrimitiveType.Int32.makeOptional(), DataTypes.IntegerType, (Object) null);
+        assertEncoded(PrimitiveType.Timestamp.makeOptional(), DataTypes.TimestampType, (Object) null);
+    }
+}
@@ -0,0 +1,57 @@
+package tech.ydb.spark.connector.write;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.Metadata;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import tech.ydb.spark.connector.YdbTable;
+import tech.ydb.spark.connector.YdbTypes;
+import tech.ydb.table.description.TableDescription;
+import tech.ydb.table.values.PrimitiveType;
+
+/**
+ *
+ * @author Aleksandr Gorshenin
+ */
+public class YdbDataWriterFactoryTest {
+    private static final StructType SCHEMA = new StructType(new StructField[]{
+        new StructField("id", DataTypes.IntegerType, false, Metadata.empty()),
+        new StructField("value", DataTypes.StringType, true, Metadata.empty()),
+    });
+
+    private static YdbDataWriterFactory factory(String... options) {
+        Map<String, String> map = new HashMap<>();
+        for (int idx = 0; idx + 1 < options.length; idx += 2) {
+            map.put(options[idx], options[idx + 1]);
+        }
+        CaseInsensitiveStringMap opts = new CaseInsensitiveStringMap(map);
+
+        TableDescription td = TableDescription.newBuilder()
+                .addNonnullColumn("id", PrimitiveType.Int32)
+                .addNullableColumn("value", PrimitiveType.Text)
+                .setPrimaryKey("id")
+                .setStoreType(TableDescription.StoreType.ROW)
+                .build();
+        YdbTable table = new YdbTable(null, new YdbTypes(opts), "test", "/local/test", td, opts);
+        return new YdbDataWriterFactory(table, SCHEMA, opts);
+    }
+
+    @Test
+    public void splitOnlyIdempotentTest() {
+        Assert.assertTrue(factory().isWriteSplit());
+        Assert.assertTrue(factory("method", "UPSERT").isWriteSplit());
+        Assert.assertTrue(factory("method", "REPLACE").isWriteSplit());
+        Assert.assertFalse(factory("method", "UPSERT", "write.split", "false").isWriteSplit());
+
+        // the halves of the failed INSERT may duplicate the rows which have been already inserted
+        Assert.assertFalse(factory("method", "INSERT").isWriteSplit());
+        Assert.assertFalse(factory("method", "INSERT", "write.split", "true").isWriteSplit());
+    }
+}
@@ -0,0 +1,449 @@
+package tech.ydb.spark.connector.write;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import tech.ydb.core.Issue;
+import tech.ydb.core.Status;
+import tech.ydb.core.StatusCode;
+import tech.ydb.spark.connector.YdbTypes;
+import tech.ydb.spark.connector.common.KeysRange;
+import tech.ydb.spark.connector.impl.YdbGovernor;
+import tech.ydb.table.values.PrimitiveType;
+
+/**
+ *
+ * @author Aleksandr Gorshenin
+ */
+public class YdbDataWriterTest {
+
+    private static InternalRow row(int id) {
+        return new GenericInternalRow(new Object[] {id});
+    }
+
+    private static List<Integer> range(int from, int to) {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = from; id < to; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private static YdbDataWriter dataWriter(FakeWriter writer, YdbWriteLimiter limiter, boolean async) {
+        return new YdbDataWriter(writer, limiter, new YdbGovernor(0, 0, 0), async, false, false);
+    }
+
+    private static void waitFor(String message, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue(message, System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void asyncSerializationTest() throws Exception {
+        FakeWriter writer = new FakeWriter(3);
+        YdbDataWriter dw = dataWriter(writer, YdbWriteLimiter.fixed(2, Long.MAX_VALUE), true);
+        for (int id = 0; id < 10; id++) {
+            dw.write(row(id));
+        }
+        dw.commit();
+        dw.close();
+
+        Assert.assertEquals(range(0, 10), writer.writtenRows());
+        Assert.assertEquals(4, writer.serializedBy.size());
+        for (String thread : writer.serializedBy) {
+            Assert.assertTrue(thread, thread.startsWith("ydb-batch-encoder-"));
+        }
+        Assert.assertTrue(writer.closed);
+    }
+
+    @Test
+    public void syncSerializationTest() throws Exception {
+        FakeWriter writer = new FakeWriter(4);
+        YdbDataWriter dw = dataWriter(writer, YdbWriteLimiter.fixed(2, Long.MAX_VALUE), false);
+        for (int id = 0; id < 10; id++) {
+            dw.write(row(id));
+        }
+        dw.commit();
+        dw.close();
+
+        Assert.assertEquals(range(0, 10), writer.writtenRows());
+        Assert.assertEquals(Collections.nCopies(3, Thread.currentThread().getName()), writer.serializedBy);
+    }
+
+    @Test
+    public void asyncSerializationErrorTest() throws Exception {
+        FakeWriter writer = new FakeWriter(2);
+        writer.failSerialization = true;
+        YdbDataWriter dw = dataWriter(writer, YdbWriteLimiter.fixed(1, Long.MAX_VALUE), true);
+        dw.write(row(1));
+        dw.write(row(2));
+
+        // the failed batch must return its limiter slot, otherwise the commit hangs
+        Assert.assertThrows(RuntimeException.class, dw::commit);
+        Assert.assertTrue(writer.written.isEmpty());
+        dw.close();
+    }
+
+    @Test
+    public void limitWaitInTaskThreadTest() throws Exception {
+        FakeWriter writer = new FakeWriter(2);
+        ConcurrentLinkedDeque<CompletableFuture<Status>> requests = new ConcurrentLinkedDeque<>();
+        writer.sender = rows -> {
+            CompletableFuture<Status> future = new CompletableFuture<>();
+            requests.add(future);
+            return future;
+        };
+        YdbDataWriter dw = dataWriter(writer, YdbWriteLimiter.fixed(1, Long.MAX_VALUE), true);
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread task = new Thread(() -> {
+            try {
+                for (int id = 0; id < 6; id++) {
+                    dw.write(row(id));
+                }
+                dw.commit();
+            } catch (Throwable th) {
+                error.set(th);
+            }
+        }, "test-task");
+        task.start();
+
+        // the second batch waits for the slot in the task thread and is not passed to the encoder
+        waitFor("task thread is not blocked",
+                () -> task.getState() == Thread.State.WAITING && requests.size() == 1);
+        Assert.assertEquals(1, requests.size());
+        Assert.assertEquals(1, writer.serializedBy.size());
+
+        for (int batch = 0; batch < 3; batch++) {
+            waitFor("batch " + batch + " is not sent", () -> !requests.isEmpty());
+            requests.poll().complete(Status.SUCCESS);
+        }
+
+        task.join(TimeUnit.SECONDS.toMillis(10));
+        Assert.assertFalse(task.isAlive());
+        Assert.assertNull(error.get());
+        Assert.assertEquals(range(0, 6), writer.writtenRows());
+        dw.close();
+    }
+
+    @Test
+    public void splittableStatusTest() {
+        Assert.assertTrue(YdbDataWriter.isSplittable(Status.of(StatusCode.CLIENT_RESOURCE_EXHAUSTED)));
+        Assert.assertTrue(YdbDataWriter.isSplittable(Status.of(StatusCode.TIMEOUT)));
+        Assert.assertTrue(YdbDataWriter.isSplittable(Status.of(StatusCode.OVERLOADED)));
+        Assert.assertTrue(YdbDataWriter.isSplittable(Status.of(StatusCode.CLIENT_DEADLINE_EXPIRED)));
+        Assert.assertTrue(YdbDataWriter.isSplittable(Status.of(StatusCode.BAD_REQUEST,
+                Issue.of("Request size 70000000 exceeds the limit", Issue.Severity.ERROR))));
+        Assert.assertTrue(YdbDataWriter.isSplittable(Status.of(StatusCode.BAD_REQUEST,
+                Issue.of("Batch is Too Large", Issue.Severity.ERROR))));
+
+        // the errors of the rows themselves are not fixed by splitting
+        Assert.assertFalse(YdbDataWriter.isSplittable(Status.of(StatusCode.BAD_REQUEST)));
+        Assert.assertFalse(YdbDataWriter.isSplittable(Status.of(StatusCode.BAD_REQUEST,
+                Issue.of("Missing not null column in input: value", Issue.Severity.ERROR))));
+        Assert.assertFalse(YdbDataWriter.isSplittable(Status.of(StatusCode.BAD_REQUEST,
+                Issue.of("Type mismatch, got type Int64 for column id", Issue.Severity.ERROR))));
+        Assert.assertFalse(YdbDataWriter.isSplittable(Status.of(StatusCode.SCHEME_ERROR)));
+        Assert.assertFalse(YdbDataWriter.isSplittable(Status.of(StatusCode.PRECONDITION_FAILED)));
+    }
+
+    @Test
+    public void splitTooLargeBatchTest() {
+        FakeWriter writer = new FakeWriter(8);
+        List<Integer> attempts = Collections.synchronizedList(new ArrayList<>());
+        writer.sender = rows -> {
+            attempts.add(rows.size());
+            Status status = rows.size() > 2 ? Status.of(StatusCode.CLIENT_RESOURCE_EXHAUSTED) : Status.SUCCESS;
+            return CompletableFuture.completedFuture(status);
+        };
+        List<Integer> splits = new ArrayList<>();
+
+        FakeBatch batch = new FakeBatch(writer, range(0, 8));
+        Status status = YdbDataWriter.writeSplitting(b -> b.write(UnaryOperator.identity()), batch, splits::add)
+                .join();
+
+        Assert.assertTrue(status.isSuccess());
+        Assert.assertEquals(range(0, 8), writer.writtenRows());
+        Assert.assertEquals(Arrays.asList(8, 4, 2, 2, 4, 2, 2), attempts);
+        Assert.assertEquals(Arrays.asList(4, 2, 2), splits);
+    }
+
+    @Test
+    public void badRowIsNotSplitTest() {
+        FakeWriter writer = new FakeWriter(8);
+        List<Integer> attempts = Collections.synchronizedList(new ArrayList<>());
+        Status badRow = Status.of(StatusCode.BAD_REQUEST,
+                Issue.of("Missing not null column in input: value", Issue.Severity.ERROR));
+        writer.sender = rows -> {
+            attempts.add(rows.size());
+            return CompletableFuture.completedFuture(badRow);
+        };
+
+        FakeBatch batch = new FakeBatch(writer, range(0, 8));
+        Status status = YdbDataWriter.writeSplitting(b -> b.write(UnaryOperator.identity()), batch, rows -> { })
+                .join();
+
+        Assert.assertEquals(badRow, status);
+        Assert.assertEquals(Collections.singletonList(8), attempts);
+        Assert.assertTrue(writer.written.isEmpty());
+    }
+
+    private static YdbDataWriter hedgedWriter(FakeWriter writer, int concurrency) throws Exception {
+        YdbDataWriter dw = new YdbDataWriter(writer, YdbWriteLimiter.fixed(concurrency, Long.MAX_VALUE),
+                new YdbGovernor(0, 0, 0), false, false, true);
+        // the hedging delay is known only after 16 written batches
+        for (int id = 0; id < 32; id++) {
+            dw.write(row(id));
+        }
+        return dw;
+    }
+
+    private static ConcurrentLinkedDeque<CompletableFuture<Status>> holdRequests(FakeWriter writer) {
+        ConcurrentLinkedDeque<CompletableFuture<Status>> requests = new ConcurrentLinkedDeque<>();
+        writer.sender = rows -> {
+            CompletableFuture<Status> future = new CompletableFuture<>();
+            requests.add(future);
+            return future;
+        };
+        return requests;
+    }
+
+    @Test
+    public void hedgedRequestWinsTest() throws Exception {
+        FakeWriter writer = new FakeWriter(2);
+        YdbDataWriter dw = hedgedWriter(writer, 2);
+        ConcurrentLinkedDeque<CompletableFuture<Status>> requests = holdRequests(writer);
+
+        dw.write(row(100));
+        dw.write(row(101));
+        // 16 batches are written before
+        waitFor("hedged request is not sent", () -> requests.size() == 2 && writer.calls.size() == 18);
+
+        requests.pollLast().complete(Status.SUCCESS);
+        // the slow request is cancelled as soon as the hedged one succeeds
+        CompletableFuture<Status> primary = writer.calls.get(16);
+        waitFor("primary request is not cancelled", primary::isCancelled);
+
+        dw.commit();
+        dw.close();
+        List<Integer> expected = range(0, 32);
+        expected.addAll(Arrays.asList(100, 101));
+        Assert.assertEquals(expected, writer.writtenRows());
+    }
+
+    @Test
+    public void failedPrimaryWaitsForHedgeTest() throws Exception {
+        FakeWriter writer = new FakeWriter(2);
+        YdbDataWriter dw = hedgedWriter(writer, 2);
+        ConcurrentLinkedDeque<CompletableFuture<Status>> requests = holdRequests(writer);
+
+        dw.write(row(100));
+        dw.write(row(101));
+        // 16 batches are written before
+        waitFor("hedged request is not sent", () -> requests.size() == 2 && writer.calls.size() == 18);
+
+        requests.pollFirst().complete(Status.of(StatusCode.UNAVAILABLE));
+        requests.pollFirst().complete(Status.SUCCESS);
+        // the error of the primary request is not reported because the hedged one has succeeded
+        dw.commit();
+        dw.close();
+        Assert.assertEquals(Arrays.asList(100, 101), writer.writtenRows().subList(32, 34));
+    }
+
+    @Test
+    public void noHedgeWithoutFreeSlotTest() throws Exception {
+        FakeWriter writer = new FakeWriter(2);
+        // the only slot is taken by the primary request
+        YdbDataWriter dw = hedgedWriter(writer, 1);
+        ConcurrentLinkedDeque<CompletableFuture<Status>> requests = holdRequests(writer);
+
+        dw.write(row(100));
+        dw.write(row(101));
+        Thread.sleep(300);
+        Assert.assertEquals(1, requests.size());
+
+        requests.poll().complete(Status.SUCCESS);
+        dw.commit();
+        dw.close();
+        Assert.assertEquals(34, writer.writtenRows().size());
+    }
+
+    @Test
+    public void adaptiveShardedBatchesTest() throws Exception {
+        KeysRange[] partitions = new KeysRange[] {
+            new KeysRange(null, true, new Serializable[] {100}, false),
+            new KeysRange(new Serializable[] {100}, true, null, false),
+        };
+        ColumnEntry key = new ColumnEntry("id", PrimitiveType.Int32, DataTypes.IntegerType, 0);
+        List<FakeWriter> shards = new ArrayList<>();
+        YdbWriterSharded sharded = new YdbWriterSharded(new YdbTypes(CaseInsensitiveStringMap.empty()), partitions,
+                Collections.singletonList(key), 1000, () -> {
+                    FakeWriter shard = new FakeWriter(1000);
+                    shards.add(shard);
+                    return shard;
+                });
+
+        YdbWriteLimiter limiter = YdbWriteLimiter.adaptive(2, 2, 4, 4, 10_000, Long.MAX_VALUE);
+        YdbDataWriter dw = new YdbDataWriter(sharded, limiter, new YdbGovernor(0, 0, 0), false, false, false);
+        for (int id = 0; id < 8; id++) {
+            // the rows of both shards are interleaved
+            dw.write(row(id));
+            dw.write(row(100 + id));
+        }
+        dw.commit();
+        dw.close();
+
+        // the adaptive size limits the batch of every shard, not the rows buffered by all shards
+        Assert.assertEquals(2, shards.size());
+        for (FakeWriter shard : shards) {
+            Assert.assertEquals(2, shard.written.size());
+            for (List<Integer> batch : shard.written) {
+                Assert.assertEquals(4, batch.size());
+            }
+        }
+    }
+
+    static class FakeWriter implements YdbWriter {
+        private final int batchRows;
+        private final List<Integer> buffer = new ArrayList<>();
+
+        final List<String> serializedBy = Collections.synchronizedList(new ArrayList<>());
+        final List<List<Integer>> written = Collections.synchronizedList(new ArrayList<>());
+        final List<CompletableFuture<Status>> calls = Collections.synchronizedList(new ArrayList<>());
+        volatile Function<List<Integer>, CompletableFuture<Status>> sender =
+                rows -> CompletableFuture.completedFuture(Status.SUCCESS);
+        volatile boolean failSerialization = false;
+        volatile boolean closed = false;
+
+        FakeWriter(int batchRows) {
+            this.batchRows = batchRows;
+        }
+
+        List<Integer> writtenRows() {
+            List<Integer> all = new ArrayList<>();
+            synchronized (written) {
+                written.forEach(all::addAll);
+            }
+            return all;
+        }
+
+        @Override
+        public void appendRow(InternalRow record) {
+            buffer.add(record.getInt(0));
+        }
+
+        @Override
+        public boolean needToFlush() {
+            return buffer.size() >= batchRows;
+        }
+
+        @Override
+        public int nextBatchRows() {
+            return buffer.size();
+        }
+
+        @Override
+        public Batch buildNextBatch() {
+            PendingBatch pending = detachNextBatch();
+            return pending != null ? pending.serialize() : null;
+        }
+
+        @Override
+        public PendingBatch detachNextBatch() {
+            if (buffer.isEmpty()) {
+                return null;
+            }
+            List<Integer> rows = new ArrayList<>(buffer);
+            buffer.clear();
+            return new PendingBatch() {
+                @Override
+                public int rowsCount() {
+                    return rows.size();
+                }
+
+                @Override
+                public int estimatedSize() {
+                    return rows.size() * 4;
+                }
+
+                @Override
+                public Batch serialize() {
+                    serializedBy.add(Thread.currentThread().getName());
+                    if (failSerialization) {
+                        throw new IllegalStateException("cannot serialize " + rows);
+                    }
+                    return new FakeBatch(FakeWriter.this, rows);
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    static class FakeBatch implements YdbWriter.Batch {
+        private final FakeWriter writer;
+        final List<Integer> rows;
+
+        FakeBatch(FakeWriter writer, List<Integer> rows) {
+            this.writer = writer;
+            this.rows = rows;
+        }
+
+        @Override
+        public int rowsCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int bytesSize() {
+            return rows.size() * 4;
+        }
+
+        @Override
+        public CompletableFuture<Status> write(UnaryOperator<Status> onAttempt) {
+            CompletableFuture<Status> call = writer.sender.apply(rows).thenApply(onAttempt).thenApply(status -> {
+                if (status.isSuccess()) {
+                    writer.written.add(rows);
+                }
+                return status;
+            });
+            writer.calls.add(call);
+            return call;
+        }
+
+        @Override
+        public YdbWriter.Batch[] split() {
+            if (rows.size() < 2) {
+                return null;
+            }
+            int middle = rows.size() / 2;
+            return new YdbWriter.Batch[] {
+                new FakeBatch(writer, rows.subList(0, middle)),
+                new FakeBatch(writer, rows.subList(middle, rows.size())),
+            };
+        }
+    }
+}
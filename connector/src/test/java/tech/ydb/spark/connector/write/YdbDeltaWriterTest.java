@@ -0,0 +1,141 @@
+package tech.ydb.spark.connector.write;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.connector.metric.CustomTaskMetric;
+import org.apache.spark.sql.connector.write.DataWriter;
+import org.apache.spark.sql.connector.write.WriterCommitMessage;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.Metadata;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.unsafe.types.UTF8String;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Aleksandr Gorshenin
+ */
+public class YdbDeltaWriterTest {
+    private static final StructType SCHEMA = new StructType(new StructField[]{
+        new StructField("value", DataTypes.StringType, true, Metadata.empty()),
+        new StructField("id", DataTypes.IntegerType, false, Metadata.empty()),
+    });
+
+    private static final StructType KEY = new StructType(new StructField[]{
+        new StructField("id", DataTypes.IntegerType, false, Metadata.empty()),
+    });
+
+    @Test
+    public void keyChangingUpdateTest() throws IOException {
+        // UPDATE SET id = id + 1 is split into the deletes of the old keys and the inserts of the new ones
+        List<String> events = new ArrayList<>();
+        YdbDeltaWriter writer = deltaWriter(events);
+        for (int id = 1; id <= 3; id++) {
+            writer.delete(null, key(id));
+            writer.insert(row(id + 1));
+        }
+        writer.commit();
+        writer.close();
+
+        // the deletes of the keys 2 and 3 would remove the already inserted rows
+        Assert.assertEquals(Arrays.asList(
+                "delete 1", "upsert 2", "upsert 3", "upsert 4",
+                "commit deletes", "commit upserts", "close deletes", "close upserts"
+        ), events);
+    }
+
+    @Test
+    public void insertAfterDeleteTest() throws IOException {
+        List<String> events = new ArrayList<>();
+        YdbDeltaWriter writer = deltaWriter(events);
+        writer.delete(null, key(1));
+        writer.delete(null, key(2));
+        // the other keys do not wait for the deletes
+        writer.insert(row(3));
+        writer.update(null, key(4), row(4));
+        // the insert of the deleted key is sent only after the deletes are completed
+        writer.insert(row(2));
+        writer.delete(null, key(5));
+        writer.update(null, key(5), row(5));
+        writer.commit();
+        writer.close();
+
+        Assert.assertEquals(Arrays.asList(
+                "delete 1", "delete 2", "upsert 3", "upsert 4", "commit deletes", "close deletes", "upsert 2",
+                "delete 5", "commit deletes", "close deletes", "upsert 5", "commit upserts", "close upserts"
+        ), events);
+    }
+
+    @Test
+    public void untrackedKeysTest() throws IOException {
+        List<String> events = new ArrayList<>();
+        YdbDeltaWriter writer = new YdbDeltaWriter(
+                () -> new FakeWriter("upsert", 1, events), () -> new FakeWriter("delete", 0, events));
+        writer.delete(null, key(1));
+        writer.insert(row(1));
+        writer.commit();
+        writer.close();
+
+        Assert.assertEquals(Arrays.asList(
+                "delete 1", "upsert 1", "commit deletes", "commit upserts", "close deletes", "close upserts"
+        ), events);
+    }
+
+    private static YdbDeltaWriter deltaWriter(List<String> events) {
+        return new YdbDeltaWriter(SCHEMA, KEY,
+                () -> new FakeWriter("upsert", 1, events), () -> new FakeWriter("delete", 0, events));
+    }
+
+    private static InternalRow key(int id) {
+        return new GenericInternalRow(new Object[] {id});
+    }
+
+    private static InternalRow row(int id) {
+        return new GenericInternalRow(new Object[] {UTF8String.fromString("v" + id), id});
+    }
+
+    private static final class FakeWriter implements DataWriter<InternalRow> {
+        private final String name;
+        private final int idOrdinal;
+        private final List<String> events;
+
+        FakeWriter(String name, int idOrdinal, List<String> events) {
+            this.name = name;
+            this.idOrdinal = idOrdinal;
+            this.events = events;
+        }
+
+        @Override
+        public void write(InternalRow record) {
+            events.add(name + " " + record.getInt(idOrdinal));
+        }
+
+        @Override
+        public WriterCommitMessage commit() {
+            events.add("commit " + name + "s");
+            return new YdbWriteCommit();
+        }
+
+        @Override
+        public void abort() {
+            events.add("abort " + name + "s");
+        }
+
+        @Override
+        public CustomTaskMetric[] currentMetricsValues() {
+            return new CustomTaskMetric[0];
+        }
+
+        @Override
+        public void close() {
+            events.add("close " + name + "s");
+        }
+    }
+}
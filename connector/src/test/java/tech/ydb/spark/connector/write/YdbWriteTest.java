@@ -0,0 +1,128 @@
+package tech.ydb.spark.connector.write;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.spark.sql.connector.distributions.ClusteredDistribution;
+import org.apache.spark.sql.connector.distributions.Distribution;
+import org.apache.spark.sql.connector.distributions.OrderedDistribution;
+import org.apache.spark.sql.connector.distributions.UnspecifiedDistribution;
+import org.apache.spark.sql.connector.expressions.Expression;
+import org.apache.spark.sql.connector.expressions.NamedReference;
+import org.apache.spark.sql.connector.expressions.SortDirection;
+import org.apache.spark.sql.connector.expressions.SortOrder;
+import org.apache.spark.sql.connector.write.LogicalWriteInfo;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.Metadata;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import tech.ydb.spark.connector.YdbTable;
+import tech.ydb.spark.connector.YdbTypes;
+import tech.ydb.table.description.TableDescription;
+import tech.ydb.table.values.PrimitiveType;
+
+/**
+ *
+ * @author Aleksandr Gorshenin
+ */
+public class YdbWriteTest {
+    private static final StructType SCHEMA = new StructType(new StructField[]{
+        new StructField("id", DataTypes.IntegerType, false, Metadata.empty()),
+        new StructField("value", DataTypes.StringType, true, Metadata.empty()),
+    });
+
+    private static YdbTable table(TableDescription.StoreType storeType) {
+        TableDescription td = TableDescription.newBuilder()
+                .addNonnullColumn("id", PrimitiveType.Int32)
+                .addNullableColumn("value", PrimitiveType.Text)
+                .setPrimaryKey("id")
+                .setStoreType(storeType)
+                .build();
+        CaseInsensitiveStringMap options = CaseInsensitiveStringMap.empty();
+        return new YdbTable(null, new YdbTypes(options), "test", "/local/test", td, options);
+    }
+
+    private static YdbWrite write(TableDescription.StoreType storeType, String... options) {
+        Map<String, String> map = new HashMap<>();
+        for (int idx = 0; idx + 1 < options.length; idx += 2) {
+            map.put(options[idx], options[idx + 1]);
+        }
+        LogicalWriteInfo info = new LogicalWriteInfo() {
+            @Override
+            public CaseInsensitiveStringMap options() {
+                return new CaseInsensitiveStringMap(map);
+            }
+
+            @Override
+            public String queryId() {
+                return "test";
+            }
+
+            @Override
+            public StructType schema() {
+                return SCHEMA;
+            }
+        };
+        return new YdbWrite(table(storeType), info, false);
+    }
+
+    private static void assertKeyOrder(SortOrder[] order) {
+        Assert.assertEquals(1, order.length);
+        Assert.assertEquals(SortDirection.ASCENDING, order[0].direction());
+        assertKey(order[0].expression());
+    }
+
+    private static void assertKey(Expression expression) {
+        Assert.assertArrayEquals(new String[] {"id"}, ((NamedReference) expression).fieldNames());
+    }
+
+    @Test
+    public void defaultWriteTest() {
+        YdbWrite write = write(TableDescription.StoreType.ROW);
+        Assert.assertTrue(write.requiredDistribution() instanceof UnspecifiedDistribution);
+        Assert.assertEquals(0, write.requiredOrdering().length);
+        Assert.assertEquals(0, write.requiredNumPartitions());
+    }
+
+    @Test
+    public void distributedWriteTest() {
+        YdbWrite write = write(TableDescription.StoreType.ROW, "write.distribute", "true");
+        Distribution distribution = write.requiredDistribution();
+        Assert.assertTrue(distribution instanceof OrderedDistribution);
+        assertKeyOrder(((OrderedDistribution) distribution).ordering());
+        Assert.assertEquals(0, write.requiredOrdering().length);
+        // the table has a single shard, but Spark keeps its own parallelism
+        Assert.assertEquals(0, write.requiredNumPartitions());
+
+        write = write(TableDescription.StoreType.ROW, "write.distribute", "true", "write.partitions", "8",
+                "write.sort", "true");
+        Assert.assertTrue(write.requiredDistribution() instanceof OrderedDistribution);
+        assertKeyOrder(write.requiredOrdering());
+        Assert.assertEquals(8, write.requiredNumPartitions());
+    }
+
+    @Test
+    public void columnTableWriteTest() {
+        YdbWrite write = write(TableDescription.StoreType.COLUMN, "write.distribute", "true");
+        Distribution distribution = write.requiredDistribution();
+        Assert.assertTrue(distribution instanceof ClusteredDistribution);
+        Expression[] clustering = ((ClusteredDistribution) distribution).clustering();
+        Assert.assertEquals(1, clustering.length);
+        assertKey(clustering[0]);
+        Assert.assertEquals(0, write.requiredNumPartitions());
+    }
+
+    @Test
+    public void syncWriteTest() {
+        YdbWrite write = write(TableDescription.StoreType.ROW, "method", "sync");
+        Distribution distribution = write.requiredDistribution();
+        Assert.assertTrue(distribution instanceof OrderedDistribution);
+        assertKeyOrder(((OrderedDistribution) distribution).ordering());
+        assertKeyOrder(write.requiredOrdering());
+        Assert.assertEquals(0, write.requiredNumPartitions());
+    }
+}
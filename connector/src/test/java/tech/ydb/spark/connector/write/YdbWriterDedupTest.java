@@ -0,0 +1,126 @@
+package tech.ydb.spark.connector.write;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.unsafe.types.UTF8String;
+import org.junit.Assert;
+import org.junit.Test;
+
+import tech.ydb.table.values.PrimitiveType;
+
+/**
+ *
+ * @author Aleksandr Gorshenin
+ */
+public class YdbWriterDedupTest {
+    private static final ColumnEntry ID = new ColumnEntry("id", PrimitiveType.Int32, DataTypes.IntegerType, 0);
+    private static final ColumnEntry VALUE = new ColumnEntry("value", PrimitiveType.Text, DataTypes.StringType, 1);
+
+    @Test
+    public void lastVersionTest() {
+        RecordingWriter recorder = new RecordingWriter();
+        YdbWriterDedup writer = dedup(10, recorder);
+
+        writer.appendRow(row(1, "a"));
+        writer.appendRow(row(2, "b"));
+        writer.appendRow(row(1, "c"));
+        writer.appendRow(row(3, "d"));
+        writer.appendRow(row(2, "e"));
+        Assert.assertTrue(recorder.rows.isEmpty());
+
+        writer.buildNextBatch();
+        // the rows keep the order of the first appearance of their keys
+        Assert.assertEquals(Arrays.asList("1:c", "2:e", "3:d"), recorder.rows);
+    }
+
+    @Test
+    public void copiedRowsTest() {
+        RecordingWriter recorder = new RecordingWriter();
+        YdbWriterDedup writer = dedup(10, recorder);
+
+        // Spark reuses the row object
+        GenericInternalRow reused = new GenericInternalRow(2);
+        for (int id = 1; id <= 3; id++) {
+            reused.update(0, id);
+            reused.update(1, UTF8String.fromString("v" + id));
+            writer.appendRow(reused);
+        }
+
+        writer.buildNextBatch();
+        Assert.assertEquals(Arrays.asList("1:v1", "2:v2", "3:v3"), recorder.rows);
+    }
+
+    @Test
+    public void fullBufferTest() {
+        RecordingWriter recorder = new RecordingWriter();
+        YdbWriterDedup writer = dedup(2, recorder);
+
+        writer.appendRow(row(1, "a"));
+        writer.appendRow(row(1, "b"));
+        Assert.assertFalse(writer.needToFlush());
+        writer.appendRow(row(2, "c"));
+        Assert.assertTrue(writer.needToFlush());
+
+        // the full buffer is passed to the writer before the new key
+        writer.appendRow(row(3, "d"));
+        Assert.assertEquals(Arrays.asList("1:b", "2:c"), recorder.rows);
+
+        writer.appendRow(row(1, "e"));
+        writer.buildNextBatch();
+        Assert.assertEquals(Arrays.asList("1:b", "2:c", "3:d", "1:e"), recorder.rows);
+    }
+
+    @Test
+    public void hugeBatchTest() {
+        RecordingWriter recorder = new RecordingWriter();
+        // the index capacity must not overflow for the huge batch limits
+        YdbWriterDedup writer = dedup(Integer.MAX_VALUE, recorder);
+
+        writer.appendRow(row(1, "a"));
+        writer.appendRow(row(1, "b"));
+        writer.buildNextBatch();
+        Assert.assertEquals(Collections.singletonList("1:b"), recorder.rows);
+    }
+
+    private static YdbWriterDedup dedup(int maxRowsCount, YdbWriter writer) {
+        return new YdbWriterDedup(Collections.singletonList(ID), Arrays.asList(ID, VALUE), maxRowsCount,
+                Integer.MAX_VALUE, writer);
+    }
+
+    private static InternalRow row(int id, String value) {
+        return new GenericInternalRow(new Object[] {id, UTF8String.fromString(value)});
+    }
+
+    private static final class RecordingWriter implements YdbWriter {
+        private final List<String> rows = new ArrayList<>();
+
+        @Override
+        public void appendRow(InternalRow record) {
+            rows.add(record.getInt(0) + ":" + record.getUTF8String(1));
+        }
+
+        @Override
+        public boolean needToFlush() {
+            return false;
+        }
+
+        @Override
+        public int nextBatchRows() {
+            return 0;
+        }
+
+        @Override
+        public Batch buildNextBatch() {
+            return null;
+        }
+
+        @Override
+        public void close() { }
+    }
+}
@@ -0,0 +1,155 @@
+package tech.ydb.spark.connector.write;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import org.apache.spark.unsafe.types.UTF8String;
+import org.junit.Assert;
+import org.junit.Test;
+
+import tech.ydb.spark.connector.YdbTypes;
+import tech.ydb.spark.connector.common.KeysRange;
+import tech.ydb.table.values.PrimitiveType;
+
+/**
+ *
+ * @author Aleksandr Gorshenin
+ */
+public class YdbWriterShardedTest {
+    private static final YdbTypes TYPES = new YdbTypes(CaseInsensitiveStringMap.empty());
+
+    private static KeysRange range(Serializable from, Serializable to) {
+        return new KeysRange(from != null ? new Serializable[] {from} : null, true,
+                to != null ? new Serializable[] {to} : null, false);
+    }
+
+    @Test
+    public void intKeyRoutingTest() {
+        KeysRange[] partitions = new KeysRange[] {range(null, 10), range(10, 20), range(20, 30), range(30, null)};
+        ColumnEntry key = new ColumnEntry("id", PrimitiveType.Int32, DataTypes.IntegerType, 0);
+        List<RecordingWriter> created = new ArrayList<>();
+        YdbWriterSharded writer = new YdbWriterSharded(TYPES, partitions, Collections.singletonList(key), 1000,
+                () -> {
+                    RecordingWriter w = new RecordingWriter();
+                    created.add(w);
+                    return w;
+                });
+
+        for (int id : new int[] {-5, 15, 9, 10, 35, 19, 0, 100}) {
+            writer.appendRow(new GenericInternalRow(new Object[] {id}));
+        }
+
+        // the shard [20, 30) has no rows, so its writer is not created
+        Assert.assertEquals(3, created.size());
+        Assert.assertEquals(Arrays.asList(-5, 9, 0), created.get(0).rows);
+        Assert.assertEquals(Arrays.asList(15, 10, 19), created.get(1).rows);
+        Assert.assertEquals(Arrays.asList(35, 100), created.get(2).rows);
+    }
+
+    @Test
+    public void textKeyRoutingTest() {
+        KeysRange[] partitions = new KeysRange[] {
+            range(null, UTF8String.fromString("m")), range(UTF8String.fromString("m"), null),
+        };
+        ColumnEntry key = new ColumnEntry("name", PrimitiveType.Text, DataTypes.StringType, 1);
+        List<RecordingWriter> created = new ArrayList<>();
+        YdbWriterSharded writer = new YdbWriterSharded(TYPES, partitions, Collections.singletonList(key), 1000,
+                () -> {
+                    RecordingWriter w = new RecordingWriter();
+                    created.add(w);
+                    return w;
+                });
+
+        int id = 0;
+        for (String name : new String[] {"zed", "alpha", "m", "lima"}) {
+            writer.appendRow(new GenericInternalRow(new Object[] {id++, UTF8String.fromString(name)}));
+        }
+
+        Assert.assertEquals(2, created.size());
+        Assert.assertEquals(Arrays.asList(0, 2), created.get(0).rows);
+        Assert.assertEquals(Arrays.asList(1, 3), created.get(1).rows);
+    }
+
+    @Test
+    public void convertedKeyRoutingTest() {
+        // Int64 column written from the int Spark column is routed through the YDB value
+        KeysRange[] partitions = new KeysRange[] {range(null, 10L), range(10L, null)};
+        ColumnEntry key = new ColumnEntry("id", PrimitiveType.Int64, DataTypes.IntegerType, 0);
+        List<RecordingWriter> created = new ArrayList<>();
+        YdbWriterSharded writer = new YdbWriterSharded(TYPES, partitions, Collections.singletonList(key), 1000,
+                () -> {
+                    RecordingWriter w = new RecordingWriter();
+                    created.add(w);
+                    return w;
+                });
+
+        writer.appendRow(new GenericInternalRow(new Object[] {20}));
+        writer.appendRow(new GenericInternalRow(new Object[] {5}));
+
+        Assert.assertEquals(2, created.size());
+        Assert.assertEquals(Arrays.asList(20), created.get(0).rows);
+        Assert.assertEquals(Arrays.asList(5), created.get(1).rows);
+    }
+
+    @Test
+    public void dedupByShardTest() {
+        KeysRange[] partitions = new KeysRange[] {range(null, 10), range(10, null)};
+        ColumnEntry key = new ColumnEntry("id", PrimitiveType.Int32, DataTypes.IntegerType, 0);
+        List<RecordingWriter> created = new ArrayList<>();
+        YdbWriterSharded writer = new YdbWriterSharded(TYPES, partitions, Collections.singletonList(key), 1000,
+                () -> {
+                    RecordingWriter w = new RecordingWriter();
+                    created.add(w);
+                    return new YdbWriterDedup(Collections.singletonList(key), Collections.singletonList(key), 100,
+                            Integer.MAX_VALUE, w);
+                });
+
+        for (int id : new int[] {1, 15, 1, 15, 1}) {
+            writer.appendRow(new GenericInternalRow(new Object[] {id}));
+        }
+        Assert.assertEquals(3, writer.nextBatchRows());
+
+        // the largest shard is flushed, the other one keeps its versions
+        writer.buildNextBatch();
+        Assert.assertEquals(Arrays.asList(1), created.get(0).rows);
+        Assert.assertTrue(created.get(1).rows.isEmpty());
+
+        writer.appendRow(new GenericInternalRow(new Object[] {15}));
+        writer.buildNextBatch();
+        Assert.assertEquals(Arrays.asList(15), created.get(1).rows);
+    }
+
+    private static final class RecordingWriter implements YdbWriter {
+        private final List<Integer> rows = new ArrayList<>();
+
+        @Override
+        public void appendRow(InternalRow record) {
+            rows.add(record.getInt(0));
+        }
+
+        @Override
+        public boolean needToFlush() {
+            return false;
+        }
+
+        @Override
+        public int nextBatchRows() {
+            return 0;
+        }
+
+        @Override
+        public Batch buildNextBatch() {
+            return null;
+        }
+
+        @Override
+        public void close() { }
+    }
+}